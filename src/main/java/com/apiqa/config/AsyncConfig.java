@@ -0,0 +1,58 @@
+package com.apiqa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executors behind the {@code @Async} methods.
+ * Test runs get a dedicated pool with a bounded queue; when the queue is full a submission is
+ * rejected right away instead of piling up work or running it on the caller's thread.
+ */
+@Configuration
+public class AsyncConfig {
+
+    public static final String TEST_RUN_EXECUTOR = "testRunExecutor";
+
+    @Value("${apiqa.test-runs.workers:4}")
+    private int workers;
+
+    @Value("${apiqa.test-runs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean(name = TEST_RUN_EXECUTOR)
+    public ThreadPoolTaskExecutor testRunExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // The pool only grows past its core size once the queue is full, so keep both the same
+        executor.setCorePoolSize(Math.max(1, workers));
+        executor.setMaxPoolSize(Math.max(1, workers));
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setThreadNamePrefix("test-run-");
+        executor.setRejectedExecutionHandler(new CountingAbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Rejects tasks like {@link ThreadPoolExecutor.AbortPolicy} and counts the rejections
+     */
+    public static class CountingAbortPolicy implements RejectedExecutionHandler {
+        private final AtomicLong rejected = new AtomicLong();
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Test run queue is full (" + executor.getQueue().size() + " waiting)");
+        }
+
+        public long getRejectedCount() {
+            return rejected.get();
+        }
+    }
+}
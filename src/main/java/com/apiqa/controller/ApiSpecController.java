@@ -1,12 +1,21 @@
 package com.apiqa.controller;
 
 import com.apiqa.model.ApiSpec;
+import com.apiqa.model.BulkImport;
+import com.apiqa.model.ExecutionOrder;
 import com.apiqa.model.FeatureFile;
+import com.apiqa.model.Job;
+import com.apiqa.model.TestSuiteType;
 import com.apiqa.service.ApiQaService;
+import com.apiqa.service.BulkImportService;
+import com.apiqa.service.JobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +26,12 @@ public class ApiSpecController {
     @Autowired
     private ApiQaService apiQaService;
     
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private JobService jobService;
+    
     @GetMapping
     public ResponseEntity<List<ApiSpec>> getAllSpecs() {
         List<ApiSpec> specs = apiQaService.getAllApiSpecs();
@@ -43,6 +58,52 @@ public class ApiSpecController {
         }
     }
     
+    @PostMapping(value = "/upload", consumes = "multipart/form-data")
+    public ResponseEntity<ApiSpec> uploadSpecFile(@RequestParam String name,
+                                                  @RequestParam("file") MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            ApiSpec spec = apiQaService.uploadApiSpec(name, content);
+            
+            // Automatically generate tests after successful upload
+            try {
+                apiQaService.generateFeatureFiles(spec.getId());
+            } catch (Exception e) {
+                System.err.println("Warning: Failed to auto-generate tests: " + e.getMessage());
+                e.printStackTrace();
+                // Don't fail the upload if test generation fails
+            }
+            
+            return ResponseEntity.ok(spec);
+        } catch (Exception e) {
+            System.err.println("Error uploading API spec file: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping(value = "/bulk", consumes = "multipart/form-data")
+    public ResponseEntity<BulkImport> uploadSpecArchive(@RequestParam("file") MultipartFile file) {
+        try (InputStream content = file.getInputStream()) {
+            // Generation runs in the background, progress is polled via GET /api/specs/bulk/{id}
+            BulkImport bulkImport = bulkImportService.startImport(file.getOriginalFilename(), content);
+            return ResponseEntity.accepted().body(bulkImport);
+        } catch (Exception e) {
+            System.err.println("Error importing spec archive: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/bulk")
+    public ResponseEntity<List<BulkImport>> getBulkImports() {
+        return ResponseEntity.ok(bulkImportService.getAllImports());
+    }
+    
+    @GetMapping("/bulk/{id}")
+    public ResponseEntity<BulkImport> getBulkImport(@PathVariable Long id) {
+        return bulkImportService.getImport(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping(value = "/form", consumes = {"application/x-www-form-urlencoded", "multipart/form-data"})
     public ResponseEntity<String> uploadSpecForm(@RequestParam String name,
                                                @RequestParam String openApiYaml) {
@@ -73,14 +134,48 @@ public class ApiSpecController {
         }
     }
     
-    @PostMapping("/{id}/generate-tests")
-    public ResponseEntity<String> generateTests(@PathVariable Long id) {
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiSpec> updateSpec(@PathVariable Long id, @RequestBody ApiSpecRequest request) {
         try {
-            apiQaService.generateFeatureFiles(id);
-            return ResponseEntity.ok("Tests generated successfully");
+            ApiSpec spec = apiQaService.updateApiSpec(id, request.getName(), request.getOpenApiYaml());
+            return ResponseEntity.ok(spec);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to generate tests: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @PostMapping("/{id}/generate-tests")
+    public ResponseEntity<Job> generateTests(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "false") boolean full) {
+        if (apiQaService.getApiSpecById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Generation runs as a background job, poll GET /api/jobs/{jobId} for the outcome
+        return ResponseEntity.accepted().body(jobService.submitGeneration(id, full));
+    }
+    
+    @PostMapping("/{id}/run-tests")
+    public ResponseEntity<Job> runTests(@PathVariable Long id,
+                                        @RequestParam String runName,
+                                        @RequestParam(required = false) TestSuiteType suiteType,
+                                        @RequestParam(required = false) Long environmentId,
+                                        @RequestParam(required = false) ExecutionOrder executionOrder,
+                                        @RequestParam(required = false) Integer failFastThreshold) {
+        if (apiQaService.getApiSpecById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.accepted().body(jobService.submitTestRun(id, runName, suiteType, environmentId,
+                executionOrder, failFastThreshold));
+    }
+    
+    @GetMapping(value = "/{id}/content", produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<InputStreamResource> getSpecContent(@PathVariable Long id) {
+        Optional<ApiSpec> apiSpecOpt = apiQaService.getApiSpecById(id);
+        if (apiSpecOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Streamed straight from the blob store for uploaded specs, which can be far too large to load
+        return ResponseEntity.ok(new InputStreamResource(apiQaService.openSpecContent(apiSpecOpt.get())));
     }
     
     @GetMapping("/{id}/debug-content")
@@ -94,6 +189,7 @@ public class ApiSpecController {
             ApiSpec apiSpec = apiSpecOpt.get();
             StringBuilder result = new StringBuilder();
             result.append("API Spec: ").append(apiSpec.getName()).append("\n");
+            result.append("Spec Source: ").append(describeSource(apiSpec)).append("\n");
             result.append("Feature Files: ").append(apiSpec.getFeatureFiles().size()).append("\n\n");
             
             for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
@@ -110,6 +206,13 @@ public class ApiSpecController {
         }
     }
     
+    private String describeSource(ApiSpec apiSpec) {
+        if (apiSpec.getSpecBlobHash() != null) {
+            return "blob " + apiSpec.getSpecBlobHash() + " (GET /api/specs/" + apiSpec.getId() + "/content)";
+        }
+        return "inline, " + (apiSpec.getOpenApiYaml() != null ? apiSpec.getOpenApiYaml().length() : 0) + " chars";
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteSpec(@PathVariable Long id) {
         try {
@@ -1,19 +1,35 @@
 package com.apiqa.controller;
 
 import com.apiqa.model.ApiSpec;
+import com.apiqa.model.Job;
 import com.apiqa.model.TestRun;
 import com.apiqa.model.TestExecution;
 import com.apiqa.model.FeatureFile;
+import com.apiqa.dto.LatencyTrendPoint;
+import com.apiqa.dto.ScheduledSpecResult;
 import com.apiqa.dto.TestExecutionDetailsDto;
+import com.apiqa.dto.TestRunQueueStats;
 import com.apiqa.service.ApiQaService;
+import com.apiqa.service.JobService;
+import com.apiqa.service.LatencyTimeSeriesService;
 import com.apiqa.service.TestExecutionService;
+import com.apiqa.service.TestRunControlService;
+import com.apiqa.service.TestRunEventService;
+import com.apiqa.service.TestRunQueueService;
+import com.apiqa.service.RetentionService;
 import com.apiqa.service.ScheduledTestService;
+import com.apiqa.service.SchedulerLeaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -34,6 +50,27 @@ public class DashboardController {
     @Autowired
     private com.apiqa.service.EmailService emailService;
     
+    @Autowired
+    private RetentionService retentionService;
+    
+    @Autowired
+    private LatencyTimeSeriesService latencyTimeSeriesService;
+    
+    @Autowired
+    private JobService jobService;
+    
+    @Autowired
+    private TestRunQueueService testRunQueueService;
+    
+    @Autowired
+    private TestRunControlService testRunControlService;
+    
+    @Autowired
+    private SchedulerLeaseService schedulerLeaseService;
+    
+    @Autowired
+    private TestRunEventService testRunEventService;
+    
     @GetMapping
     public String dashboard(Model model) {
         List<ApiSpec> apiSpecs = apiQaService.getAllApiSpecs();
@@ -99,29 +136,31 @@ public class DashboardController {
     @PostMapping("/specs/{id}/generate-tests")
     public String generateTests(@PathVariable Long id) {
         try {
-            apiQaService.generateFeatureFiles(id);
-            return "redirect:/specs/" + id + "?success=Tests generated successfully";
+            Job job = jobService.submitGeneration(id, false);
+            return "redirect:/specs/" + id + "?success=Test generation started as job " + job.getId();
         } catch (Exception e) {
             return "redirect:/specs/" + id + "?error=Failed to generate tests: " + e.getMessage();
         }
     }
     
     @PostMapping("/specs/{id}/run-tests")
-    public String runTests(@PathVariable Long id, @RequestParam String runName) {
+    public String runTests(@PathVariable Long id, @RequestParam String runName,
+                           @RequestParam(required = false) Long environmentId) {
         try {
-            apiQaService.executeTestRun(id, runName, com.apiqa.model.TestRunType.MANUAL);
-            return "redirect:/specs/" + id + "?success=Test run started successfully";
+            TestRun testRun = testRunQueueService.submitTestRun(id, runName, com.apiqa.model.TestRunType.MANUAL, null, environmentId);
+            return "redirect:/specs/" + id + "?success=Test run " + testRun.getId() + " started successfully";
         } catch (Exception e) {
             return "redirect:/specs/" + id + "?error=Failed to start test run: " + e.getMessage();
         }
     }
     
     @PostMapping("/specs/{id}/run-tests-by-suite")
-    public String runTestsBySuite(@PathVariable Long id, @RequestParam String runName, @RequestParam String suiteType) {
+    public String runTestsBySuite(@PathVariable Long id, @RequestParam String runName, @RequestParam String suiteType,
+                                  @RequestParam(required = false) Long environmentId) {
         try {
             com.apiqa.model.TestSuiteType suiteTypeEnum = com.apiqa.model.TestSuiteType.valueOf(suiteType);
-            apiQaService.executeTestRunBySuiteType(id, runName, com.apiqa.model.TestRunType.MANUAL, suiteTypeEnum);
-            return "redirect:/specs/" + id + "?success=" + suiteType + " test run started successfully";
+            TestRun testRun = testRunQueueService.submitTestRun(id, runName, com.apiqa.model.TestRunType.MANUAL, suiteTypeEnum, environmentId);
+            return "redirect:/specs/" + id + "?success=" + suiteType + " test run " + testRun.getId() + " started successfully";
         } catch (Exception e) {
             return "redirect:/specs/" + id + "?error=Failed to start " + suiteType + " test run: " + e.getMessage();
         }
@@ -160,7 +199,7 @@ public class DashboardController {
                     exec.getExecutedAt(),
                     exec.getExecutionTimeMs(),
                     exec.getActualStatusCode(),
-                    exec.getActualResponseBody(),
+                    testExecutionService.getResponseBody(exec),
                     exec.getActualHeaders(),
                     exec.getErrorMessage(),
                     exec.getValidationResults(),
@@ -180,17 +219,134 @@ public class DashboardController {
         }
     }
     
+    @GetMapping("/api/test-runs/queue")
+    @ResponseBody
+    public ResponseEntity<TestRunQueueStats> getTestRunQueueStats() {
+        return ResponseEntity.ok(testRunQueueService.getQueueStats());
+    }
+    
+    @GetMapping(value = "/api/test-runs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public ResponseEntity<SseEmitter> streamTestRunEvents(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(testRunEventService.subscribe(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/api/test-runs/{id}/cancel")
+    @ResponseBody
+    public ResponseEntity<String> cancelTestRun(@PathVariable Long id) {
+        try {
+            if (!testRunControlService.cancel(id)) {
+                return ResponseEntity.badRequest().body("Test run " + id + " has already finished");
+            }
+            return ResponseEntity.ok("Test run " + id + " cancelled");
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/api/test-runs/{id}/pause")
+    @ResponseBody
+    public ResponseEntity<String> pauseTestRun(@PathVariable Long id) {
+        try {
+            if (!testRunControlService.pause(id)) {
+                return ResponseEntity.badRequest().body("Test run " + id + " has already finished");
+            }
+            return ResponseEntity.ok("Test run " + id + " paused");
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/api/test-runs/{id}/resume")
+    @ResponseBody
+    public ResponseEntity<String> resumeTestRun(@PathVariable Long id) {
+        if (!testRunControlService.resume(id)) {
+            return ResponseEntity.badRequest().body("Test run " + id + " is not paused");
+        }
+        return ResponseEntity.ok("Test run " + id + " resumed");
+    }
+    
+    @GetMapping("/api/test-runs/{id}/archived-executions")
+    @ResponseBody
+    public ResponseEntity<List<TestExecutionDetailsDto>> getArchivedExecutions(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(retentionService.getArchivedExecutions(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping("/api/retention/run")
+    @ResponseBody
+    public ResponseEntity<String> runRetention() {
+        try {
+            int compacted = retentionService.applyRetention();
+            return ResponseEntity.ok("Retention applied to " + compacted + " test run(s)");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to apply retention: " + e.getMessage());
+        }
+    }
+    
+    @GetMapping("/api/specs/{id}/latency-series")
+    @ResponseBody
+    public ResponseEntity<List<Map<String, String>>> getLatencySeries(@PathVariable Long id) {
+        return ResponseEntity.ok(latencyTimeSeriesService.getSeries(id));
+    }
+    
+    @GetMapping("/api/specs/{id}/latency-trend")
+    @ResponseBody
+    public ResponseEntity<List<LatencyTrendPoint>> getLatencyTrend(@PathVariable Long id,
+                                                                   @RequestParam String method,
+                                                                   @RequestParam String endpoint,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        // Default to the last seven days
+        LocalDateTime windowEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime windowStart = from != null ? from : windowEnd.minusDays(7);
+        return ResponseEntity.ok(latencyTimeSeriesService.getTrend(id, method, endpoint, windowStart, windowEnd));
+    }
+    
+    @PostMapping("/api/latency/downsample")
+    @ResponseBody
+    public ResponseEntity<String> runLatencyDownsampling() {
+        try {
+            int merged = latencyTimeSeriesService.downsample();
+            return ResponseEntity.ok("Downsampled " + merged + " latency bucket(s)");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Failed to downsample latency buckets: " + e.getMessage());
+        }
+    }
+    
     @PostMapping("/api/scheduled-tests/run")
     @ResponseBody
     public ResponseEntity<String> runScheduledTestsManually() {
         try {
             scheduledTestService.runScheduledTestsManually();
-            return ResponseEntity.ok("Scheduled tests executed successfully");
+            return ResponseEntity.ok("Scheduled tests started");
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Failed to run scheduled tests: " + e.getMessage());
         }
     }
     
+    @GetMapping("/api/scheduled-tests/last-run")
+    @ResponseBody
+    public ResponseEntity<List<ScheduledSpecResult>> getLastScheduledRun() {
+        return ResponseEntity.ok(scheduledTestService.getLastResults());
+    }
+    
+    @GetMapping("/api/scheduled-tests/leases")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getSchedulerLeases() {
+        Map<String, Object> leases = new HashMap<>();
+        leases.put("instanceId", schedulerLeaseService.getInstanceId());
+        leases.put("leases", schedulerLeaseService.getLeases());
+        return ResponseEntity.ok(leases);
+    }
+    
     @PostMapping("/test-runs/{id}/send-email")
     public String sendTestRunEmail(@PathVariable Long id, @RequestParam String toEmail) {
         try {
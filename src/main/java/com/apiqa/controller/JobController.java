@@ -0,0 +1,39 @@
+package com.apiqa.controller;
+
+import com.apiqa.model.Job;
+import com.apiqa.service.JobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+    
+    @Autowired
+    private JobService jobService;
+    
+    @GetMapping
+    public ResponseEntity<List<Job>> getJobs(@RequestParam(required = false) Long apiSpecId) {
+        List<Job> jobs = apiSpecId != null ? jobService.getJobsByApiSpecId(apiSpecId) : jobService.getRecentJobs();
+        return ResponseEntity.ok(jobs);
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Job> getJob(@PathVariable Long id) {
+        return jobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<Job> cancelJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(jobService.cancel(id));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
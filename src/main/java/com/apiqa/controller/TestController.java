@@ -26,6 +26,9 @@ public class TestController {
         ApiSpec apiSpec = apiSpecOpt.get();
         StringBuilder result = new StringBuilder();
         result.append("API Spec: ").append(apiSpec.getName()).append("\n");
+        if (apiSpec.getSpecBlobHash() != null) {
+            result.append("Spec Blob: ").append(apiSpec.getSpecBlobHash()).append("\n");
+        }
         result.append("Feature Files: ").append(apiSpec.getFeatureFiles().size()).append("\n\n");
         
         for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
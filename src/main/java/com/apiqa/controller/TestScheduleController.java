@@ -0,0 +1,59 @@
+package com.apiqa.controller;
+
+import com.apiqa.model.TestSchedule;
+import com.apiqa.service.TestScheduleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/schedules")
+public class TestScheduleController {
+    
+    @Autowired
+    private TestScheduleService testScheduleService;
+    
+    @GetMapping
+    public ResponseEntity<List<TestSchedule>> getSchedules() {
+        return ResponseEntity.ok(testScheduleService.getAllSchedules());
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<TestSchedule> getSchedule(@PathVariable Long id) {
+        return testScheduleService.getSchedule(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> createSchedule(@RequestBody TestSchedule schedule) {
+        try {
+            return ResponseEntity.ok(testScheduleService.createSchedule(schedule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateSchedule(@PathVariable Long id, @RequestBody TestSchedule schedule) {
+        if (testScheduleService.getSchedule(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(testScheduleService.updateSchedule(id, schedule));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable Long id) {
+        if (testScheduleService.getSchedule(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        testScheduleService.deleteSchedule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.apiqa.dto;
+
+import com.apiqa.model.TestExecutionStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a test execution used by the analytics export.
+ * Selected directly by JPQL so exports never materialize full TestExecution entities.
+ */
+public class ExecutionAnalyticsRow {
+    private Long executionId;
+    private Long testRunId;
+    private LocalDateTime executedAt;
+    private TestExecutionStatus status;
+    private String requestMethod;
+    private String requestUrl;
+    private Integer actualStatusCode;
+    private Long executionTimeMs;
+    // Method and path template of the scenario's operation, null for executions without one
+    private String operationKey;
+    private boolean responseReused;
+
+    public ExecutionAnalyticsRow(Long executionId, Long testRunId, LocalDateTime executedAt,
+                                 TestExecutionStatus status, String requestMethod, String requestUrl,
+                                 Integer actualStatusCode, Long executionTimeMs, String operationKey,
+                                 Boolean responseReused) {
+        this.executionId = executionId;
+        this.testRunId = testRunId;
+        this.executedAt = executedAt;
+        this.status = status;
+        this.requestMethod = requestMethod;
+        this.requestUrl = requestUrl;
+        this.actualStatusCode = actualStatusCode;
+        this.executionTimeMs = executionTimeMs;
+        this.operationKey = operationKey;
+        this.responseReused = Boolean.TRUE.equals(responseReused);
+    }
+
+    // Getters
+    public Long getExecutionId() {
+        return executionId;
+    }
+
+    public Long getTestRunId() {
+        return testRunId;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    public TestExecutionStatus getStatus() {
+        return status;
+    }
+
+    public String getRequestMethod() {
+        return requestMethod;
+    }
+
+    public String getRequestUrl() {
+        return requestUrl;
+    }
+
+    public Integer getActualStatusCode() {
+        return actualStatusCode;
+    }
+
+    public Long getExecutionTimeMs() {
+        return executionTimeMs;
+    }
+
+    public String getOperationKey() {
+        return operationKey;
+    }
+
+    /**
+     * @return true if the response was shared from an earlier identical request, so this row is no latency sample
+     */
+    public boolean isResponseReused() {
+        return responseReused;
+    }
+
+    /**
+     * @return The execution time, or null if the response was reused and the time belongs to another execution
+     */
+    public Long getMeasuredTimeMs() {
+        return responseReused ? null : executionTimeMs;
+    }
+}
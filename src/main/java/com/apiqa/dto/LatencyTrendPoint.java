@@ -0,0 +1,115 @@
+package com.apiqa.dto;
+
+import com.apiqa.model.LatencyResolution;
+
+import java.time.LocalDateTime;
+
+public class LatencyTrendPoint {
+    private LocalDateTime bucketStart;
+    private LatencyResolution resolution;
+    private long sampleCount;
+    private long errorCount;
+    private Long averageMs;
+    private Long minMs;
+    private Long maxMs;
+    private Long p50Ms;
+    private Long p95Ms;
+    private Long p99Ms;
+
+    public LatencyTrendPoint() {}
+
+    public LatencyTrendPoint(LocalDateTime bucketStart, LatencyResolution resolution, long sampleCount, long errorCount,
+                             Long averageMs, Long minMs, Long maxMs, Long p50Ms, Long p95Ms, Long p99Ms) {
+        this.bucketStart = bucketStart;
+        this.resolution = resolution;
+        this.sampleCount = sampleCount;
+        this.errorCount = errorCount;
+        this.averageMs = averageMs;
+        this.minMs = minMs;
+        this.maxMs = maxMs;
+        this.p50Ms = p50Ms;
+        this.p95Ms = p95Ms;
+        this.p99Ms = p99Ms;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public LatencyResolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(LatencyResolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(long errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public Long getAverageMs() {
+        return averageMs;
+    }
+
+    public void setAverageMs(Long averageMs) {
+        this.averageMs = averageMs;
+    }
+
+    public Long getMinMs() {
+        return minMs;
+    }
+
+    public void setMinMs(Long minMs) {
+        this.minMs = minMs;
+    }
+
+    public Long getMaxMs() {
+        return maxMs;
+    }
+
+    public void setMaxMs(Long maxMs) {
+        this.maxMs = maxMs;
+    }
+
+    public Long getP50Ms() {
+        return p50Ms;
+    }
+
+    public void setP50Ms(Long p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+
+    public Long getP95Ms() {
+        return p95Ms;
+    }
+
+    public void setP95Ms(Long p95Ms) {
+        this.p95Ms = p95Ms;
+    }
+
+    public Long getP99Ms() {
+        return p99Ms;
+    }
+
+    public void setP99Ms(Long p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+}
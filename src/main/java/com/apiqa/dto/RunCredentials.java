@@ -0,0 +1,60 @@
+package com.apiqa.dto;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable snapshot of the environment a test run executes against.
+ * Resolved once when the run starts and shared by every request of the run,
+ * so later edits to the environment never change a run that is already in flight.
+ */
+public final class RunCredentials {
+    
+    private static final RunCredentials NONE = new RunCredentials(null, null, Collections.emptyMap(), null);
+    
+    private final Long environmentId;
+    private final String environmentName;
+    private final Map<String, String> variables;
+    private final String token;
+    
+    public RunCredentials(Long environmentId, String environmentName, Map<String, String> variables, String token) {
+        this.environmentId = environmentId;
+        this.environmentName = environmentName;
+        // Variable keys are matched case-insensitively, like the token lookups they replace
+        Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            copy.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        this.variables = Collections.unmodifiableMap(copy);
+        this.token = token;
+    }
+    
+    public static RunCredentials none() {
+        return NONE;
+    }
+    
+    public Long getEnvironmentId() {
+        return environmentId;
+    }
+    
+    public String getEnvironmentName() {
+        return environmentName;
+    }
+    
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+    
+    public String getVariable(String key) {
+        return variables.get(key);
+    }
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public boolean hasToken() {
+        return token != null && !token.trim().isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package com.apiqa.dto;
+
+import com.apiqa.model.TestExecutionStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one past execution of a scenario, used to rank scenarios by how likely they are to fail.
+ * Selected directly by JPQL so ranking never materializes full TestExecution entities.
+ */
+public class ScenarioHistoryRow {
+    private Long testScenarioId;
+    private TestExecutionStatus status;
+    private Long executionTimeMs;
+    private LocalDateTime executedAt;
+
+    public ScenarioHistoryRow(Long testScenarioId, TestExecutionStatus status, Long executionTimeMs, LocalDateTime executedAt) {
+        this.testScenarioId = testScenarioId;
+        this.status = status;
+        this.executionTimeMs = executionTimeMs;
+        this.executedAt = executedAt;
+    }
+
+    // Getters
+    public Long getTestScenarioId() {
+        return testScenarioId;
+    }
+
+    public TestExecutionStatus getStatus() {
+        return status;
+    }
+
+    public Long getExecutionTimeMs() {
+        return executionTimeMs;
+    }
+
+    public LocalDateTime getExecutedAt() {
+        return executedAt;
+    }
+}
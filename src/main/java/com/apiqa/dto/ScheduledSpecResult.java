@@ -0,0 +1,93 @@
+package com.apiqa.dto;
+
+public class ScheduledSpecResult {
+    private Long apiSpecId;
+    private String apiSpecName;
+    private Long testSuiteId;
+    private String testSuiteName;
+    private Long testRunId;
+    private String status;
+    private long queueDelayMs;
+    private long wallTimeMs;
+    private String errorMessage;
+
+    public ScheduledSpecResult() {}
+
+    public ScheduledSpecResult(Long apiSpecId, String apiSpecName) {
+        this.apiSpecId = apiSpecId;
+        this.apiSpecName = apiSpecName;
+    }
+
+    // Getters and Setters
+    public Long getApiSpecId() {
+        return apiSpecId;
+    }
+
+    public void setApiSpecId(Long apiSpecId) {
+        this.apiSpecId = apiSpecId;
+    }
+
+    public String getApiSpecName() {
+        return apiSpecName;
+    }
+
+    public void setApiSpecName(String apiSpecName) {
+        this.apiSpecName = apiSpecName;
+    }
+
+    public Long getTestSuiteId() {
+        return testSuiteId;
+    }
+
+    public void setTestSuiteId(Long testSuiteId) {
+        this.testSuiteId = testSuiteId;
+    }
+
+    public String getTestSuiteName() {
+        return testSuiteName;
+    }
+
+    public void setTestSuiteName(String testSuiteName) {
+        this.testSuiteName = testSuiteName;
+    }
+
+    public Long getTestRunId() {
+        return testRunId;
+    }
+
+    public void setTestRunId(Long testRunId) {
+        this.testRunId = testRunId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getQueueDelayMs() {
+        return queueDelayMs;
+    }
+
+    public void setQueueDelayMs(long queueDelayMs) {
+        this.queueDelayMs = queueDelayMs;
+    }
+
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    public void setWallTimeMs(long wallTimeMs) {
+        this.wallTimeMs = wallTimeMs;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,86 @@
+package com.apiqa.dto;
+
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.TestScenario;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Difference between the persisted tests of a spec and a freshly generated set.
+ * Existing scenarios are keyed to their replacements so changes can be applied in place,
+ * keeping the scenario IDs and therefore the execution history of everything that survives.
+ */
+public class SpecDiff {
+
+    private final List<FeatureFile> addedFiles = new ArrayList<>();
+    private final List<FeatureFile> removedFiles = new ArrayList<>();
+    private final Map<FeatureFile, FeatureFile> retainedFiles = new LinkedHashMap<>();
+    private final Map<TestScenario, FeatureFile> addedScenarios = new LinkedHashMap<>();
+    private final Map<TestScenario, TestScenario> changedScenarios = new LinkedHashMap<>();
+    private final List<TestScenario> removedScenarios = new ArrayList<>();
+    private final Set<String> affectedOperations = new TreeSet<>();
+    private int unchangedScenarios;
+
+    public boolean isEmpty() {
+        return addedFiles.isEmpty() && removedFiles.isEmpty() && addedScenarios.isEmpty()
+                && changedScenarios.isEmpty() && removedScenarios.isEmpty();
+    }
+
+    public void incrementUnchangedScenarios() {
+        unchangedScenarios++;
+    }
+
+    @Override
+    public String toString() {
+        return "added " + addedScenarios.size() + ", changed " + changedScenarios.size() +
+                ", removed " + removedScenarios.size() + ", unchanged " + unchangedScenarios + " scenarios" +
+                " (" + addedFiles.size() + " feature files added, " + removedFiles.size() + " removed)";
+    }
+
+    // Getters
+    public List<FeatureFile> getAddedFiles() {
+        return addedFiles;
+    }
+
+    public List<FeatureFile> getRemovedFiles() {
+        return removedFiles;
+    }
+
+    /**
+     * @return Existing feature files mapped to the generated file that replaces their content
+     */
+    public Map<FeatureFile, FeatureFile> getRetainedFiles() {
+        return retainedFiles;
+    }
+
+    /**
+     * @return Generated scenarios mapped to the existing feature file they are added to
+     */
+    public Map<TestScenario, FeatureFile> getAddedScenarios() {
+        return addedScenarios;
+    }
+
+    /**
+     * @return Existing scenarios mapped to the generated scenario they are updated from
+     */
+    public Map<TestScenario, TestScenario> getChangedScenarios() {
+        return changedScenarios;
+    }
+
+    public List<TestScenario> getRemovedScenarios() {
+        return removedScenarios;
+    }
+
+    public Set<String> getAffectedOperations() {
+        return affectedOperations;
+    }
+
+    public int getUnchangedScenarios() {
+        return unchangedScenarios;
+    }
+}
@@ -19,6 +19,7 @@ public class TestExecutionDetailsDto {
     private String requestBody;
     private Long testRunId;
     private Long testScenarioId;
+    private String responseBodyHash;
 
     // Constructors
     public TestExecutionDetailsDto() {}
@@ -165,4 +166,12 @@ public class TestExecutionDetailsDto {
     public void setTestScenarioId(Long testScenarioId) {
         this.testScenarioId = testScenarioId;
     }
+
+    public String getResponseBodyHash() {
+        return responseBodyHash;
+    }
+
+    public void setResponseBodyHash(String responseBodyHash) {
+        this.responseBodyHash = responseBodyHash;
+    }
 }
@@ -0,0 +1,156 @@
+package com.apiqa.dto;
+
+/**
+ * Progress of a test run as pushed to live subscribers.
+ * Carries the running counters and latency percentiles of the run, and the execution that just
+ * finished if the event was caused by one.
+ */
+public class TestRunProgressEvent {
+    private Long testRunId;
+    private String status;
+    private int totalTests;
+    private int completedTests;
+    private int passedTests;
+    private int failedTests;
+    private int skippedTests;
+    private Long p50Ms;
+    private Long p95Ms;
+    private Long p99Ms;
+    private Long executionId;
+    private String scenarioName;
+    private String httpMethod;
+    private String endpoint;
+    private String executionStatus;
+    private Long executionTimeMs;
+
+    public TestRunProgressEvent() {}
+
+    // Getters and Setters
+    public Long getTestRunId() {
+        return testRunId;
+    }
+
+    public void setTestRunId(Long testRunId) {
+        this.testRunId = testRunId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalTests() {
+        return totalTests;
+    }
+
+    public void setTotalTests(int totalTests) {
+        this.totalTests = totalTests;
+    }
+
+    public int getCompletedTests() {
+        return completedTests;
+    }
+
+    public void setCompletedTests(int completedTests) {
+        this.completedTests = completedTests;
+    }
+
+    public int getPassedTests() {
+        return passedTests;
+    }
+
+    public void setPassedTests(int passedTests) {
+        this.passedTests = passedTests;
+    }
+
+    public int getFailedTests() {
+        return failedTests;
+    }
+
+    public void setFailedTests(int failedTests) {
+        this.failedTests = failedTests;
+    }
+
+    public int getSkippedTests() {
+        return skippedTests;
+    }
+
+    public void setSkippedTests(int skippedTests) {
+        this.skippedTests = skippedTests;
+    }
+
+    public Long getP50Ms() {
+        return p50Ms;
+    }
+
+    public void setP50Ms(Long p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+
+    public Long getP95Ms() {
+        return p95Ms;
+    }
+
+    public void setP95Ms(Long p95Ms) {
+        this.p95Ms = p95Ms;
+    }
+
+    public Long getP99Ms() {
+        return p99Ms;
+    }
+
+    public void setP99Ms(Long p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+
+    public Long getExecutionId() {
+        return executionId;
+    }
+
+    public void setExecutionId(Long executionId) {
+        this.executionId = executionId;
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    public void setScenarioName(String scenarioName) {
+        this.scenarioName = scenarioName;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getExecutionStatus() {
+        return executionStatus;
+    }
+
+    public void setExecutionStatus(String executionStatus) {
+        this.executionStatus = executionStatus;
+    }
+
+    public Long getExecutionTimeMs() {
+        return executionTimeMs;
+    }
+
+    public void setExecutionTimeMs(Long executionTimeMs) {
+        this.executionTimeMs = executionTimeMs;
+    }
+}
@@ -0,0 +1,70 @@
+package com.apiqa.dto;
+
+public class TestRunQueueStats {
+    private int workers;
+    private int activeRuns;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completedRuns;
+    private long rejectedRuns;
+
+    public TestRunQueueStats() {}
+
+    public TestRunQueueStats(int workers, int activeRuns, int queueDepth, int queueCapacity, long completedRuns, long rejectedRuns) {
+        this.workers = workers;
+        this.activeRuns = activeRuns;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.completedRuns = completedRuns;
+        this.rejectedRuns = rejectedRuns;
+    }
+
+    // Getters and Setters
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getActiveRuns() {
+        return activeRuns;
+    }
+
+    public void setActiveRuns(int activeRuns) {
+        this.activeRuns = activeRuns;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getCompletedRuns() {
+        return completedRuns;
+    }
+
+    public void setCompletedRuns(long completedRuns) {
+        this.completedRuns = completedRuns;
+    }
+
+    public long getRejectedRuns() {
+        return rejectedRuns;
+    }
+
+    public void setRejectedRuns(long rejectedRuns) {
+        this.rejectedRuns = rejectedRuns;
+    }
+}
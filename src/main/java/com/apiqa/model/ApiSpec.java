@@ -19,6 +19,9 @@ public class ApiSpec {
     @Column(columnDefinition = "TEXT")
     private String openApiYaml;
     
+    @Column(length = 64)
+    private String specBlobHash;
+    
     @Column(nullable = false)
     private String version;
     
@@ -71,6 +74,14 @@ public class ApiSpec {
         this.openApiYaml = openApiYaml;
     }
     
+    public String getSpecBlobHash() {
+        return specBlobHash;
+    }
+    
+    public void setSpecBlobHash(String specBlobHash) {
+        this.specBlobHash = specBlobHash;
+    }
+    
     public String getVersion() {
         return version;
     }
@@ -0,0 +1,151 @@
+package com.apiqa.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "bulk_imports")
+public class BulkImport {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String archiveName;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private BulkImportStatus status;
+    
+    @Column(nullable = false)
+    private Integer totalSpecs;
+    
+    @Column(nullable = false)
+    private Integer completedSpecs;
+    
+    @Column(nullable = false)
+    private Integer failedSpecs;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @OneToMany(mappedBy = "bulkImport", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("id")
+    private List<BulkImportItem> items;
+    
+    // Constructors
+    public BulkImport() {
+        this.items = new ArrayList<>();
+    }
+    
+    public BulkImport(String archiveName) {
+        this.archiveName = archiveName;
+        this.status = BulkImportStatus.PENDING;
+        this.totalSpecs = 0;
+        this.completedSpecs = 0;
+        this.failedSpecs = 0;
+        this.createdAt = LocalDateTime.now();
+        this.items = new ArrayList<>();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getArchiveName() {
+        return archiveName;
+    }
+    
+    public void setArchiveName(String archiveName) {
+        this.archiveName = archiveName;
+    }
+    
+    public BulkImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BulkImportStatus status) {
+        this.status = status;
+    }
+    
+    public Integer getTotalSpecs() {
+        return totalSpecs;
+    }
+    
+    public void setTotalSpecs(Integer totalSpecs) {
+        this.totalSpecs = totalSpecs;
+    }
+    
+    public Integer getCompletedSpecs() {
+        return completedSpecs;
+    }
+    
+    public void setCompletedSpecs(Integer completedSpecs) {
+        this.completedSpecs = completedSpecs;
+    }
+    
+    public Integer getFailedSpecs() {
+        return failedSpecs;
+    }
+    
+    public void setFailedSpecs(Integer failedSpecs) {
+        this.failedSpecs = failedSpecs;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    public List<BulkImportItem> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<BulkImportItem> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,148 @@
+package com.apiqa.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bulk_import_items")
+public class BulkImportItem {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "bulk_import_id", nullable = false)
+    @JsonIgnore
+    private BulkImport bulkImport;
+    
+    @Column(nullable = false, length = 1024)
+    private String fileName;
+    
+    @Column(nullable = false)
+    private String specName;
+    
+    @Column(nullable = false, length = 64)
+    private String specBlobHash;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private BulkImportStatus status;
+    
+    // Plain column, the spec only exists once the item has been persisted
+    @Column
+    private Long apiSpecId;
+    
+    @Column
+    private Integer scenarioCount;
+    
+    @Column
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    // Constructors
+    public BulkImportItem() {}
+    
+    public BulkImportItem(BulkImport bulkImport, String fileName, String specName, String specBlobHash) {
+        this.bulkImport = bulkImport;
+        this.fileName = fileName;
+        this.specName = specName;
+        this.specBlobHash = specBlobHash;
+        this.status = BulkImportStatus.PENDING;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+    
+    public void setBulkImport(BulkImport bulkImport) {
+        this.bulkImport = bulkImport;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public String getSpecName() {
+        return specName;
+    }
+    
+    public void setSpecName(String specName) {
+        this.specName = specName;
+    }
+    
+    public String getSpecBlobHash() {
+        return specBlobHash;
+    }
+    
+    public void setSpecBlobHash(String specBlobHash) {
+        this.specBlobHash = specBlobHash;
+    }
+    
+    public BulkImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(BulkImportStatus status) {
+        this.status = status;
+    }
+    
+    public Long getApiSpecId() {
+        return apiSpecId;
+    }
+    
+    public void setApiSpecId(Long apiSpecId) {
+        this.apiSpecId = apiSpecId;
+    }
+    
+    public Integer getScenarioCount() {
+        return scenarioCount;
+    }
+    
+    public void setScenarioCount(Integer scenarioCount) {
+        this.scenarioCount = scenarioCount;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
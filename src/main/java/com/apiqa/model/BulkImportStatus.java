@@ -0,0 +1,8 @@
+package com.apiqa.model;
+
+public enum BulkImportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -30,7 +30,8 @@ public class Environment {
     @JsonIgnore
     private List<EnvironmentVariable> variables;
     
-    @OneToMany(mappedBy = "environment", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // No cascade: runs are history and outlive the environment they ran against
+    @OneToMany(mappedBy = "environment", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<TestRun> testRuns;
     
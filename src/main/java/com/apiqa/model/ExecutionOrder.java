@@ -0,0 +1,6 @@
+package com.apiqa.model;
+
+public enum ExecutionOrder {
+    GENERATED,
+    FAIL_FAST
+}
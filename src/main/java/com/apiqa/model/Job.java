@@ -0,0 +1,233 @@
+package com.apiqa.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "jobs", indexes = @Index(columnList = "status, createdAt"))
+public class Job {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private JobType type;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+    
+    // Plain columns rather than relations so jobs outlive the spec and run they refer to
+    @Column(nullable = false)
+    private Long apiSpecId;
+    
+    @Column
+    private Long testRunId;
+    
+    @Column
+    private Boolean fullRebuild;
+    
+    @Column
+    private String runName;
+    
+    @Column
+    @Enumerated(EnumType.STRING)
+    private TestSuiteType suiteType;
+    
+    @Column
+    private Long environmentId;
+    
+    @Column
+    @Enumerated(EnumType.STRING)
+    private ExecutionOrder executionOrder;
+    
+    @Column
+    private Integer failFastThreshold;
+    
+    @Column(nullable = false)
+    private Boolean cancelRequested;
+    
+    @Column(columnDefinition = "TEXT")
+    private String resultMessage;
+    
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    // Instance ID of the application instance running the job
+    @Column
+    private String ownerInstanceId;
+    
+    // Constructors
+    public Job() {}
+    
+    public Job(JobType type, Long apiSpecId) {
+        this.type = type;
+        this.apiSpecId = apiSpecId;
+        this.status = JobStatus.QUEUED;
+        this.cancelRequested = false;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public JobType getType() {
+        return type;
+    }
+    
+    public void setType(JobType type) {
+        this.type = type;
+    }
+    
+    public JobStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+    
+    public Long getApiSpecId() {
+        return apiSpecId;
+    }
+    
+    public void setApiSpecId(Long apiSpecId) {
+        this.apiSpecId = apiSpecId;
+    }
+    
+    public Long getTestRunId() {
+        return testRunId;
+    }
+    
+    public void setTestRunId(Long testRunId) {
+        this.testRunId = testRunId;
+    }
+    
+    public Boolean getFullRebuild() {
+        return fullRebuild;
+    }
+    
+    public void setFullRebuild(Boolean fullRebuild) {
+        this.fullRebuild = fullRebuild;
+    }
+    
+    public String getRunName() {
+        return runName;
+    }
+    
+    public void setRunName(String runName) {
+        this.runName = runName;
+    }
+    
+    public TestSuiteType getSuiteType() {
+        return suiteType;
+    }
+    
+    public void setSuiteType(TestSuiteType suiteType) {
+        this.suiteType = suiteType;
+    }
+    
+    public Long getEnvironmentId() {
+        return environmentId;
+    }
+    
+    public void setEnvironmentId(Long environmentId) {
+        this.environmentId = environmentId;
+    }
+    
+    public ExecutionOrder getExecutionOrder() {
+        return executionOrder;
+    }
+    
+    public void setExecutionOrder(ExecutionOrder executionOrder) {
+        this.executionOrder = executionOrder;
+    }
+    
+    public Integer getFailFastThreshold() {
+        return failFastThreshold;
+    }
+    
+    public void setFailFastThreshold(Integer failFastThreshold) {
+        this.failFastThreshold = failFastThreshold;
+    }
+    
+    public Boolean getCancelRequested() {
+        return cancelRequested;
+    }
+    
+    public void setCancelRequested(Boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+    
+    public String getResultMessage() {
+        return resultMessage;
+    }
+    
+    public void setResultMessage(String resultMessage) {
+        this.resultMessage = resultMessage;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+    
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    /**
+     * @return true once the job can no longer change state
+     */
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED || status == JobStatus.CANCELLED;
+    }
+    
+    public String getOwnerInstanceId() {
+        return ownerInstanceId;
+    }
+    
+    public void setOwnerInstanceId(String ownerInstanceId) {
+        this.ownerInstanceId = ownerInstanceId;
+    }
+}
@@ -0,0 +1,9 @@
+package com.apiqa.model;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,6 @@
+package com.apiqa.model;
+
+public enum JobType {
+    GENERATE_TESTS,
+    RUN_TESTS
+}
@@ -0,0 +1,164 @@
+package com.apiqa.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "latency_buckets",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"apiSpecId", "httpMethod", "endpointTemplate", "resolution", "bucketStart"}),
+       indexes = @Index(columnList = "apiSpecId, httpMethod, endpointTemplate, bucketStart"))
+public class LatencyBucket {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Plain column rather than a relation so the series outlives spec deletion and never blocks it
+    @Column(nullable = false)
+    private Long apiSpecId;
+    
+    @Column(nullable = false)
+    private String httpMethod;
+    
+    @Column(nullable = false, length = 1024)
+    private String endpointTemplate;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private LatencyResolution resolution;
+    
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private Long sampleCount;
+    
+    @Column(nullable = false)
+    private Long errorCount;
+    
+    @Column(nullable = false)
+    private Long totalTimeMs;
+    
+    @Column
+    private Long minTimeMs;
+    
+    @Column
+    private Long maxTimeMs;
+    
+    // Comma-separated counts per histogram bound, see LatencyTimeSeriesService.HISTOGRAM_BOUNDS_MS
+    @Column(nullable = false)
+    private String histogram;
+    
+    // Constructors
+    public LatencyBucket() {}
+    
+    public LatencyBucket(Long apiSpecId, String httpMethod, String endpointTemplate,
+                         LatencyResolution resolution, LocalDateTime bucketStart) {
+        this.apiSpecId = apiSpecId;
+        this.httpMethod = httpMethod;
+        this.endpointTemplate = endpointTemplate;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+        this.sampleCount = 0L;
+        this.errorCount = 0L;
+        this.totalTimeMs = 0L;
+        this.histogram = "";
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getApiSpecId() {
+        return apiSpecId;
+    }
+    
+    public void setApiSpecId(Long apiSpecId) {
+        this.apiSpecId = apiSpecId;
+    }
+    
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+    
+    public void setHttpMethod(String httpMethod) {
+        this.httpMethod = httpMethod;
+    }
+    
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+    
+    public void setEndpointTemplate(String endpointTemplate) {
+        this.endpointTemplate = endpointTemplate;
+    }
+    
+    public LatencyResolution getResolution() {
+        return resolution;
+    }
+    
+    public void setResolution(LatencyResolution resolution) {
+        this.resolution = resolution;
+    }
+    
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+    
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+    
+    public Long getSampleCount() {
+        return sampleCount;
+    }
+    
+    public void setSampleCount(Long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+    
+    public Long getErrorCount() {
+        return errorCount;
+    }
+    
+    public void setErrorCount(Long errorCount) {
+        this.errorCount = errorCount;
+    }
+    
+    public Long getTotalTimeMs() {
+        return totalTimeMs;
+    }
+    
+    public void setTotalTimeMs(Long totalTimeMs) {
+        this.totalTimeMs = totalTimeMs;
+    }
+    
+    public Long getMinTimeMs() {
+        return minTimeMs;
+    }
+    
+    public void setMinTimeMs(Long minTimeMs) {
+        this.minTimeMs = minTimeMs;
+    }
+    
+    public Long getMaxTimeMs() {
+        return maxTimeMs;
+    }
+    
+    public void setMaxTimeMs(Long maxTimeMs) {
+        this.maxTimeMs = maxTimeMs;
+    }
+    
+    public String getHistogram() {
+        return histogram;
+    }
+    
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,19 @@
+package com.apiqa.model;
+
+import java.time.Duration;
+
+public enum LatencyResolution {
+    FIVE_MINUTES(Duration.ofMinutes(5)),
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1));
+    
+    private final Duration width;
+    
+    LatencyResolution(Duration width) {
+        this.width = width;
+    }
+    
+    public Duration getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,17 @@
+package com.apiqa.model;
+
+public enum RetentionStage {
+    FULL("All executions kept in the live table"),
+    FAILURES_ONLY("Only failed executions kept, full run archived"),
+    AGGREGATES_ONLY("Only run totals kept, full run archived");
+    
+    private final String description;
+    
+    RetentionStage(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,91 @@
+package com.apiqa.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduler_leases", indexes = @Index(columnList = "expiresAt"))
+public class SchedulerLease {
+    
+    @Id
+    @Column(length = 200)
+    private String name;
+    
+    // Instance ID of the application instance holding the lease
+    @Column(nullable = false)
+    private String owner;
+    
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    // Increases every time the lease is acquired, so a holder that lost the lease can tell its token is stale
+    @Column
+    private Long fencingToken;
+    
+    // Constructors
+    public SchedulerLease() {}
+    
+    public SchedulerLease(String name, String owner, LocalDateTime acquiredAt, LocalDateTime expiresAt) {
+        this.name = name;
+        this.owner = owner;
+        this.acquiredAt = acquiredAt;
+        this.heartbeatAt = acquiredAt;
+        this.expiresAt = expiresAt;
+        this.fencingToken = 1L;
+    }
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getOwner() {
+        return owner;
+    }
+    
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+    
+    public LocalDateTime getAcquiredAt() {
+        return acquiredAt;
+    }
+    
+    public void setAcquiredAt(LocalDateTime acquiredAt) {
+        this.acquiredAt = acquiredAt;
+    }
+    
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+    
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+    
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
+}
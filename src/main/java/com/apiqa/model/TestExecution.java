@@ -21,12 +21,23 @@ public class TestExecution {
     @Column
     private Long executionTimeMs;
     
+    // True if the response was shared from an identical request earlier in the run, so the time was not measured for this execution
+    @Column
+    private Boolean responseReused;
+    
     @Column
     private Integer actualStatusCode;
     
-    @Column(columnDefinition = "TEXT")
+    // Response bodies live in the blob store; only the hash and size are kept in this table
+    @Transient
     private String actualResponseBody;
     
+    @Column(length = 64)
+    private String responseBodyHash;
+    
+    @Column
+    private Long responseBodySize;
+    
     @Column(columnDefinition = "TEXT")
     private String actualHeaders;
     
@@ -107,6 +118,14 @@ public class TestExecution {
         this.executedAt = executedAt;
     }
     
+    public Boolean getResponseReused() {
+        return responseReused;
+    }
+    
+    public void setResponseReused(Boolean responseReused) {
+        this.responseReused = responseReused;
+    }
+    
     public Long getExecutionTimeMs() {
         return executionTimeMs;
     }
@@ -131,6 +150,22 @@ public class TestExecution {
         this.actualResponseBody = actualResponseBody;
     }
     
+    public String getResponseBodyHash() {
+        return responseBodyHash;
+    }
+    
+    public void setResponseBodyHash(String responseBodyHash) {
+        this.responseBodyHash = responseBodyHash;
+    }
+    
+    public Long getResponseBodySize() {
+        return responseBodySize;
+    }
+    
+    public void setResponseBodySize(Long responseBodySize) {
+        this.responseBodySize = responseBodySize;
+    }
+    
     public String getActualHeaders() {
         return actualHeaders;
     }
@@ -66,6 +66,26 @@ public class TestRun {
     @Column
     private String testType;
     
+    @Column
+    @Enumerated(EnumType.STRING)
+    private RetentionStage retentionStage;
+    
+    @Column(columnDefinition = "TEXT")
+    private String archivePath;
+    
+    // Scenarios left out by test selection; null for a full run
+    @Column
+    private Integer deselectedTests;
+    
+    // Null for the configured default
+    @Column
+    @Enumerated(EnumType.STRING)
+    private ExecutionOrder executionOrder;
+    
+    // Failures after which the remaining scenarios are skipped; null for the configured default, 0 to run everything
+    @Column
+    private Integer failFastThreshold;
+    
     @OneToMany(mappedBy = "testRun", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<TestExecution> testExecutions;
@@ -175,6 +195,30 @@ public class TestRun {
         this.skippedTests = skippedTests;
     }
     
+    public Integer getDeselectedTests() {
+        return deselectedTests;
+    }
+    
+    public void setDeselectedTests(Integer deselectedTests) {
+        this.deselectedTests = deselectedTests;
+    }
+    
+    public ExecutionOrder getExecutionOrder() {
+        return executionOrder;
+    }
+    
+    public void setExecutionOrder(ExecutionOrder executionOrder) {
+        this.executionOrder = executionOrder;
+    }
+    
+    public Integer getFailFastThreshold() {
+        return failFastThreshold;
+    }
+    
+    public void setFailFastThreshold(Integer failFastThreshold) {
+        this.failFastThreshold = failFastThreshold;
+    }
+    
     public String getReportPath() {
         return reportPath;
     }
@@ -231,6 +275,22 @@ public class TestRun {
         this.testType = testType;
     }
     
+    public RetentionStage getRetentionStage() {
+        return retentionStage;
+    }
+    
+    public void setRetentionStage(RetentionStage retentionStage) {
+        this.retentionStage = retentionStage;
+    }
+    
+    public String getArchivePath() {
+        return archivePath;
+    }
+    
+    public void setArchivePath(String archivePath) {
+        this.archivePath = archivePath;
+    }
+    
     public LocalDateTime getEndedAt() {
         return completedAt;
     }
@@ -43,6 +43,16 @@ public class TestScenario {
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
+    @Column
+    private String operationKey;
+    
+    @Column(length = 64)
+    private String operationHash;
+    
+    // When regeneration last changed the scenario's operation
+    @Column
+    private LocalDateTime changedAt;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "feature_file_id", nullable = false)
     @JsonIgnore
@@ -160,6 +170,30 @@ public class TestScenario {
         this.createdAt = createdAt;
     }
     
+    public String getOperationKey() {
+        return operationKey;
+    }
+    
+    public void setOperationKey(String operationKey) {
+        this.operationKey = operationKey;
+    }
+    
+    public String getOperationHash() {
+        return operationHash;
+    }
+    
+    public void setOperationHash(String operationHash) {
+        this.operationHash = operationHash;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
     public FeatureFile getFeatureFile() {
         return featureFile;
     }
@@ -0,0 +1,184 @@
+package com.apiqa.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "test_schedules", indexes = @Index(columnList = "enabled, nextRunAt"))
+public class TestSchedule {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Plain columns rather than relations so a schedule names its target without loading it
+    @Column
+    private Long apiSpecId;
+    
+    @Column
+    private Long testSuiteId;
+    
+    @Column
+    private String cronExpression;
+    
+    @Column
+    private Integer intervalMinutes;
+    
+    @Column
+    private Integer jitterSeconds;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ScheduleOverlapPolicy overlapPolicy;
+    
+    @Column(nullable = false)
+    private Boolean enabled;
+    
+    @Column
+    private LocalDateTime nextRunAt;
+    
+    @Column
+    private LocalDateTime lastRunAt;
+    
+    @Column
+    private Long lastTestRunId;
+    
+    @Column
+    private String lastStatus;
+    
+    @Column(nullable = false)
+    private Integer skippedRuns;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public TestSchedule() {
+        this.overlapPolicy = ScheduleOverlapPolicy.SKIP;
+        this.enabled = true;
+        this.skippedRuns = 0;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getApiSpecId() {
+        return apiSpecId;
+    }
+    
+    public void setApiSpecId(Long apiSpecId) {
+        this.apiSpecId = apiSpecId;
+    }
+    
+    public Long getTestSuiteId() {
+        return testSuiteId;
+    }
+    
+    public void setTestSuiteId(Long testSuiteId) {
+        this.testSuiteId = testSuiteId;
+    }
+    
+    public String getCronExpression() {
+        return cronExpression;
+    }
+    
+    public void setCronExpression(String cronExpression) {
+        this.cronExpression = cronExpression;
+    }
+    
+    public Integer getIntervalMinutes() {
+        return intervalMinutes;
+    }
+    
+    public void setIntervalMinutes(Integer intervalMinutes) {
+        this.intervalMinutes = intervalMinutes;
+    }
+    
+    public Integer getJitterSeconds() {
+        return jitterSeconds;
+    }
+    
+    public void setJitterSeconds(Integer jitterSeconds) {
+        this.jitterSeconds = jitterSeconds;
+    }
+    
+    public ScheduleOverlapPolicy getOverlapPolicy() {
+        return overlapPolicy;
+    }
+    
+    public void setOverlapPolicy(ScheduleOverlapPolicy overlapPolicy) {
+        this.overlapPolicy = overlapPolicy;
+    }
+    
+    public Boolean getEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public LocalDateTime getNextRunAt() {
+        return nextRunAt;
+    }
+    
+    public void setNextRunAt(LocalDateTime nextRunAt) {
+        this.nextRunAt = nextRunAt;
+    }
+    
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+    
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+    
+    public Long getLastTestRunId() {
+        return lastTestRunId;
+    }
+    
+    public void setLastTestRunId(Long lastTestRunId) {
+        this.lastTestRunId = lastTestRunId;
+    }
+    
+    public String getLastStatus() {
+        return lastStatus;
+    }
+    
+    public void setLastStatus(String lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+    
+    public Integer getSkippedRuns() {
+        return skippedRuns;
+    }
+    
+    public void setSkippedRuns(Integer skippedRuns) {
+        this.skippedRuns = skippedRuns;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    /**
+     * @return The key of the spec or suite this schedule runs, shared by all schedules of the same target
+     */
+    @JsonIgnore
+    public String getTargetKey() {
+        return apiSpecId != null ? "spec:" + apiSpecId : "suite:" + testSuiteId;
+    }
+}
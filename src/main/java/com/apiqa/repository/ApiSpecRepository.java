@@ -22,4 +22,10 @@ public interface ApiSpecRepository extends JpaRepository<ApiSpec, Long> {
     
     @Query("SELECT DISTINCT a FROM ApiSpec a LEFT JOIN FETCH a.featureFiles ORDER BY a.uploadedAt DESC")
     List<ApiSpec> findAllWithFeatureFilesOrderByUploadedAtDesc();
+    
+    @Query("SELECT DISTINCT a FROM ApiSpec a LEFT JOIN FETCH a.featureFiles WHERE a.id = :id")
+    Optional<ApiSpec> findByIdWithFeatureFiles(@Param("id") Long id);
+    
+    @Query("SELECT a.specBlobHash FROM ApiSpec a WHERE a.specBlobHash IS NOT NULL")
+    List<String> findSpecBlobHashes();
 }
@@ -0,0 +1,25 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.BulkImportItem;
+import com.apiqa.model.BulkImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BulkImportItemRepository extends JpaRepository<BulkImportItem, Long> {
+    
+    List<BulkImportItem> findByBulkImportIdOrderById(Long bulkImportId);
+    
+    @Query("SELECT i.specBlobHash FROM BulkImportItem i WHERE i.specBlobHash IS NOT NULL")
+    List<String> findSpecBlobHashes();
+    
+    @Modifying
+    @Query("UPDATE BulkImportItem i SET i.status = :status, i.startedAt = :startedAt WHERE i.id = :id")
+    int markStarted(@Param("id") Long id, @Param("status") BulkImportStatus status, @Param("startedAt") LocalDateTime startedAt);
+}
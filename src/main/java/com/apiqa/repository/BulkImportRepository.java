@@ -0,0 +1,17 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.BulkImport;
+import com.apiqa.model.BulkImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkImportRepository extends JpaRepository<BulkImport, Long> {
+    
+    List<BulkImport> findAllByOrderByCreatedAtDesc();
+    
+    List<BulkImport> findByStatusInOrderByCreatedAt(Collection<BulkImportStatus> statuses);
+}
@@ -2,6 +2,8 @@ package com.apiqa.repository;
 
 import com.apiqa.model.FeatureFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,7 @@ import java.util.List;
 @Repository
 public interface FeatureFileRepository extends JpaRepository<FeatureFile, Long> {
     List<FeatureFile> findByApiSpecId(Long apiSpecId);
+    
+    @Query("SELECT DISTINCT f FROM FeatureFile f LEFT JOIN FETCH f.testScenarios WHERE f.apiSpec.id = :apiSpecId")
+    List<FeatureFile> findByApiSpecIdWithTestScenarios(@Param("apiSpecId") Long apiSpecId);
 }
@@ -0,0 +1,36 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.Job;
+import com.apiqa.model.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+    
+    List<Job> findByStatusOrderByCreatedAt(JobStatus status);
+    
+    @Query("SELECT j FROM Job j ORDER BY j.createdAt DESC")
+    List<Job> findRecent(Pageable pageable);
+    
+    List<Job> findByApiSpecIdOrderByCreatedAtDesc(Long apiSpecId);
+    
+    @Query("SELECT j.cancelRequested FROM Job j WHERE j.id = :id")
+    Boolean isCancelRequested(@Param("id") Long id);
+    
+    /**
+     * Moves a queued job to RUNNING; the status check keeps a cancelled or already claimed job from starting
+     * @return 1 if the job was claimed, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE Job j SET j.status = com.apiqa.model.JobStatus.RUNNING, j.startedAt = :startedAt, j.ownerInstanceId = :owner " +
+           "WHERE j.id = :id AND j.status = com.apiqa.model.JobStatus.QUEUED")
+    int claim(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt, @Param("owner") String owner);
+}
@@ -0,0 +1,39 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.LatencyBucket;
+import com.apiqa.model.LatencyResolution;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LatencyBucketRepository extends JpaRepository<LatencyBucket, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM LatencyBucket b WHERE b.apiSpecId = :apiSpecId AND b.httpMethod = :httpMethod " +
+           "AND b.endpointTemplate = :endpointTemplate AND b.resolution = :resolution AND b.bucketStart = :bucketStart")
+    Optional<LatencyBucket> findForUpdate(@Param("apiSpecId") Long apiSpecId, @Param("httpMethod") String httpMethod,
+                                          @Param("endpointTemplate") String endpointTemplate, @Param("resolution") LatencyResolution resolution,
+                                          @Param("bucketStart") LocalDateTime bucketStart);
+    
+    @Query("SELECT b FROM LatencyBucket b WHERE b.apiSpecId = :apiSpecId AND b.httpMethod = :httpMethod " +
+           "AND b.endpointTemplate = :endpointTemplate AND b.bucketStart >= :fromDate AND b.bucketStart < :toDate ORDER BY b.bucketStart")
+    List<LatencyBucket> findSeries(@Param("apiSpecId") Long apiSpecId, @Param("httpMethod") String httpMethod,
+                                   @Param("endpointTemplate") String endpointTemplate,
+                                   @Param("fromDate") LocalDateTime fromDate, @Param("toDate") LocalDateTime toDate);
+    
+    @Query("SELECT DISTINCT b.httpMethod, b.endpointTemplate FROM LatencyBucket b WHERE b.apiSpecId = :apiSpecId ORDER BY b.endpointTemplate, b.httpMethod")
+    List<Object[]> findSeriesKeys(@Param("apiSpecId") Long apiSpecId);
+    
+    @Query("SELECT b FROM LatencyBucket b WHERE b.resolution = :resolution AND b.bucketStart < :cutoff ORDER BY b.id")
+    List<LatencyBucket> findForDownsampling(@Param("resolution") LatencyResolution resolution,
+                                            @Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+}
@@ -0,0 +1,61 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+    
+    List<SchedulerLease> findAllByOrderByName();
+    
+    /**
+     * Takes over a lease that has expired or is already held by the owner, with a new fencing token
+     * @return 1 if the lease was taken, 0 if it does not exist or another instance holds it
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.owner = :owner, l.acquiredAt = :now, l.heartbeatAt = :now, l.expiresAt = :expiresAt, " +
+           "l.fencingToken = COALESCE(l.fencingToken, 0) + 1 " +
+           "WHERE l.name = :name AND (l.expiresAt < :now OR l.owner = :owner)")
+    int takeOver(@Param("name") String name, @Param("owner") String owner,
+                 @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Query("SELECT l.fencingToken FROM SchedulerLease l WHERE l.name = :name AND l.owner = :owner")
+    Long findFencingToken(@Param("name") String name, @Param("owner") String owner);
+    
+    /**
+     * Extends a lease the owner still holds under the given token; a lease that expired or was taken over is left alone
+     * @return 1 if the lease was extended, 0 if it was lost
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.heartbeatAt = :now, l.expiresAt = :expiresAt " +
+           "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token AND l.expiresAt >= :now")
+    int renew(@Param("name") String name, @Param("owner") String owner, @Param("token") Long token,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Query("SELECT COUNT(l) FROM SchedulerLease l " +
+           "WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token AND l.expiresAt >= :now")
+    long countHeld(@Param("name") String name, @Param("owner") String owner, @Param("token") Long token,
+                   @Param("now") LocalDateTime now);
+    
+    @Query("SELECT l.owner FROM SchedulerLease l WHERE l.name LIKE :prefix AND l.expiresAt >= :now")
+    List<String> findLiveOwners(@Param("prefix") String prefix, @Param("now") LocalDateTime now);
+    
+    /**
+     * Expires a lease instead of deleting it, so its fencing token keeps increasing when it is next acquired
+     */
+    @Modifying
+    @Query("UPDATE SchedulerLease l SET l.expiresAt = :now WHERE l.name = :name AND l.owner = :owner AND l.fencingToken = :token")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") Long token,
+                @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
@@ -1,19 +1,29 @@
 package com.apiqa.repository;
 
+import com.apiqa.dto.ExecutionAnalyticsRow;
+import com.apiqa.dto.ScenarioHistoryRow;
 import com.apiqa.model.TestExecution;
 import com.apiqa.model.TestExecutionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TestExecutionRepository extends JpaRepository<TestExecution, Long> {
     
     List<TestExecution> findByTestRunId(Long testRunId);
     
+    @Query("SELECT t FROM TestExecution t LEFT JOIN FETCH t.testScenario WHERE t.testRunId = :testRunId")
+    List<TestExecution> findByTestRunIdWithScenario(@Param("testRunId") Long testRunId);
+    
     List<TestExecution> findByStatus(TestExecutionStatus status);
     
     List<TestExecution> findByTestScenarioId(Long testScenarioId);
@@ -23,4 +33,28 @@ public interface TestExecutionRepository extends JpaRepository<TestExecution, Lo
     
     @Query("SELECT COUNT(t) FROM TestExecution t WHERE t.testRun.id = :testRunId AND t.status = :status")
     Long countByTestRunIdAndStatus(@Param("testRunId") Long testRunId, @Param("status") TestExecutionStatus status);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT new com.apiqa.dto.ExecutionAnalyticsRow(t.id, t.testRunId, t.executedAt, t.status, t.requestMethod, t.requestUrl, " +
+           "t.actualStatusCode, t.executionTimeMs, s.operationKey, t.responseReused) " +
+           "FROM TestExecution t LEFT JOIN t.testScenario s WHERE t.testRunId = :testRunId ORDER BY t.id")
+    Stream<ExecutionAnalyticsRow> streamAnalyticsRowsByTestRunId(@Param("testRunId") Long testRunId);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT DISTINCT t.responseBodyHash FROM TestExecution t WHERE t.responseBodyHash IS NOT NULL")
+    Stream<String> streamResponseBodyHashes();
+    
+    @Query("SELECT new com.apiqa.dto.ScenarioHistoryRow(t.testScenario.id, t.status, t.executionTimeMs, t.executedAt) " +
+           "FROM TestExecution t WHERE t.testScenario.featureFile.apiSpec.id = :apiSpecId AND t.executedAt >= :since " +
+           "AND t.status IN :statuses ORDER BY t.testScenario.id, t.executedAt DESC")
+    List<ScenarioHistoryRow> findScenarioHistory(@Param("apiSpecId") Long apiSpecId, @Param("since") LocalDateTime since,
+                                                 @Param("statuses") List<TestExecutionStatus> statuses);
+    
+    @Modifying
+    @Query("DELETE FROM TestExecution t WHERE t.testRunId = :testRunId AND t.status NOT IN :statuses")
+    int deleteByTestRunIdAndStatusNotIn(@Param("testRunId") Long testRunId, @Param("statuses") List<TestExecutionStatus> statuses);
+    
+    @Modifying
+    @Query("DELETE FROM TestExecution t WHERE t.testRunId = :testRunId")
+    int deleteAllByTestRunId(@Param("testRunId") Long testRunId);
 }
@@ -1,15 +1,19 @@
 package com.apiqa.repository;
 
+import com.apiqa.model.RetentionStage;
 import com.apiqa.model.TestRun;
 import com.apiqa.model.TestRunStatus;
 import com.apiqa.model.TestRunType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TestRunRepository extends JpaRepository<TestRun, Long> {
@@ -20,6 +24,10 @@ public interface TestRunRepository extends JpaRepository<TestRun, Long> {
     
     List<TestRun> findByRunType(TestRunType runType);
     
+    // With the associations a run reads while it executes, which happens outside a transaction
+    @Query("SELECT t FROM TestRun t LEFT JOIN FETCH t.apiSpec LEFT JOIN FETCH t.environment WHERE t.id = :id")
+    Optional<TestRun> findByIdForExecution(@Param("id") Long id);
+    
     @Query("SELECT t FROM TestRun t WHERE t.apiSpec.id = :apiSpecId ORDER BY t.startedAt DESC")
     List<TestRun> findByApiSpecIdOrderByStartedAtDesc(@Param("apiSpecId") Long apiSpecId);
     
@@ -28,4 +36,21 @@ public interface TestRunRepository extends JpaRepository<TestRun, Long> {
     
     @Query("SELECT COUNT(t) FROM TestRun t WHERE t.apiSpec.id = :apiSpecId AND t.status = :status")
     Long countByApiSpecIdAndStatus(@Param("apiSpecId") Long apiSpecId, @Param("status") TestRunStatus status);
+    
+    @Query("SELECT t.id FROM TestRun t WHERE t.completedAt < :cutoff AND (t.retentionStage IS NULL OR t.retentionStage IN :stages) ORDER BY t.completedAt")
+    List<Long> findIdsForRetention(@Param("cutoff") LocalDateTime cutoff, @Param("stages") List<RetentionStage> stages, Pageable pageable);
+    
+    @Query("SELECT t.environment.id FROM TestRun t WHERE t.apiSpec.id = :apiSpecId AND t.environment IS NOT NULL ORDER BY t.startedAt DESC")
+    List<Long> findRecentEnvironmentIdsByApiSpecId(@Param("apiSpecId") Long apiSpecId, Pageable pageable);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE TestRun t SET t.environment = null WHERE t.environment.id = :environmentId")
+    int clearEnvironment(@Param("environmentId") Long environmentId);
+    
+    /**
+     * Latest runs of a spec first; a null entry is a full run, a number a run narrowed down by test selection
+     */
+    @Query("SELECT t.deselectedTests FROM TestRun t WHERE t.apiSpec.id = :apiSpecId AND t.runType = :runType AND t.id <> :excludeId ORDER BY t.startedAt DESC")
+    List<Integer> findRecentDeselectedTests(@Param("apiSpecId") Long apiSpecId, @Param("runType") TestRunType runType,
+                                            @Param("excludeId") Long excludeId, Pageable pageable);
 }
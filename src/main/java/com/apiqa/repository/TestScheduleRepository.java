@@ -0,0 +1,41 @@
+package com.apiqa.repository;
+
+import com.apiqa.model.TestSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TestScheduleRepository extends JpaRepository<TestSchedule, Long> {
+    
+    List<TestSchedule> findByEnabledTrueAndNextRunAtLessThanEqualOrderByNextRunAt(LocalDateTime now);
+    
+    List<TestSchedule> findByApiSpecId(Long apiSpecId);
+    
+    List<TestSchedule> findByTestSuiteId(Long testSuiteId);
+    
+    @Query("SELECT DISTINCT s.apiSpecId FROM TestSchedule s WHERE s.enabled = true AND s.apiSpecId IS NOT NULL")
+    List<Long> findScheduledApiSpecIds();
+    
+    /**
+     * Moves a due schedule on to its next run; the check on the current run time lets only one instance start each run
+     * @return 1 if the schedule was moved on, 0 if another instance got there first
+     */
+    @Modifying
+    @Query("UPDATE TestSchedule s SET s.nextRunAt = :nextRunAt WHERE s.id = :id AND s.nextRunAt = :dueAt")
+    int advance(@Param("id") Long id, @Param("dueAt") LocalDateTime dueAt, @Param("nextRunAt") LocalDateTime nextRunAt);
+    
+    @Modifying
+    @Query("UPDATE TestSchedule s SET s.lastStatus = :status, s.lastRunAt = :lastRunAt, s.lastTestRunId = :testRunId WHERE s.id = :id")
+    int recordRun(@Param("id") Long id, @Param("status") String status,
+                  @Param("lastRunAt") LocalDateTime lastRunAt, @Param("testRunId") Long testRunId);
+    
+    @Modifying
+    @Query("UPDATE TestSchedule s SET s.lastStatus = :status, s.skippedRuns = s.skippedRuns + 1 WHERE s.id = :id")
+    int recordSkipped(@Param("id") Long id, @Param("status") String status);
+}
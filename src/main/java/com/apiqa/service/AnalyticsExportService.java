@@ -0,0 +1,197 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.ExecutionAnalyticsRow;
+import com.apiqa.model.TestRun;
+import com.apiqa.repository.TestExecutionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports execution history into a columnar layout for offline analytics.
+ * Files are partitioned as {@code date=yyyy-MM-dd/spec=<id>/run=<id>/} and each column of the
+ * projection is stored in its own gzip file with one value per line, so readers only decompress
+ * the columns they need. A run is written to a hidden staging directory first and moved into
+ * place once every column is complete, so readers never see a partially exported run with
+ * columns of different lengths.
+ */
+@Service
+public class AnalyticsExportService {
+
+    private static final String NULL_VALUE = "\\N";
+
+    private static final Map<String, Function<ExecutionAnalyticsRow, Object>> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("execution_id", ExecutionAnalyticsRow::getExecutionId);
+        COLUMNS.put("test_run_id", ExecutionAnalyticsRow::getTestRunId);
+        COLUMNS.put("executed_at", ExecutionAnalyticsRow::getExecutedAt);
+        COLUMNS.put("status", ExecutionAnalyticsRow::getStatus);
+        COLUMNS.put("method", ExecutionAnalyticsRow::getRequestMethod);
+        COLUMNS.put("endpoint", ExecutionAnalyticsRow::getRequestUrl);
+        COLUMNS.put("status_code", ExecutionAnalyticsRow::getActualStatusCode);
+        // Null for reused responses, whose time was measured by the execution that made the call
+        COLUMNS.put("execution_time_ms", ExecutionAnalyticsRow::getMeasuredTimeMs);
+        COLUMNS.put("response_reused", ExecutionAnalyticsRow::isResponseReused);
+    }
+
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+
+    @Value("${apiqa.analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${apiqa.analytics.export-path:data/analytics}")
+    private String exportPath;
+
+    /**
+     * Writes the executions of a finished test run to the analytics partitions, replacing an earlier export of the run.
+     * Rows are streamed from the database, so memory use does not depend on run size.
+     * Runs in its own read-only transaction; call it after the run has committed, so only committed rows are exported
+     * and an export failure cannot roll the run back.
+     * @param testRun The finished test run
+     * @return The number of rows exported
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public long exportRun(TestRun testRun) {
+        if (!enabled || testRun == null || testRun.getId() == null) {
+            return 0;
+        }
+
+        String specPartition = "spec=" + (testRun.getApiSpec() != null ? testRun.getApiSpec().getId() : "none");
+        String runPartition = "run=" + testRun.getId();
+        Map<LocalDate, PartitionWriter> writers = new HashMap<>();
+        long rows = 0;
+        boolean complete = false;
+
+        try (Stream<ExecutionAnalyticsRow> stream = testExecutionRepository.streamAnalyticsRowsByTestRunId(testRun.getId())) {
+            for (ExecutionAnalyticsRow row : (Iterable<ExecutionAnalyticsRow>) stream::iterator) {
+                LocalDate date = row.getExecutedAt() != null ? row.getExecutedAt().toLocalDate() : LocalDate.now();
+                PartitionWriter writer = writers.get(date);
+                if (writer == null) {
+                    writer = new PartitionWriter(Paths.get(exportPath, "date=" + date, specPartition), runPartition);
+                    writers.put(date, writer);
+                }
+                writer.write(row);
+                rows++;
+            }
+            for (PartitionWriter writer : writers.values()) {
+                writer.finish();
+            }
+            for (PartitionWriter writer : writers.values()) {
+                writer.publish();
+            }
+            complete = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export analytics for test run " + testRun.getId(), e);
+        } finally {
+            if (!complete) {
+                for (PartitionWriter writer : writers.values()) {
+                    writer.discard();
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        // One value per line; strip line breaks so a value can never span rows
+        return value.toString().replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * Holds one gzip writer per column for the rows of one run in a single partition.
+     * Columns are written to a staging directory that is renamed into place once all of them are closed.
+     */
+    private static class PartitionWriter {
+        private final Map<String, Writer> columnWriters = new LinkedHashMap<>();
+        private final Path staging;
+        private final Path target;
+
+        PartitionWriter(Path directory, String runPartition) throws IOException {
+            Files.createDirectories(directory);
+            staging = directory.resolve("." + runPartition + ".tmp");
+            target = directory.resolve(runPartition);
+            deleteRecursively(staging);
+            Files.createDirectories(staging);
+            for (String column : COLUMNS.keySet()) {
+                GZIPOutputStream out = new GZIPOutputStream(Files.newOutputStream(staging.resolve(column + ".col.gz")));
+                columnWriters.put(column, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            }
+        }
+
+        void write(ExecutionAnalyticsRow row) throws IOException {
+            for (Map.Entry<String, Function<ExecutionAnalyticsRow, Object>> column : COLUMNS.entrySet()) {
+                Writer writer = columnWriters.get(column.getKey());
+                writer.write(format(column.getValue().apply(row)));
+                writer.write('\n');
+            }
+        }
+
+        /**
+         * Closes the column files, so a failure to flush the last rows surfaces before anything is published
+         */
+        void finish() throws IOException {
+            for (Writer writer : columnWriters.values()) {
+                writer.close();
+            }
+        }
+
+        void publish() throws IOException {
+            // Replaces an earlier export of the same run
+            deleteRecursively(target);
+            Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void discard() {
+            for (Map.Entry<String, Writer> entry : columnWriters.entrySet()) {
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    System.err.println("Error closing analytics column " + entry.getKey() + ": " + e.getMessage());
+                }
+            }
+            try {
+                deleteRecursively(staging);
+            } catch (IOException e) {
+                System.err.println("Error removing analytics staging directory " + staging + ": " + e.getMessage());
+            }
+        }
+
+        private static void deleteRecursively(Path path) throws IOException {
+            if (!Files.exists(path)) {
+                return;
+            }
+            try (Stream<Path> paths = Files.walk(path)) {
+                for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,26 @@
 package com.apiqa.service;
 
+import com.apiqa.config.AsyncConfig;
+import com.apiqa.dto.SpecDiff;
 import com.apiqa.model.*;
 import com.apiqa.repository.ApiSpecRepository;
+import com.apiqa.repository.EnvironmentRepository;
 import com.apiqa.repository.FeatureFileRepository;
 import com.apiqa.repository.TestRunRepository;
 import com.apiqa.repository.TestScenarioRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -41,6 +46,27 @@ public class ApiQaService {
     @Autowired
     private TestExecutionService testExecutionService;
     
+    @Autowired
+    private EnvironmentRepository environmentRepository;
+    
+    @Autowired
+    private SpecDiffService specDiffService;
+    
+    @Autowired
+    private StreamingSpecReader streamingSpecReader;
+    
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    @Autowired
+    private TestRunEventService testRunEventService;
+    
+    @Autowired
+    private TestSelectionService testSelectionService;
+    
+    @Autowired
+    private TestRunControlService testRunControlService;
+    
     public ApiSpec uploadApiSpec(String name, String openApiYaml) {
         // Extract version from OpenAPI YAML
         String version = extractVersionFromYaml(openApiYaml);
@@ -48,27 +74,77 @@ public class ApiQaService {
         return apiSpecRepository.save(apiSpec);
     }
     
+    /**
+     * Uploads a spec from a stream. The content goes straight to the blob store and is
+     * never held in memory as a whole; tests are later generated from it path by path.
+     * @param name The spec name
+     * @param content The spec content as YAML or JSON
+     * @return The saved spec
+     */
+    public ApiSpec uploadApiSpec(String name, InputStream content) {
+        String blobHash = blobStoreService.store(content);
+        StreamingSpecReader.StreamingSpec spec = streamingSpecReader.open(() -> blobStoreService.open(blobHash));
+        System.out.println("Stored streamed API spec " + name + " with " + spec.getPathCount() + " paths");
+        
+        String version = spec.getApiVersion() != null ? spec.getApiVersion() : "1.0.0";
+        ApiSpec apiSpec = new ApiSpec(name, null, version);
+        apiSpec.setSpecBlobHash(blobHash);
+        return apiSpecRepository.save(apiSpec);
+    }
+    
+    /**
+     * Opens the content of a spec, whether it is stored on the spec row or streamed into the blob store
+     * @param apiSpec The spec
+     * @return A stream of the spec content, to be closed by the caller
+     */
+    public InputStream openSpecContent(ApiSpec apiSpec) {
+        if (apiSpec.getSpecBlobHash() != null) {
+            return blobStoreService.open(apiSpec.getSpecBlobHash());
+        }
+        String content = apiSpec.getOpenApiYaml() != null ? apiSpec.getOpenApiYaml() : "";
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+    
     private String extractVersionFromYaml(String openApiYaml) {
-        try {
-            // Parse the YAML to extract version
-            ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
-            JsonNode rootNode = yamlMapper.readTree(openApiYaml);
-            
-            // Try to get version from info.version
-            JsonNode infoNode = rootNode.get("info");
-            if (infoNode != null && infoNode.has("version")) {
-                return infoNode.get("version").asText();
-            }
-            
-            // Fallback to default version if not found
-            return "1.0.0";
-        } catch (Exception e) {
-            System.err.println("Failed to extract version from YAML: " + e.getMessage());
-            return "1.0.0"; // Default fallback
+        // Goes through the parser's cache so the parse is reused when tests are generated
+        return parserService.extractVersion(openApiYaml);
+    }
+    
+    /**
+     * Replaces the content of a spec and regenerates only the tests of the operations that changed
+     * @param apiSpecId The API spec ID
+     * @param name The new name, or null to keep the current one
+     * @param openApiYaml The new specification content
+     * @return The updated spec
+     */
+    public ApiSpec updateApiSpec(Long apiSpecId, String name, String openApiYaml) {
+        ApiSpec apiSpec = apiSpecRepository.findById(apiSpecId)
+            .orElseThrow(() -> new RuntimeException("API Spec not found with ID: " + apiSpecId));
+        
+        if (name != null && !name.isBlank()) {
+            apiSpec.setName(name);
         }
+        apiSpec.setOpenApiYaml(openApiYaml);
+        apiSpec.setSpecBlobHash(null);
+        apiSpec.setVersion(extractVersionFromYaml(openApiYaml));
+        apiSpec = apiSpecRepository.save(apiSpec);
+        
+        generateFeatureFiles(apiSpecId);
+        return apiSpec;
     }
     
     public List<FeatureFile> generateFeatureFiles(Long apiSpecId) {
+        return generateFeatureFiles(apiSpecId, false);
+    }
+    
+    /**
+     * Generates the tests of a spec. By default only scenarios whose operation changed since the
+     * last generation are inserted, updated or deleted, so unchanged scenarios keep their history.
+     * @param apiSpecId The API spec ID
+     * @param fullRebuild true to delete all existing tests and generate them from scratch
+     * @return The feature files of the spec
+     */
+    public List<FeatureFile> generateFeatureFiles(Long apiSpecId, boolean fullRebuild) {
         Optional<ApiSpec> apiSpecOpt = apiSpecRepository.findById(apiSpecId);
         if (apiSpecOpt.isEmpty()) {
             throw new RuntimeException("API Spec not found with ID: " + apiSpecId);
@@ -76,45 +152,39 @@ public class ApiQaService {
         
         ApiSpec apiSpec = apiSpecOpt.get();
         
-        // Delete existing feature files and their test scenarios
-        System.out.println("Deleting existing tests for API Spec ID: " + apiSpecId);
-        for (FeatureFile existingFeatureFile : apiSpec.getFeatureFiles()) {
-            // Delete test scenarios first (due to foreign key constraints)
-            for (TestScenario scenario : existingFeatureFile.getTestScenarios()) {
-                testScenarioRepository.delete(scenario);
+        if (fullRebuild) {
+            // Delete existing feature files and their test scenarios
+            System.out.println("Deleting existing tests for API Spec ID: " + apiSpecId);
+            for (FeatureFile existingFeatureFile : apiSpec.getFeatureFiles()) {
+                // Delete test scenarios first (due to foreign key constraints)
+                testScenarioRepository.deleteAll(existingFeatureFile.getTestScenarios());
+                // Delete the feature file
+                featureFileRepository.delete(existingFeatureFile);
             }
-            // Delete the feature file
-            featureFileRepository.delete(existingFeatureFile);
+            
+            // Clear the feature files list
+            apiSpec.getFeatureFiles().clear();
+            apiSpecRepository.save(apiSpec);
+            
+            System.out.println("Existing tests deleted. Generating new tests...");
         }
         
-        // Clear the feature files list
-        apiSpec.getFeatureFiles().clear();
-        apiSpecRepository.save(apiSpec);
-        
-        System.out.println("Existing tests deleted. Generating new tests...");
-        
         try {
             // Generate new feature files
-            List<FeatureFile> featureFiles = parserService.parseOpenApiSpec(apiSpec.getOpenApiYaml(), apiSpec);
+            List<FeatureFile> featureFiles;
+            if (apiSpec.getSpecBlobHash() != null) {
+                featureFiles = generateFromStream(apiSpec);
+            } else {
+                featureFiles = parserService.parseOpenApiSpec(apiSpec.getOpenApiYaml(), apiSpec);
+            }
             System.out.println("Generated " + featureFiles.size() + " feature files");
             
-            // Save each feature file with its test scenarios
-            for (FeatureFile featureFile : featureFiles) {
-                System.out.println("Saving feature file: " + featureFile.getFileName());
-                // Save the feature file first to get an ID
-                apiSpec.getFeatureFiles().add(featureFile);
-                apiSpecRepository.save(apiSpec);
-                
-                // Now save test scenarios with the proper feature file reference
-                for (TestScenario scenario : featureFile.getTestScenarios()) {
-                    scenario.setFeatureFile(featureFile);
-                    testScenarioRepository.save(scenario);
-                }
-                System.out.println("Saved " + featureFile.getTestScenarios().size() + " test scenarios for " + featureFile.getFileName());
-            }
+            SpecDiff diff = specDiffService.diff(apiSpec.getFeatureFiles(), featureFiles);
+            applySpecDiff(apiSpec, diff);
             
-            System.out.println("New tests generated successfully. Total feature files: " + featureFiles.size());
-            return featureFiles;
+            System.out.println("Tests updated for API Spec ID " + apiSpecId + ": " + diff +
+                (diff.getAffectedOperations().isEmpty() ? "" : ", affected operations: " + diff.getAffectedOperations()));
+            return apiSpec.getFeatureFiles();
         } catch (Exception e) {
             System.err.println("Error generating feature files: " + e.getMessage());
             e.printStackTrace();
@@ -122,26 +192,84 @@ public class ApiQaService {
         }
     }
     
-    public TestRun executeTestRun(Long apiSpecId, String runName, TestRunType runType) {
-        Optional<ApiSpec> apiSpecOpt = apiSpecRepository.findById(apiSpecId);
-        if (apiSpecOpt.isEmpty()) {
-            throw new RuntimeException("API Spec not found with ID: " + apiSpecId);
+    private List<FeatureFile> generateFromStream(ApiSpec apiSpec) {
+        String blobHash = apiSpec.getSpecBlobHash();
+        StreamingSpecReader.StreamingSpec spec = streamingSpecReader.open(() -> blobStoreService.open(blobHash));
+        return parserService.parseStreamingSpec(spec, apiSpec);
+    }
+    
+    private void applySpecDiff(ApiSpec apiSpec, SpecDiff diff) {
+        for (FeatureFile removedFile : diff.getRemovedFiles()) {
+            apiSpec.getFeatureFiles().remove(removedFile);
+            featureFileRepository.delete(removedFile);
         }
         
-        ApiSpec apiSpec = apiSpecOpt.get();
+        for (TestScenario removedScenario : diff.getRemovedScenarios()) {
+            removedScenario.getFeatureFile().getTestScenarios().remove(removedScenario);
+        }
+        testScenarioRepository.deleteAll(diff.getRemovedScenarios());
+        
+        // Changed scenarios are updated in place so their execution history stays attached
+        for (Map.Entry<TestScenario, TestScenario> change : diff.getChangedScenarios().entrySet()) {
+            TestScenario scenario = change.getKey();
+            TestScenario generated = change.getValue();
+            scenario.setDescription(generated.getDescription());
+            scenario.setHttpMethod(generated.getHttpMethod());
+            scenario.setEndpoint(generated.getEndpoint());
+            scenario.setRequestBody(generated.getRequestBody());
+            scenario.setExpectedResponseSchema(generated.getExpectedResponseSchema());
+            scenario.setExpectedHeaders(generated.getExpectedHeaders());
+            scenario.setExpectedStatusCode(generated.getExpectedStatusCode());
+            scenario.setTestSteps(generated.getTestSteps());
+            scenario.setOperationKey(generated.getOperationKey());
+            scenario.setOperationHash(generated.getOperationHash());
+            scenario.setChangedAt(LocalDateTime.now());
+        }
+        testScenarioRepository.saveAll(diff.getChangedScenarios().keySet());
+        
+        for (Map.Entry<TestScenario, FeatureFile> addition : diff.getAddedScenarios().entrySet()) {
+            addition.getKey().setFeatureFile(addition.getValue());
+            addition.getValue().getTestScenarios().add(addition.getKey());
+        }
+        testScenarioRepository.saveAll(diff.getAddedScenarios().keySet());
+        
+        for (Map.Entry<FeatureFile, FeatureFile> retained : diff.getRetainedFiles().entrySet()) {
+            retained.getKey().setFileName(retained.getValue().getFileName());
+            retained.getKey().setContent(retained.getValue().getContent());
+            retained.getKey().setGeneratedAt(LocalDateTime.now());
+        }
+        featureFileRepository.saveAll(diff.getRetainedFiles().keySet());
+        
+        // Save each new feature file with its test scenarios
+        for (FeatureFile featureFile : diff.getAddedFiles()) {
+            System.out.println("Saving feature file: " + featureFile.getFileName());
+            // Save the feature file first to get an ID
+            apiSpec.getFeatureFiles().add(featureFile);
+            apiSpecRepository.save(apiSpec);
+            
+            // Now save test scenarios with the proper feature file reference
+            for (TestScenario scenario : featureFile.getTestScenarios()) {
+                scenario.setFeatureFile(featureFile);
+            }
+            testScenarioRepository.saveAll(featureFile.getTestScenarios());
+            System.out.println("Saved " + featureFile.getTestScenarios().size() + " test scenarios for " + featureFile.getFileName());
+        }
+    }
+    
+    public TestRun executeTestRun(Long apiSpecId, String runName, TestRunType runType) {
+        return executeTestRun(apiSpecId, runName, runType, null);
+    }
+    
+    public TestRun executeTestRun(Long apiSpecId, String runName, TestRunType runType, Long environmentId) {
+        ApiSpec apiSpec = loadApiSpecForRun(apiSpecId);
         
         // Create and save test run first
         TestRun testRun = new TestRun(runName, runType, apiSpec);
+        testRun.setEnvironment(findEnvironment(environmentId));
         testRun = testRunRepository.save(testRun);
         
         // Generate test executions for all scenarios (don't save yet)
-        List<TestExecution> executions = new ArrayList<>();
-        for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
-            for (TestScenario scenario : featureFile.getTestScenarios()) {
-                TestExecution execution = new TestExecution(scenario, testRun);
-                executions.add(execution);
-            }
-        }
+        List<TestExecution> executions = createExecutions(apiSpec, testRun, null);
         
         // Add executions to test run (but don't save yet)
         testRun.getTestExecutions().addAll(executions);
@@ -153,27 +281,19 @@ public class ApiQaService {
     }
     
     public TestRun executeTestRunBySuiteType(Long apiSpecId, String runName, TestRunType runType, TestSuiteType suiteType) {
-        Optional<ApiSpec> apiSpecOpt = apiSpecRepository.findById(apiSpecId);
-        if (apiSpecOpt.isEmpty()) {
-            throw new RuntimeException("API Spec not found with ID: " + apiSpecId);
-        }
-        
-        ApiSpec apiSpec = apiSpecOpt.get();
+        return executeTestRunBySuiteType(apiSpecId, runName, runType, suiteType, null);
+    }
+    
+    public TestRun executeTestRunBySuiteType(Long apiSpecId, String runName, TestRunType runType, TestSuiteType suiteType, Long environmentId) {
+        ApiSpec apiSpec = loadApiSpecForRun(apiSpecId);
         
         // Create and save test run first
         TestRun testRun = new TestRun(runName, runType, apiSpec);
+        testRun.setEnvironment(findEnvironment(environmentId));
         testRun = testRunRepository.save(testRun);
         
         // Generate test executions only for scenarios in the specified suite type
-        List<TestExecution> executions = new ArrayList<>();
-        for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
-            if (featureFile.getSuiteType() == suiteType) {
-                for (TestScenario scenario : featureFile.getTestScenarios()) {
-                    TestExecution execution = new TestExecution(scenario, testRun);
-                    executions.add(execution);
-                }
-            }
-        }
+        List<TestExecution> executions = createExecutions(apiSpec, testRun, suiteType);
         
         if (executions.isEmpty()) {
             throw new RuntimeException("No test scenarios found for suite type: " + suiteType);
@@ -188,10 +308,139 @@ public class ApiQaService {
         return result;
     }
     
-    @Async
-    public CompletableFuture<TestRun> executeTestRunAsync(TestRun testRun) {
-        TestRun result = testExecutionService.executeTestRun(testRun);
-        return CompletableFuture.completedFuture(result);
+    /**
+     * Saves a pending test run with an execution for every scenario to run, without running it
+     * @param apiSpecId The API spec ID
+     * @param runName The run name
+     * @param runType The run type
+     * @param suiteType The suite to run, or null to run all scenarios
+     * @param environmentId The environment to run against (can be null)
+     * @return The saved test run
+     */
+    public TestRun prepareTestRun(Long apiSpecId, String runName, TestRunType runType, TestSuiteType suiteType, Long environmentId) {
+        return prepareTestRun(apiSpecId, runName, runType, suiteType, environmentId, null, null);
+    }
+    
+    /**
+     * Saves a pending test run like {@link #prepareTestRun(Long, String, TestRunType, TestSuiteType, Long)},
+     * with its own execution order and fail-fast threshold
+     * @param executionOrder The order to run the scenarios in, or null for the configured default
+     * @param failFastThreshold Failures after which the rest is skipped, or null for the configured default
+     * @return The saved test run
+     */
+    public TestRun prepareTestRun(Long apiSpecId, String runName, TestRunType runType, TestSuiteType suiteType, Long environmentId,
+                                  ExecutionOrder executionOrder, Integer failFastThreshold) {
+        ApiSpec apiSpec = loadApiSpecForRun(apiSpecId);
+        
+        TestRun testRun = new TestRun(runName, runType, apiSpec);
+        testRun.setEnvironment(findEnvironment(environmentId));
+        testRun.setExecutionOrder(executionOrder);
+        testRun.setFailFastThreshold(failFastThreshold);
+        // Executions take the run ID from the saved run
+        testRun = testRunRepository.save(testRun);
+        
+        List<TestExecution> executions = createExecutions(apiSpec, testRun, suiteType);
+        if (executions.isEmpty()) {
+            throw new RuntimeException(suiteType != null ? "No test scenarios found for suite type: " + suiteType
+                    : "No test scenarios found for API Spec with ID: " + apiSpecId);
+        }
+        
+        // Scheduled runs of a whole spec only run the scenarios picked by test selection
+        if (runType == TestRunType.SCHEDULED && suiteType == null) {
+            executions = testSelectionService.selectExecutions(testRun, executions);
+        }
+        
+        // Executions are saved through the cascade
+        testRun.getTestExecutions().addAll(executions);
+        return testRunRepository.save(testRun);
+    }
+    
+    /**
+     * Marks a test run that could not be executed as failed
+     * @param testRunId The test run ID
+     * @param errorMessage Why the run failed
+     */
+    public void failTestRun(Long testRunId, String errorMessage) {
+        testRunRepository.findById(testRunId).ifPresent(testRun -> {
+            testRun.setStatus(TestRunStatus.FAILED);
+            testRun.setErrorMessage(errorMessage);
+            testRun.setEndedAt(LocalDateTime.now());
+            // Live subscribers of a run that broke off would otherwise wait for it forever
+            testRunEventService.runFinished(testRun);
+        });
+        testRunControlService.finish(testRunId);
+    }
+    
+    private List<TestExecution> createExecutions(ApiSpec apiSpec, TestRun testRun, TestSuiteType suiteType) {
+        List<TestExecution> executions = new ArrayList<>();
+        for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
+            if (suiteType == null || featureFile.getSuiteType() == suiteType) {
+                for (TestScenario scenario : featureFile.getTestScenarios()) {
+                    executions.add(new TestExecution(scenario, testRun));
+                }
+            }
+        }
+        return executions;
+    }
+    
+    /**
+     * Loads an API spec together with its feature files and test scenarios for run preparation.
+     * Uses two fetch-join queries regardless of how many feature files and scenarios exist;
+     * the second query initializes the scenario collections of the feature files already
+     * held by the persistence context.
+     * @param apiSpecId The API spec ID
+     * @return The API spec with feature files and scenarios initialized
+     */
+    ApiSpec loadApiSpecForRun(Long apiSpecId) {
+        Optional<ApiSpec> apiSpecOpt = apiSpecRepository.findByIdWithFeatureFiles(apiSpecId);
+        if (apiSpecOpt.isEmpty()) {
+            throw new RuntimeException("API Spec not found with ID: " + apiSpecId);
+        }
+        
+        featureFileRepository.findByApiSpecIdWithTestScenarios(apiSpecId);
+        return apiSpecOpt.get();
+    }
+    
+    /**
+     * Looks up the environment a run was explicitly started against
+     * @param environmentId The environment ID (can be null)
+     * @return The environment, or null to let credential resolution pick one
+     */
+    private Environment findEnvironment(Long environmentId) {
+        if (environmentId == null) {
+            return null;
+        }
+        return environmentRepository.findById(environmentId)
+                .orElseThrow(() -> new RuntimeException("Environment not found with ID: " + environmentId));
+    }
+    
+    /**
+     * Executes a prepared test run on the test run executor
+     * @param testRunId The ID of a run saved by {@link #prepareTestRun}
+     * @return The finished test run
+     */
+    @Async(AsyncConfig.TEST_RUN_EXECUTOR)
+    public CompletableFuture<TestRun> executeTestRunAsync(Long testRunId) {
+        return CompletableFuture.completedFuture(executePreparedTestRun(testRunId));
+    }
+    
+    /**
+     * Executes a prepared test run on the calling thread.
+     * Runs outside a transaction: the RUNNING status and every execution commit as soon as they are saved,
+     * so others see the run progress, and a failure part way keeps the executions that finished.
+     * @param testRunId The ID of a run saved by {@link #prepareTestRun}
+     * @return The finished test run
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TestRun executePreparedTestRun(Long testRunId) {
+        try {
+            TestRun testRun = testRunRepository.findByIdForExecution(testRunId)
+                    .orElseThrow(() -> new RuntimeException("Test Run not found with ID: " + testRunId));
+            return testExecutionService.executeTestRun(testRun);
+        } finally {
+            // Also when the run failed before it got to execute, so a pause or cancel sent while queued is not kept
+            testRunControlService.finish(testRunId);
+        }
     }
     
     public TestRun retryFailedTests(Long testRunId) {
@@ -0,0 +1,207 @@
+package com.apiqa.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store for large payloads such as response bodies and uploaded API specs.
+ * Each payload is written once as a gzip file named after the SHA-256 of its content,
+ * so identical bodies produced by repeated runs share a single file on disk.
+ */
+@Service
+public class BlobStoreService {
+
+    @Value("${apiqa.blob-store.path:data/blobs}")
+    private String blobStorePath;
+
+    /**
+     * Stores the content if it is not already present
+     * @param content The content to store (can be null)
+     * @return The SHA-256 hash of the content, or null if content is null
+     */
+    public String store(String content) {
+        if (content == null) {
+            return null;
+        }
+
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = hash(bytes);
+        Path blobPath = resolve(hash);
+
+        if (touch(blobPath)) {
+            return hash;
+        }
+
+        try {
+            Files.createDirectories(blobPath.getParent());
+
+            // Write to a temporary file first so concurrent readers never see a partial blob
+            Path tempPath = Files.createTempFile(blobPath.getParent(), hash, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempPath))) {
+                out.write(bytes);
+            }
+            Files.move(tempPath, blobPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store blob " + hash + ": " + e.getMessage(), e);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Loads previously stored content
+     * @param hash The SHA-256 hash returned by {@link #store(String)} (can be null)
+     * @return The content, or null if hash is null or the blob does not exist
+     */
+    public String load(String hash) {
+        if (hash == null) {
+            return null;
+        }
+
+        Path blobPath = resolve(hash);
+        if (!Files.exists(blobPath)) {
+            System.err.println("Blob not found: " + hash);
+            return null;
+        }
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(blobPath))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load blob " + hash + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stores content read from a stream without holding it in memory.
+     * The stream is hashed while it is written, so it is read exactly once.
+     * @param content The content stream, which is not closed
+     * @return The SHA-256 hash of the content
+     */
+    public String store(InputStream content) {
+        try {
+            Path root = Paths.get(blobStorePath);
+            Files.createDirectories(root);
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path tempPath = Files.createTempFile(root, "upload", ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempPath))) {
+                    new DigestInputStream(content, digest).transferTo(out);
+                }
+
+                String hash = HexFormat.of().formatHex(digest.digest());
+                Path blobPath = resolve(hash);
+                if (!touch(blobPath)) {
+                    Files.createDirectories(blobPath.getParent());
+                    Files.move(tempPath, blobPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                return hash;
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store blob: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Opens previously stored content for streaming
+     * @param hash The SHA-256 hash of the content
+     * @return A stream of the decompressed content, to be closed by the caller
+     */
+    public InputStream open(String hash) {
+        try {
+            return new GZIPInputStream(Files.newInputStream(resolve(hash)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open blob " + hash + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deletes the blobs that are no longer referenced.
+     * Blobs stored or reused after the cutoff are kept even when unreferenced, since whatever stored them
+     * may not have saved its reference yet.
+     * @param referenced The hashes still referenced
+     * @param cutoff Only blobs last stored before this are deleted
+     * @return The number of blobs deleted
+     */
+    public int deleteUnreferenced(Set<String> referenced, Instant cutoff) {
+        Path root = Paths.get(blobStorePath);
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+
+        int deleted = 0;
+        try (Stream<Path> paths = Files.walk(root, 2)) {
+            for (Path blobPath : (Iterable<Path>) paths.filter(path -> path.getFileName().toString().endsWith(".gz"))::iterator) {
+                String fileName = blobPath.getFileName().toString();
+                String hash = fileName.substring(0, fileName.length() - ".gz".length());
+                if (referenced.contains(hash)) {
+                    continue;
+                }
+                try {
+                    if (Files.getLastModifiedTime(blobPath).toInstant().isBefore(cutoff) && Files.deleteIfExists(blobPath)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to delete blob " + hash + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to sweep blob store: " + e.getMessage(), e);
+        }
+        return deleted;
+    }
+
+    /**
+     * Marks an existing blob as just stored, so the sweep keeps it until its new reference is saved
+     * @param blobPath The blob file
+     * @return false if the blob does not exist
+     */
+    private static boolean touch(Path blobPath) {
+        try {
+            Files.setLastModifiedTime(blobPath, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to touch blob " + blobPath.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Path resolve(String hash) {
+        // Fan out into sub-directories by hash prefix to keep directory sizes small
+        return Paths.get(blobStorePath, hash.substring(0, 2), hash + ".gz");
+    }
+
+    private String hash(byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
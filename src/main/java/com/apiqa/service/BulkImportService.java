@@ -0,0 +1,386 @@
+package com.apiqa.service;
+
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.BulkImport;
+import com.apiqa.model.BulkImportItem;
+import com.apiqa.model.BulkImportStatus;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.repository.ApiSpecRepository;
+import com.apiqa.repository.BulkImportItemRepository;
+import com.apiqa.repository.BulkImportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Imports many specs at once from a ZIP archive.
+ * The archive is unpacked into the blob store while the upload request is open; parsing and test
+ * generation then run in the background on a bounded pool, and generated specs are persisted
+ * in batches with one transaction per batch. Progress is tracked per spec in the database so
+ * clients can poll it.
+ */
+@Service
+public class BulkImportService {
+
+    private static final long BATCH_WAIT_MILLIS = 1000;
+
+    @Autowired
+    private BulkImportRepository bulkImportRepository;
+
+    @Autowired
+    private BulkImportItemRepository bulkImportItemRepository;
+
+    @Autowired
+    private ApiSpecRepository apiSpecRepository;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private StreamingSpecReader streamingSpecReader;
+
+    @Autowired
+    private OpenApiParserService parserService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiqa.bulk-import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${apiqa.bulk-import.persist-batch-size:10}")
+    private int persistBatchSize;
+
+    @Value("${apiqa.bulk-import.max-entry-bytes:268435456}")
+    private long maxEntryBytes;
+
+    @Value("${apiqa.bulk-import.max-archive-bytes:2147483648}")
+    private long maxArchiveBytes;
+
+    // Imports are coordinated one at a time, their specs are generated on the bounded worker pool
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void initWorkers() {
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Picks up the imports left behind by a previous instance.
+     * Specs that were being generated when it stopped are generated again; finished specs are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeImports() {
+        List<Long> unfinished = transactionTemplate.execute(status ->
+                bulkImportRepository.findByStatusInOrderByCreatedAt(List.of(BulkImportStatus.PENDING, BulkImportStatus.RUNNING))
+                        .stream().map(BulkImport::getId).toList());
+
+        if (!unfinished.isEmpty()) {
+            System.out.println("Resuming " + unfinished.size() + " bulk import(s)");
+            unfinished.forEach(bulkImportId -> coordinator.submit(() -> runImport(bulkImportId)));
+        }
+    }
+
+    /**
+     * Unpacks an archive of specs into the blob store and queues them for generation.
+     * Returns as soon as the archive has been read; entries that are not YAML or JSON files are skipped.
+     * Uncompressed sizes are counted while reading, so an archive that inflates beyond the per-entry
+     * or total limit is rejected whatever sizes its headers claim.
+     * @param archiveName The original file name of the archive
+     * @param archive The ZIP archive content
+     * @return The queued import
+     */
+    public BulkImport startImport(String archiveName, InputStream archive) {
+        BulkImport bulkImport = new BulkImport(archiveName != null ? archiveName : "archive.zip");
+
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            long archiveBytes = 0;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory() || !isSpecFile(entry.getName())) {
+                    continue;
+                }
+                long entryLimit = Math.min(maxEntryBytes, maxArchiveBytes - archiveBytes);
+                SizeLimitedInputStream entryContent = new SizeLimitedInputStream(zip, entryLimit, entry.getName());
+                String blobHash = blobStoreService.store(entryContent);
+                archiveBytes += entryContent.count;
+                bulkImport.getItems().add(new BulkImportItem(bulkImport, entry.getName(), specName(entry.getName()), blobHash));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read spec archive: " + e.getMessage(), e);
+        }
+
+        if (bulkImport.getItems().isEmpty()) {
+            throw new RuntimeException("No YAML or JSON specs found in archive " + bulkImport.getArchiveName());
+        }
+        bulkImport.setTotalSpecs(bulkImport.getItems().size());
+        BulkImport saved = transactionTemplate.execute(status -> bulkImportRepository.save(bulkImport));
+
+        System.out.println("Queued bulk import " + saved.getId() + " with " + saved.getTotalSpecs() + " specs from " + saved.getArchiveName());
+        coordinator.submit(() -> runImport(saved.getId()));
+        return saved;
+    }
+
+    public Optional<BulkImport> getImport(Long bulkImportId) {
+        return bulkImportRepository.findById(bulkImportId);
+    }
+
+    public List<BulkImport> getAllImports() {
+        return bulkImportRepository.findAllByOrderByCreatedAtDesc();
+    }
+
+    public List<BulkImportItem> getImportItems(Long bulkImportId) {
+        return bulkImportItemRepository.findByBulkImportIdOrderById(bulkImportId);
+    }
+
+    private void runImport(Long bulkImportId) {
+        try {
+            Deque<BulkImportItem> pending = new ArrayDeque<>(transactionTemplate.execute(status -> {
+                BulkImport bulkImport = bulkImportRepository.findById(bulkImportId)
+                        .orElseThrow(() -> new RuntimeException("Bulk import not found with ID: " + bulkImportId));
+                bulkImport.setStatus(BulkImportStatus.RUNNING);
+                if (bulkImport.getStartedAt() == null) {
+                    bulkImport.setStartedAt(LocalDateTime.now());
+                }
+                // Specs persisted before a restart are done; only the rest is generated (again)
+                return bulkImportItemRepository.findByBulkImportIdOrderById(bulkImportId).stream()
+                        .filter(item -> item.getStatus() == BulkImportStatus.PENDING || item.getStatus() == BulkImportStatus.RUNNING)
+                        .toList();
+            }));
+
+            CompletionService<GeneratedSpec> completion = new ExecutorCompletionService<>(workers);
+            // Generated specs wait in memory until persisted, so cap how many are in flight at once
+            int window = Math.max(1, parallelism) + persistBatchSize;
+            int inFlight = 0;
+
+            while (!pending.isEmpty() || inFlight > 0) {
+                while (!pending.isEmpty() && inFlight < window) {
+                    BulkImportItem item = pending.poll();
+                    completion.submit(() -> generate(item));
+                    inFlight++;
+                }
+
+                List<GeneratedSpec> batch = new ArrayList<>();
+                batch.add(result(completion.take()));
+                Future<GeneratedSpec> next;
+                while (batch.size() < persistBatchSize && batch.size() < inFlight
+                        && (next = completion.poll(BATCH_WAIT_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    batch.add(result(next));
+                }
+                inFlight -= batch.size();
+                persistBatch(bulkImportId, batch);
+            }
+
+            BulkImport bulkImport = transactionTemplate.execute(status -> {
+                BulkImport finished = bulkImportRepository.findById(bulkImportId).orElseThrow();
+                finished.setStatus(BulkImportStatus.COMPLETED);
+                finished.setCompletedAt(LocalDateTime.now());
+                return finished;
+            });
+            System.out.println("Bulk import " + bulkImportId + " finished: " + bulkImport.getCompletedSpecs() + " specs imported, " +
+                    bulkImport.getFailedSpecs() + " failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failImport(bulkImportId, "Interrupted");
+        } catch (Exception e) {
+            System.err.println("Error running bulk import " + bulkImportId + ": " + e.getMessage());
+            e.printStackTrace();
+            failImport(bulkImportId, e.getMessage());
+        }
+    }
+
+    private GeneratedSpec generate(BulkImportItem item) {
+        transactionTemplate.executeWithoutResult(status ->
+                bulkImportItemRepository.markStarted(item.getId(), BulkImportStatus.RUNNING, LocalDateTime.now()));
+        try {
+            String blobHash = item.getSpecBlobHash();
+            StreamingSpecReader.StreamingSpec spec = streamingSpecReader.open(() -> blobStoreService.open(blobHash));
+
+            ApiSpec apiSpec = new ApiSpec(item.getSpecName(), null, spec.getApiVersion() != null ? spec.getApiVersion() : "1.0.0");
+            apiSpec.setSpecBlobHash(blobHash);
+            apiSpec.getFeatureFiles().addAll(parserService.parseStreamingSpec(spec, apiSpec));
+            return new GeneratedSpec(item.getId(), apiSpec, null);
+        } catch (Exception e) {
+            System.err.println("Failed to generate tests for " + item.getFileName() + ": " + e.getMessage());
+            return new GeneratedSpec(item.getId(), null, e.getMessage());
+        }
+    }
+
+    private void persistBatch(Long bulkImportId, List<GeneratedSpec> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                BulkImport bulkImport = bulkImportRepository.findById(bulkImportId).orElseThrow();
+                for (GeneratedSpec generated : batch) {
+                    BulkImportItem item = bulkImportItemRepository.findById(generated.itemId).orElseThrow();
+                    if (generated.apiSpec != null) {
+                        // Feature files and scenarios are saved through the cascade
+                        ApiSpec saved = apiSpecRepository.save(generated.apiSpec);
+                        item.setApiSpecId(saved.getId());
+                        item.setScenarioCount(countScenarios(saved));
+                        item.setStatus(BulkImportStatus.COMPLETED);
+                        bulkImport.setCompletedSpecs(bulkImport.getCompletedSpecs() + 1);
+                    } else {
+                        item.setErrorMessage(generated.error);
+                        item.setStatus(BulkImportStatus.FAILED);
+                        bulkImport.setFailedSpecs(bulkImport.getFailedSpecs() + 1);
+                    }
+                    item.setCompletedAt(LocalDateTime.now());
+                }
+            });
+        } catch (Exception e) {
+            // The whole batch rolled back, so record every spec in it as failed
+            System.err.println("Error persisting bulk import batch: " + e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> {
+                BulkImport bulkImport = bulkImportRepository.findById(bulkImportId).orElseThrow();
+                for (GeneratedSpec generated : batch) {
+                    BulkImportItem item = bulkImportItemRepository.findById(generated.itemId).orElseThrow();
+                    item.setErrorMessage(generated.error != null ? generated.error : "Failed to save: " + e.getMessage());
+                    item.setStatus(BulkImportStatus.FAILED);
+                    item.setCompletedAt(LocalDateTime.now());
+                    bulkImport.setFailedSpecs(bulkImport.getFailedSpecs() + 1);
+                }
+            });
+        }
+    }
+
+    private void failImport(Long bulkImportId, String errorMessage) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> bulkImportRepository.findById(bulkImportId).ifPresent(bulkImport -> {
+                bulkImport.setStatus(BulkImportStatus.FAILED);
+                bulkImport.setErrorMessage(errorMessage);
+                bulkImport.setCompletedAt(LocalDateTime.now());
+            }));
+        } catch (Exception e) {
+            System.err.println("Error marking bulk import " + bulkImportId + " as failed: " + e.getMessage());
+        }
+    }
+
+    private static GeneratedSpec result(Future<GeneratedSpec> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // generate() handles its own failures, so this only happens if marking the item failed
+            throw new RuntimeException("Spec generation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static int countScenarios(ApiSpec apiSpec) {
+        int count = 0;
+        for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
+            count += featureFile.getTestScenarios().size();
+        }
+        return count;
+    }
+
+    private static boolean isSpecFile(String entryName) {
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        // Skip resource forks and other hidden files that archivers add
+        if (fileName.startsWith(".") || entryName.startsWith("__MACOSX/")) {
+            return false;
+        }
+        String lower = fileName.toLowerCase();
+        return lower.endsWith(".yaml") || lower.endsWith(".yml") || lower.endsWith(".json");
+    }
+
+    private static String specName(String entryName) {
+        String fileName = entryName.substring(entryName.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Passes an archive entry through while counting its uncompressed bytes, failing once they exceed a limit.
+     * Closing it leaves the archive open for the next entry.
+     */
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private final String entryName;
+        long count;
+
+        SizeLimitedInputStream(InputStream in, long limit, String entryName) {
+            super(in);
+            this.limit = limit;
+            this.entryName = entryName;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                counted(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counted(skipped);
+            return skipped;
+        }
+
+        @Override
+        public void close() {
+            // The entry stream belongs to the archive, which stays open for the next entry
+        }
+
+        private void counted(long bytes) throws IOException {
+            count += bytes;
+            if (count > limit) {
+                throw new IOException("Archive entry " + entryName + " exceeds the uncompressed size limit of " + limit + " bytes");
+            }
+        }
+    }
+
+    private static class GeneratedSpec {
+        final Long itemId;
+        final ApiSpec apiSpec;
+        final String error;
+
+        GeneratedSpec(Long itemId, ApiSpec apiSpec, String error) {
+            this.itemId = itemId;
+            this.apiSpec = apiSpec;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.RunCredentials;
+import com.apiqa.model.Environment;
+import com.apiqa.model.TestRun;
+import com.apiqa.repository.EnvironmentRepository;
+import com.apiqa.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the credentials of a test run once, before any request is sent.
+ * The run is bound to an environment, which is persisted on the run, and the
+ * environment's variables are captured in an immutable {@link RunCredentials} snapshot.
+ * A run only ever sends the token of its own environment.
+ */
+@Service
+public class CredentialResolutionService {
+
+    @Autowired
+    private EnvironmentRepository environmentRepository;
+
+    @Autowired
+    private TestRunRepository testRunRepository;
+
+    @Autowired
+    private EnvironmentLookupService environmentLookupService;
+
+    /**
+     * Binds the run to an environment and snapshots its variables.
+     * An environment already set on the run wins; otherwise the environment of the spec's
+     * most recent run is reused, and finally the environment defining the default token.
+     * @param testRun The test run about to execute
+     * @return The credentials snapshot for the run
+     */
+    public RunCredentials resolveForRun(TestRun testRun) {
+        Long environmentId = testRun.getEnvironment() != null ? testRun.getEnvironment().getId() : null;
+
+        if (environmentId == null && testRun.getApiSpec() != null && testRun.getApiSpec().getId() != null) {
+            List<Long> recent = testRunRepository.findRecentEnvironmentIdsByApiSpecId(testRun.getApiSpec().getId(), PageRequest.of(0, 1));
+            environmentId = recent.isEmpty() ? null : recent.get(0);
+        }
+        if (environmentId == null) {
+            environmentId = environmentLookupService.getDefaultEnvironmentId();
+        }
+
+        Environment environment = environmentId != null ? bindEnvironment(testRun, environmentId) : null;
+        Map<String, String> variables = environment != null
+                ? environmentLookupService.getEnvironmentVariables(environment.getId())
+                : Collections.emptyMap();
+
+        // No fallback to another environment's token: a run without one sends no Authorization header
+        String token = findToken(variables);
+        if (environment != null && token == null) {
+            System.out.println("Environment " + environment.getName() + " defines no token; test run " + testRun.getId() +
+                    " sends requests without one");
+        }
+
+        System.out.println("Resolved credentials for test run " + testRun.getId() + " from environment: " +
+                (environment != null ? environment.getName() : "none"));
+        return new RunCredentials(
+            environment != null ? environment.getId() : null,
+            environment != null ? environment.getName() : null,
+            variables,
+            token
+        );
+    }
+
+    private Environment bindEnvironment(TestRun testRun, Long environmentId) {
+        if (testRun.getEnvironment() != null) {
+            return testRun.getEnvironment();
+        }
+
+        Environment environment = environmentRepository.findById(environmentId).orElse(null);
+        if (environment != null && testRun.getId() != null) {
+            testRun.setEnvironment(environment);
+            testRunRepository.save(testRun);
+        }
+        return environment;
+    }
+
+    private static String findToken(Map<String, String> variables) {
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            if ("token".equalsIgnoreCase(variable.getKey())) {
+                return variable.getValue();
+            }
+        }
+        return null;
+    }
+}
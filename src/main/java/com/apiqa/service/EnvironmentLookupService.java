@@ -0,0 +1,91 @@
+package com.apiqa.service;
+
+import com.apiqa.model.EnvironmentVariable;
+import com.apiqa.repository.EnvironmentVariableRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cached read path for environment variables used while generating and executing tests.
+ * Lookups hit the database once and are then served from memory until
+ * {@link EnvironmentService} changes an environment or one of its variables.
+ */
+@Service
+public class EnvironmentLookupService {
+    
+    public static final String ENVIRONMENT_CACHE = "environments";
+    
+    @Autowired
+    private EnvironmentVariableRepository environmentVariableRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    /**
+     * Gets the first token variable defined in any environment
+     * @return The token value or null if not found
+     */
+    @Cacheable(cacheNames = ENVIRONMENT_CACHE, key = "'default'")
+    public String getDefaultToken() {
+        List<EnvironmentVariable> tokenVariables = environmentVariableRepository.findByKeyIgnoreCase("token");
+        return tokenVariables.isEmpty() ? null : tokenVariables.get(0).getValue();
+    }
+    
+    /**
+     * Gets the ID of the environment that defines the default token
+     * @return The environment ID or null if no environment defines a token
+     */
+    @Cacheable(cacheNames = ENVIRONMENT_CACHE, key = "'default-environment'")
+    public Long getDefaultEnvironmentId() {
+        List<EnvironmentVariable> tokenVariables = environmentVariableRepository.findByKeyIgnoreCase("token");
+        return tokenVariables.isEmpty() ? null : tokenVariables.get(0).getEnvironment().getId();
+    }
+    
+    /**
+     * Gets all variables of a specific environment
+     * @param environmentId The environment ID
+     * @return An unmodifiable map of variable keys to values, ordered by key
+     */
+    @Cacheable(cacheNames = ENVIRONMENT_CACHE, key = "'environment:' + #environmentId")
+    public Map<String, String> getEnvironmentVariables(Long environmentId) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (EnvironmentVariable variable : environmentVariableRepository.findByEnvironmentId(environmentId)) {
+            variables.put(variable.getKey(), variable.getValue());
+        }
+        return Collections.unmodifiableMap(variables);
+    }
+    
+    /**
+     * Drops all cached lookups; called whenever an environment or variable changes
+     */
+    public void evictAll() {
+        clearCache();
+        
+        // Clear again once the change is committed, so a lookup that raced the write cannot keep the old value
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearCache();
+                }
+            });
+        }
+    }
+    
+    private void clearCache() {
+        Cache cache = cacheManager.getCache(ENVIRONMENT_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
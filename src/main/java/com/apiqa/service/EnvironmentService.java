@@ -4,6 +4,7 @@ import com.apiqa.model.Environment;
 import com.apiqa.model.EnvironmentVariable;
 import com.apiqa.repository.EnvironmentRepository;
 import com.apiqa.repository.EnvironmentVariableRepository;
+import com.apiqa.repository.TestRunRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +22,15 @@ public class EnvironmentService {
     @Autowired
     private EnvironmentVariableRepository environmentVariableRepository;
     
+    @Autowired
+    private TestRunRepository testRunRepository;
+    
+    @Autowired
+    private EnvironmentLookupService environmentLookupService;
+    
+    @Autowired
+    private OAuth2TokenService oAuth2TokenService;
+    
     // Environment CRUD operations
     public Environment createEnvironment(String name, String description, String createdByName) {
         if (environmentRepository.existsByName(name)) {
@@ -71,8 +81,13 @@ public class EnvironmentService {
         List<EnvironmentVariable> variables = environmentVariableRepository.findByEnvironmentId(id);
         environmentVariableRepository.deleteAll(variables);
         
+        // Keep the runs made against it, unbound from the environment
+        testRunRepository.clearEnvironment(id);
+        
         // Delete environment
         environmentRepository.deleteById(id);
+        environmentLookupService.evictAll();
+        oAuth2TokenService.invalidate(id);
     }
     
     // Environment Variable CRUD operations
@@ -90,7 +105,9 @@ public class EnvironmentService {
         }
         
         EnvironmentVariable variable = new EnvironmentVariable(key, value, description, environment, variableType, isSensitive);
-        return environmentVariableRepository.save(variable);
+        variable = environmentVariableRepository.save(variable);
+        environmentLookupService.evictAll();
+        return variable;
     }
     
     public List<EnvironmentVariable> getVariablesByEnvironmentId(Long environmentId) {
@@ -117,7 +134,9 @@ public class EnvironmentService {
             variable.setIsSensitive(isSensitive);
         }
         
-        return environmentVariableRepository.save(variable);
+        variable = environmentVariableRepository.save(variable);
+        environmentLookupService.evictAll();
+        return variable;
     }
     
     public void deleteVariable(Long id) {
@@ -126,10 +145,12 @@ public class EnvironmentService {
         }
         
         environmentVariableRepository.deleteById(id);
+        environmentLookupService.evictAll();
     }
     
     public void deleteVariableByKey(Long environmentId, String key) {
         environmentVariableRepository.deleteByEnvironmentIdAndKey(environmentId, key);
+        environmentLookupService.evictAll();
     }
     
     public Optional<EnvironmentVariable> getVariableByEnvironmentIdAndKey(Long environmentId, String key) {
@@ -0,0 +1,282 @@
+package com.apiqa.service;
+
+import com.apiqa.model.ExecutionOrder;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.Job;
+import com.apiqa.model.JobStatus;
+import com.apiqa.model.JobType;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestSuiteType;
+import com.apiqa.repository.JobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs test generation and test runs as background jobs.
+ * Jobs are persisted in the jobs table when submitted and picked up by a fixed pool of workers,
+ * so the submitting request returns immediately with the job ID and clients poll for the outcome.
+ * Test run jobs only prepare the run on a worker and then hand it to the test run executor, so they count
+ * against the same run limits as runs started from the dashboard, and the job finishes with the run.
+ * Cancellation is cooperative: a queued job never starts, a running generation job rolls
+ * back instead of committing its tests, and a running test run is cancelled.
+ * Each running job records the instance running it. A job is only failed as interrupted once that
+ * instance has stopped, so instances sharing a database leave each other's jobs alone.
+ */
+@Service
+public class JobService {
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ApiQaService apiQaService;
+
+    @Autowired
+    private TestRunControlService testRunControlService;
+
+    @Autowired
+    private TestRunQueueService testRunQueueService;
+
+    @Autowired
+    private SchedulerLeaseService schedulerLeaseService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiqa.jobs.workers:2}")
+    private int workerCount;
+
+    @Value("${apiqa.jobs.history-size:100}")
+    private int historySize;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void initWorkers() {
+        workers = Executors.newFixedThreadPool(Math.max(1, workerCount));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Picks up the jobs left behind by a previous instance.
+     * Queued jobs are dispatched again; jobs that were running on an instance that has stopped are marked failed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeQueuedJobs() {
+        failOrphanedJobs();
+        List<Long> queued = transactionTemplate.execute(status ->
+                jobRepository.findByStatusOrderByCreatedAt(JobStatus.QUEUED).stream().map(Job::getId).toList());
+
+        if (!queued.isEmpty()) {
+            System.out.println("Resuming " + queued.size() + " queued job(s)");
+            queued.forEach(this::dispatch);
+        }
+    }
+
+    /**
+     * Marks running jobs failed whose instance has stopped, which shows by its instance lease having expired.
+     * Runs periodically as well, since an instance that crashed only expires a while after another one started.
+     */
+    @Scheduled(fixedDelayString = "${apiqa.jobs.orphan-sweep-millis:60000}")
+    public void failOrphanedJobs() {
+        Set<String> liveInstances = schedulerLeaseService.getLiveInstanceIds();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Job job : jobRepository.findByStatusOrderByCreatedAt(JobStatus.RUNNING)) {
+                if (job.getOwnerInstanceId() != null && liveInstances.contains(job.getOwnerInstanceId())) {
+                    continue;
+                }
+                job.setStatus(JobStatus.FAILED);
+                job.setErrorMessage("Interrupted, instance " + job.getOwnerInstanceId() + " stopped while running it");
+                job.setCompletedAt(LocalDateTime.now());
+                System.err.println("Job " + job.getId() + " failed, its instance " + job.getOwnerInstanceId() + " has stopped");
+            }
+        });
+    }
+
+    /**
+     * Queues test generation for a spec
+     * @param apiSpecId The API spec ID
+     * @param fullRebuild true to delete all existing tests and generate them from scratch
+     * @return The queued job
+     */
+    public Job submitGeneration(Long apiSpecId, boolean fullRebuild) {
+        Job job = new Job(JobType.GENERATE_TESTS, apiSpecId);
+        job.setFullRebuild(fullRebuild);
+        return submit(job);
+    }
+
+    /**
+     * Queues a test run for a spec
+     * @param apiSpecId The API spec ID
+     * @param runName The run name
+     * @param suiteType The suite to run, or null to run all scenarios
+     * @param environmentId The environment to run against (can be null)
+     * @param executionOrder The order to run the scenarios in, or null for the configured default
+     * @param failFastThreshold Failures after which the rest is skipped, or null for the configured default
+     * @return The queued job
+     */
+    public Job submitTestRun(Long apiSpecId, String runName, TestSuiteType suiteType, Long environmentId,
+                             ExecutionOrder executionOrder, Integer failFastThreshold) {
+        Job job = new Job(JobType.RUN_TESTS, apiSpecId);
+        job.setRunName(runName);
+        job.setSuiteType(suiteType);
+        job.setEnvironmentId(environmentId);
+        job.setExecutionOrder(executionOrder);
+        job.setFailFastThreshold(failFastThreshold);
+        return submit(job);
+    }
+
+    public Optional<Job> getJob(Long jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    public List<Job> getRecentJobs() {
+        return jobRepository.findRecent(PageRequest.of(0, historySize));
+    }
+
+    public List<Job> getJobsByApiSpecId(Long apiSpecId) {
+        return jobRepository.findByApiSpecIdOrderByCreatedAtDesc(apiSpecId);
+    }
+
+    /**
+     * Cancels a job. A queued job is cancelled immediately, a running one when it next checks for cancellation.
+     * @param jobId The job ID
+     * @return The job
+     */
+    public Job cancel(Long jobId) {
+        return transactionTemplate.execute(status -> {
+            Job job = jobRepository.findById(jobId)
+                    .orElseThrow(() -> new RuntimeException("Job not found with ID: " + jobId));
+            if (job.isFinished()) {
+                return job;
+            }
+
+            job.setCancelRequested(true);
+            if (job.getStatus() == JobStatus.QUEUED) {
+                job.setStatus(JobStatus.CANCELLED);
+                job.setCompletedAt(LocalDateTime.now());
+            } else if (job.getTestRunId() != null) {
+                testRunControlService.cancel(job.getTestRunId());
+            }
+            System.out.println("Cancellation requested for job " + jobId + " (" + job.getStatus() + ")");
+            return job;
+        });
+    }
+
+    private Job submit(Job job) {
+        Job saved = transactionTemplate.execute(status -> jobRepository.save(job));
+        dispatch(saved.getId());
+        return saved;
+    }
+
+    private void dispatch(Long jobId) {
+        workers.submit(() -> runJob(jobId));
+    }
+
+    private void runJob(Long jobId) {
+        Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, LocalDateTime.now(), schedulerLeaseService.getInstanceId()));
+        if (claimed == null || claimed == 0) {
+            // Cancelled while queued, or already taken by another worker
+            return;
+        }
+
+        Job job = jobRepository.findById(jobId).orElseThrow();
+        try {
+            if (job.getType() == JobType.GENERATE_TESTS) {
+                finish(jobId, runGeneration(job), null);
+            } else {
+                runTests(job);
+            }
+        } catch (Exception e) {
+            System.err.println("Job " + jobId + " failed: " + e.getMessage());
+            finish(jobId, null, e.getMessage());
+        }
+    }
+
+    private String runGeneration(Job job) {
+        return transactionTemplate.execute(status -> {
+            List<FeatureFile> featureFiles = apiQaService.generateFeatureFiles(job.getApiSpecId(), Boolean.TRUE.equals(job.getFullRebuild()));
+
+            // Cancelled while generating: discard the tests instead of committing them
+            if (isCancelRequested(job.getId())) {
+                status.setRollbackOnly();
+                return null;
+            }
+
+            int scenarios = featureFiles.stream().mapToInt(featureFile -> featureFile.getTestScenarios().size()).sum();
+            return "Generated " + featureFiles.size() + " feature files with " + scenarios + " test scenarios";
+        });
+    }
+
+    /**
+     * Prepares the run and queues it on the test run executor. The job is finished once the run is.
+     * @throws org.springframework.core.task.TaskRejectedException if the test run queue is full
+     */
+    private void runTests(Job job) {
+        // The run is saved up front so cancelling the job can reach it while it executes
+        TestRun prepared = apiQaService.prepareTestRun(job.getApiSpecId(), job.getRunName(), TestRunType.MANUAL,
+                job.getSuiteType(), job.getEnvironmentId(), job.getExecutionOrder(), job.getFailFastThreshold());
+        transactionTemplate.executeWithoutResult(status ->
+                jobRepository.findById(job.getId()).ifPresent(current -> current.setTestRunId(prepared.getId())));
+        if (isCancelRequested(job.getId())) {
+            testRunControlService.cancel(prepared.getId());
+        }
+
+        Long jobId = job.getId();
+        testRunQueueService.queuePreparedTestRun(prepared.getId()).whenComplete((testRun, error) -> {
+            if (error != null) {
+                finish(jobId, null, TestRunQueueService.unwrap(error).getMessage());
+            } else {
+                finish(jobId, "Test run " + testRun.getId() + " finished with status " + testRun.getStatus(), null);
+            }
+        });
+    }
+
+    private boolean isCancelRequested(Long jobId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> jobRepository.isCancelRequested(jobId)));
+    }
+
+    private void finish(Long jobId, String result, String error) {
+        JobStatus finalStatus = transactionTemplate.execute(status -> {
+            Job job = jobRepository.findById(jobId).orElseThrow();
+            if (job.isFinished()) {
+                // Failed as orphaned while this instance was unresponsive
+                return null;
+            }
+            if (Boolean.TRUE.equals(job.getCancelRequested())) {
+                job.setStatus(JobStatus.CANCELLED);
+            } else {
+                job.setStatus(error == null ? JobStatus.COMPLETED : JobStatus.FAILED);
+            }
+            job.setResultMessage(result);
+            job.setErrorMessage(error);
+            job.setCompletedAt(LocalDateTime.now());
+            return job.getStatus();
+        });
+        if (finalStatus == null) {
+            System.err.println("Job " + jobId + " finished after it had been failed as interrupted");
+            return;
+        }
+        System.out.println("Job " + jobId + " " + finalStatus + (result != null ? ": " + result : "") + (error != null ? ": " + error : ""));
+    }
+}
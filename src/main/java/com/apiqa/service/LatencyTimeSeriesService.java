@@ -0,0 +1,424 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.ExecutionAnalyticsRow;
+import com.apiqa.dto.LatencyTrendPoint;
+import com.apiqa.model.LatencyBucket;
+import com.apiqa.model.LatencyResolution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.repository.LatencyBucketRepository;
+import com.apiqa.repository.TestExecutionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Time-series store of endpoint latency keyed by (API spec, method, endpoint template).
+ * The template is the operation path declared in the spec, such as /users/{userId}.
+ * Each finished run is folded into five-minute buckets holding a fixed-bound latency
+ * histogram and error counts. Buckets are downsampled to hourly and then daily resolution
+ * as they age, so trend queries stay cheap without scanning test executions.
+ * Concurrent runs can feed the same bucket: an existing bucket is locked while it is updated,
+ * and a bucket that another run created first is merged into on retry.
+ */
+@Service
+public class LatencyTimeSeriesService {
+
+    // Upper bounds of the histogram buckets; the last count holds everything above the last bound
+    static final long[] HISTOGRAM_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    // Path segments that look like identifiers (numbers, UUIDs, object IDs) are collapsed into {id}
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{24,}");
+
+    // Attempts to merge into a bucket that other runs keep creating concurrently
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    @Autowired
+    private LatencyBucketRepository latencyBucketRepository;
+
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiqa.latency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${apiqa.latency.five-minute-retention-days:2}")
+    private int fiveMinuteRetentionDays;
+
+    @Value("${apiqa.latency.hourly-retention-days:30}")
+    private int hourlyRetentionDays;
+
+    @Value("${apiqa.latency.batch-size:500}")
+    private int batchSize;
+
+    // Independent of any transaction of the caller, which may already have committed
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    public void initNewTransaction() {
+        newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Folds the executions of a finished test run into the latency buckets.
+     * Call it after the run has committed: rows are read in a new transaction, and each bucket
+     * is merged in a transaction of its own, so a failure never rolls back the run.
+     * @param testRun The finished test run
+     * @return The number of buckets written
+     */
+    public int recordRun(TestRun testRun) {
+        if (!enabled || testRun == null || testRun.getId() == null || testRun.getApiSpec() == null) {
+            return 0;
+        }
+
+        Long apiSpecId = testRun.getApiSpec().getId();
+        Map<String, BucketStats> statsByKey = new LinkedHashMap<>();
+        Map<String, LatencyBucket> bucketsByKey = new LinkedHashMap<>();
+
+        newTransaction.executeWithoutResult(status -> collect(testRun.getId(), apiSpecId, statsByKey, bucketsByKey));
+
+        for (Map.Entry<String, BucketStats> entry : statsByKey.entrySet()) {
+            LatencyBucket key = bucketsByKey.get(entry.getKey());
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    newTransaction.executeWithoutResult(status -> mergeInto(key.getApiSpecId(), key.getHttpMethod(),
+                            key.getEndpointTemplate(), key.getResolution(), key.getBucketStart(), entry.getValue()));
+                    break;
+                } catch (DataIntegrityViolationException e) {
+                    // Another run inserted the same bucket first; the next attempt finds and locks it
+                    if (attempt >= MAX_MERGE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        return statsByKey.size();
+    }
+
+    private void collect(Long testRunId, Long apiSpecId, Map<String, BucketStats> statsByKey, Map<String, LatencyBucket> bucketsByKey) {
+        try (Stream<ExecutionAnalyticsRow> stream = testExecutionRepository.streamAnalyticsRowsByTestRunId(testRunId)) {
+            for (ExecutionAnalyticsRow row : (Iterable<ExecutionAnalyticsRow>) stream::iterator) {
+                // A reused response was measured once already, for the execution that made the call
+                if (row.getExecutionTimeMs() == null || row.isResponseReused() || !isCompleted(row.getStatus())) {
+                    continue;
+                }
+
+                String method = row.getRequestMethod() != null ? row.getRequestMethod().toUpperCase() : "UNKNOWN";
+                String template = endpointTemplate(row.getOperationKey(), row.getRequestUrl());
+                LocalDateTime executedAt = row.getExecutedAt() != null ? row.getExecutedAt() : LocalDateTime.now();
+                LocalDateTime bucketStart = bucketStart(executedAt, LatencyResolution.FIVE_MINUTES);
+
+                String key = method + " " + template + " " + bucketStart;
+                BucketStats stats = statsByKey.get(key);
+                if (stats == null) {
+                    stats = new BucketStats();
+                    statsByKey.put(key, stats);
+                    bucketsByKey.put(key, new LatencyBucket(apiSpecId, method, template, LatencyResolution.FIVE_MINUTES, bucketStart));
+                }
+                stats.add(row.getExecutionTimeMs(), isError(row.getStatus()));
+            }
+        }
+    }
+
+    /**
+     * Returns the latency trend of one endpoint over a time window.
+     * Older parts of the window come back at coarser resolution once they have been downsampled.
+     * @param apiSpecId The API spec ID
+     * @param method The HTTP method
+     * @param endpointTemplate The endpoint template, e.g. /users/{id}
+     * @param from The start of the window (inclusive)
+     * @param to The end of the window (exclusive)
+     * @return The trend points ordered by bucket start
+     */
+    public List<LatencyTrendPoint> getTrend(Long apiSpecId, String method, String endpointTemplate,
+                                            LocalDateTime from, LocalDateTime to) {
+        List<LatencyTrendPoint> points = new ArrayList<>();
+        for (LatencyBucket bucket : latencyBucketRepository.findSeries(apiSpecId, method.toUpperCase(), endpointTemplate, from, to)) {
+            BucketStats stats = BucketStats.from(bucket);
+            points.add(new LatencyTrendPoint(
+                bucket.getBucketStart(),
+                bucket.getResolution(),
+                stats.count,
+                stats.errors,
+                stats.count > 0 ? stats.totalMs / stats.count : null,
+                bucket.getMinTimeMs(),
+                bucket.getMaxTimeMs(),
+                stats.percentile(0.50, bucket.getMaxTimeMs()),
+                stats.percentile(0.95, bucket.getMaxTimeMs()),
+                stats.percentile(0.99, bucket.getMaxTimeMs())
+            ));
+        }
+        return points;
+    }
+
+    /**
+     * Lists the endpoints that have latency data for an API spec
+     * @param apiSpecId The API spec ID
+     * @return One entry per series with its method and endpoint template
+     */
+    public List<Map<String, String>> getSeries(Long apiSpecId) {
+        List<Map<String, String>> series = new ArrayList<>();
+        for (Object[] key : latencyBucketRepository.findSeriesKeys(apiSpecId)) {
+            Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("method", (String) key[0]);
+            entry.put("endpointTemplate", (String) key[1]);
+            series.add(entry);
+        }
+        return series;
+    }
+
+    /**
+     * Downsamples aged latency buckets in the background
+     * Cron expression: every hour at 45 minutes
+     */
+    @Scheduled(cron = "${apiqa.latency.downsample-cron:0 45 * * * *}")
+    public void runDownsampling() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int merged = downsample();
+            if (merged > 0) {
+                System.out.println("Downsampled " + merged + " latency bucket(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Error downsampling latency buckets: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Merges five-minute buckets into hourly ones and hourly buckets into daily ones
+     * once they are older than their retention windows
+     * @return The number of source buckets merged away
+     */
+    public int downsample() {
+        LocalDateTime now = LocalDateTime.now();
+        int merged = downsample(LatencyResolution.FIVE_MINUTES, LatencyResolution.HOUR, now.minusDays(fiveMinuteRetentionDays));
+        merged += downsample(LatencyResolution.HOUR, LatencyResolution.DAY, now.minusDays(hourlyRetentionDays));
+        return merged;
+    }
+
+    private int downsample(LatencyResolution source, LatencyResolution target, LocalDateTime cutoff) {
+        // Align the cutoff so a target bucket is never split across two resolutions
+        LocalDateTime alignedCutoff = bucketStart(cutoff, target);
+        int merged = 0;
+
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<LatencyBucket> batch = latencyBucketRepository.findForDownsampling(source, alignedCutoff, PageRequest.of(0, batchSize));
+                for (LatencyBucket bucket : batch) {
+                    mergeInto(bucket.getApiSpecId(), bucket.getHttpMethod(), bucket.getEndpointTemplate(),
+                            target, bucketStart(bucket.getBucketStart(), target), BucketStats.from(bucket));
+                }
+                latencyBucketRepository.deleteAllInBatch(batch);
+                return batch.size();
+            });
+
+            if (count == null || count == 0) {
+                return merged;
+            }
+            merged += count;
+        }
+    }
+
+    private void mergeInto(Long apiSpecId, String method, String template, LatencyResolution resolution,
+                           LocalDateTime bucketStart, BucketStats stats) {
+        // Locked, so concurrent merges into an existing bucket do not overwrite each other
+        LatencyBucket bucket = latencyBucketRepository.findForUpdate(apiSpecId, method, template, resolution, bucketStart)
+                .orElseGet(() -> new LatencyBucket(apiSpecId, method, template, resolution, bucketStart));
+
+        BucketStats merged = BucketStats.from(bucket);
+        merged.merge(stats);
+        merged.applyTo(bucket);
+        latencyBucketRepository.save(bucket);
+    }
+
+    /**
+     * The endpoint template an execution is recorded under: the path of its scenario's operation as
+     * declared in the spec, or for executions without one, a template guessed from the request URL
+     * @param operationKey The operation key of the scenario, e.g. GET /users/{userId} (can be null)
+     * @param requestUrl The executed request URL
+     * @return The endpoint template
+     */
+    static String endpointTemplate(String operationKey, String requestUrl) {
+        if (operationKey != null) {
+            int separator = operationKey.indexOf(' ');
+            if (separator >= 0) {
+                return operationKey.substring(separator + 1);
+            }
+        }
+        return toEndpointTemplate(requestUrl);
+    }
+
+    /**
+     * Reduces a request URL to its endpoint template by dropping scheme, host and query
+     * and replacing identifier-like path segments with {id}
+     * @param requestUrl The executed request URL
+     * @return The endpoint template
+     */
+    static String toEndpointTemplate(String requestUrl) {
+        if (requestUrl == null || requestUrl.isEmpty()) {
+            return "/";
+        }
+
+        String path = requestUrl;
+        int schemeEnd = path.indexOf("://");
+        if (schemeEnd >= 0) {
+            int pathStart = path.indexOf('/', schemeEnd + 3);
+            path = pathStart >= 0 ? path.substring(pathStart) : "/";
+        }
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            path = path.substring(0, queryStart);
+        }
+
+        StringBuilder template = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            template.append('/').append(ID_SEGMENT.matcher(segment).matches() ? "{id}" : segment);
+        }
+        return template.length() > 0 ? template.toString() : "/";
+    }
+
+    private static LocalDateTime bucketStart(LocalDateTime time, LatencyResolution resolution) {
+        switch (resolution) {
+            case FIVE_MINUTES:
+                LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+                return minute.minusMinutes(minute.getMinute() % 5);
+            case HOUR:
+                return time.truncatedTo(ChronoUnit.HOURS);
+            default:
+                return time.truncatedTo(ChronoUnit.DAYS);
+        }
+    }
+
+    private static boolean isCompleted(TestExecutionStatus status) {
+        return status == TestExecutionStatus.PASSED || isError(status);
+    }
+
+    private static boolean isError(TestExecutionStatus status) {
+        return status == TestExecutionStatus.FAILED || status == TestExecutionStatus.ERROR;
+    }
+
+    /**
+     * Mergeable in-memory view of a bucket's counters and histogram
+     */
+    private static class BucketStats {
+        long count;
+        long errors;
+        long totalMs;
+        Long minMs;
+        Long maxMs;
+        final long[] histogram = new long[HISTOGRAM_BOUNDS_MS.length + 1];
+
+        static BucketStats from(LatencyBucket bucket) {
+            BucketStats stats = new BucketStats();
+            stats.count = bucket.getSampleCount();
+            stats.errors = bucket.getErrorCount();
+            stats.totalMs = bucket.getTotalTimeMs();
+            stats.minMs = bucket.getMinTimeMs();
+            stats.maxMs = bucket.getMaxTimeMs();
+            if (bucket.getHistogram() != null && !bucket.getHistogram().isEmpty()) {
+                String[] counts = bucket.getHistogram().split(",");
+                for (int i = 0; i < counts.length && i < stats.histogram.length; i++) {
+                    stats.histogram[i] = Long.parseLong(counts[i]);
+                }
+            }
+            return stats;
+        }
+
+        void add(long timeMs, boolean error) {
+            count++;
+            totalMs += timeMs;
+            if (error) {
+                errors++;
+            }
+            minMs = minMs == null ? timeMs : Math.min(minMs, timeMs);
+            maxMs = maxMs == null ? timeMs : Math.max(maxMs, timeMs);
+
+            int index = 0;
+            while (index < HISTOGRAM_BOUNDS_MS.length && timeMs > HISTOGRAM_BOUNDS_MS[index]) {
+                index++;
+            }
+            histogram[index]++;
+        }
+
+        void merge(BucketStats other) {
+            count += other.count;
+            errors += other.errors;
+            totalMs += other.totalMs;
+            if (other.minMs != null) {
+                minMs = minMs == null ? other.minMs : Math.min(minMs, other.minMs);
+            }
+            if (other.maxMs != null) {
+                maxMs = maxMs == null ? other.maxMs : Math.max(maxMs, other.maxMs);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+        }
+
+        void applyTo(LatencyBucket bucket) {
+            bucket.setSampleCount(count);
+            bucket.setErrorCount(errors);
+            bucket.setTotalTimeMs(totalMs);
+            bucket.setMinTimeMs(minMs);
+            bucket.setMaxTimeMs(maxMs);
+
+            StringBuilder counts = new StringBuilder();
+            for (int i = 0; i < histogram.length; i++) {
+                if (i > 0) {
+                    counts.append(',');
+                }
+                counts.append(histogram[i]);
+            }
+            bucket.setHistogram(counts.toString());
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the histogram bucket containing it,
+         * capped by the observed maximum
+         */
+        Long percentile(double quantile, Long observedMax) {
+            if (count == 0) {
+                return null;
+            }
+
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    long bound = i < HISTOGRAM_BOUNDS_MS.length ? HISTOGRAM_BOUNDS_MS[i] : Long.MAX_VALUE;
+                    return observedMax != null ? Math.min(bound, observedMax) : bound;
+                }
+            }
+            return observedMax;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.RunCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acquires OAuth2 bearer tokens for environments that configure a token endpoint.
+ * An environment opts in by defining the {@code oauth2.*} variables below. Tokens are cached
+ * in memory per environment and reused by every request and worker until shortly before they
+ * expire; a refresh is performed once per environment while concurrent callers wait for it.
+ */
+@Service
+public class OAuth2TokenService {
+
+    public static final String GRANT_TYPE = "oauth2.grant_type";
+    public static final String TOKEN_URL = "oauth2.token_url";
+    public static final String CLIENT_ID = "oauth2.client_id";
+    public static final String CLIENT_SECRET = "oauth2.client_secret";
+    public static final String SCOPE = "oauth2.scope";
+    public static final String REFRESH_TOKEN = "oauth2.refresh_token";
+
+    private static final String CLIENT_CREDENTIALS = "client_credentials";
+    private static final String REFRESH_TOKEN_GRANT = "refresh_token";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    private final Map<Long, CachedToken> tokens = new ConcurrentHashMap<>();
+
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    @Value("${apiqa.oauth2.refresh-skew-seconds:60}")
+    private long refreshSkewSeconds;
+
+    @Value("${apiqa.oauth2.default-expires-in-seconds:300}")
+    private long defaultExpiresInSeconds;
+
+    /**
+     * Checks whether the credentials configure an OAuth2 token endpoint
+     * @param credentials The run credentials
+     * @return true if tokens should be acquired from the token endpoint
+     */
+    public boolean isConfigured(RunCredentials credentials) {
+        return credentials.getEnvironmentId() != null && credentials.getVariable(TOKEN_URL) != null;
+    }
+
+    /**
+     * Returns a valid access token for the environment of the credentials,
+     * requesting a new one only if the cached token is missing or about to expire
+     * @param credentials The run credentials
+     * @return The access token
+     */
+    public String getAccessToken(RunCredentials credentials) {
+        Long environmentId = credentials.getEnvironmentId();
+        String fingerprint = fingerprint(credentials);
+
+        CachedToken cached = tokens.get(environmentId);
+        if (isUsable(cached, fingerprint)) {
+            return cached.accessToken;
+        }
+
+        // Single flight: one caller per environment talks to the token endpoint, the others wait and reuse its result
+        synchronized (locks.computeIfAbsent(environmentId, id -> new Object())) {
+            cached = tokens.get(environmentId);
+            if (isUsable(cached, fingerprint)) {
+                return cached.accessToken;
+            }
+
+            CachedToken fresh = requestToken(credentials, fingerprint, cached);
+            tokens.put(environmentId, fresh);
+            return fresh.accessToken;
+        }
+    }
+
+    /**
+     * Drops the cached token of an environment, e.g. after its configuration changed
+     * @param environmentId The environment ID
+     */
+    public void invalidate(Long environmentId) {
+        tokens.remove(environmentId);
+    }
+
+    private boolean isUsable(CachedToken token, String fingerprint) {
+        // Refresh proactively so a request never goes out with a token that expires in flight
+        return token != null && token.fingerprint.equals(fingerprint)
+                && Instant.now().isBefore(token.expiresAt.minusSeconds(refreshSkewSeconds));
+    }
+
+    private CachedToken requestToken(RunCredentials credentials, String fingerprint, CachedToken previous) {
+        String grantType = credentials.getVariable(GRANT_TYPE) != null ? credentials.getVariable(GRANT_TYPE) : CLIENT_CREDENTIALS;
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        String refreshToken = null;
+        if (REFRESH_TOKEN_GRANT.equals(grantType)) {
+            // Prefer the rotated refresh token issued with the previous access token
+            refreshToken = previous != null && previous.fingerprint.equals(fingerprint) && previous.refreshToken != null
+                    ? previous.refreshToken
+                    : credentials.getVariable(REFRESH_TOKEN);
+            if (refreshToken == null) {
+                throw new RuntimeException("OAuth2 refresh_token grant requires " + REFRESH_TOKEN + " in environment " + credentials.getEnvironmentName());
+            }
+            form.add("grant_type", REFRESH_TOKEN_GRANT);
+            form.add("refresh_token", refreshToken);
+        } else if (CLIENT_CREDENTIALS.equals(grantType)) {
+            form.add("grant_type", CLIENT_CREDENTIALS);
+        } else {
+            throw new RuntimeException("Unsupported OAuth2 grant type: " + grantType);
+        }
+        addIfPresent(form, "client_id", credentials.getVariable(CLIENT_ID));
+        addIfPresent(form, "client_secret", credentials.getVariable(CLIENT_SECRET));
+        addIfPresent(form, "scope", credentials.getVariable(SCOPE));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(credentials.getVariable(TOKEN_URL), HttpMethod.POST,
+                new HttpEntity<>(form, headers), new ParameterizedTypeReference<Map<String, Object>>() {});
+        Map<String, Object> body = response.getBody();
+        if (body == null || body.get("access_token") == null) {
+            throw new RuntimeException("OAuth2 token endpoint returned no access_token for environment " + credentials.getEnvironmentName());
+        }
+
+        long expiresIn = body.get("expires_in") != null ? Long.parseLong(body.get("expires_in").toString()) : defaultExpiresInSeconds;
+        String issuedRefreshToken = body.get("refresh_token") != null ? body.get("refresh_token").toString() : refreshToken;
+
+        System.out.println("Acquired OAuth2 token for environment " + credentials.getEnvironmentName() +
+                " (" + form.getFirst("grant_type") + ", expires in " + expiresIn + "s)");
+        return new CachedToken(body.get("access_token").toString(), issuedRefreshToken,
+                Instant.now().plusSeconds(expiresIn), fingerprint);
+    }
+
+    private static void addIfPresent(MultiValueMap<String, String> form, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            form.add(name, value);
+        }
+    }
+
+    private static String fingerprint(RunCredentials credentials) {
+        // Any change to the OAuth2 settings of the environment invalidates its cached token
+        return String.valueOf(Objects.hash(
+            credentials.getVariable(GRANT_TYPE),
+            credentials.getVariable(TOKEN_URL),
+            credentials.getVariable(CLIENT_ID),
+            credentials.getVariable(CLIENT_SECRET),
+            credentials.getVariable(SCOPE),
+            credentials.getVariable(REFRESH_TOKEN)
+        ));
+    }
+
+    private static class CachedToken {
+        final String accessToken;
+        final String refreshToken;
+        final Instant expiresAt;
+        final String fingerprint;
+
+        CachedToken(String accessToken, String refreshToken, Instant expiresAt, String fingerprint) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresAt = expiresAt;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
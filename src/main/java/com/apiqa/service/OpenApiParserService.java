@@ -25,60 +25,124 @@ import io.swagger.models.parameters.QueryParameter;
 import io.swagger.models.parameters.HeaderParameter;
 import io.swagger.models.parameters.FormParameter;
 import io.swagger.models.properties.Property;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OpenApiParserService {
     
     @Autowired
-    private EnvironmentVariableRepository environmentVariableRepository;
+    private EnvironmentLookupService environmentLookupService;
+    
+    @Autowired
+    private SpecDiffService specDiffService;
     
     private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
     private final ObjectMapper jsonMapper = new ObjectMapper();
     
+    // Specs with fewer paths than this are generated on the calling thread; forking would cost more than it saves
+    private static final int PARALLEL_PATH_THRESHOLD = 32;
+    
+    @Value("${apiqa.generation.parallelism:0}")
+    private int generationParallelism;
+    
+    private ForkJoinPool generationPool;
+    
+    @Value("${apiqa.generation.parsed-spec-cache-size:16}")
+    private int parsedSpecCacheSize;
+    
+    // Parsed models by SHA-256 of the raw content, least recently used first
+    private final Map<String, ParsedSpec> parsedSpecCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ParsedSpec> eldest) {
+            return size() > parsedSpecCacheSize;
+        }
+    };
+    
+    // Streamed specs run one generator thread per suite; they block on their batch queues, so they stay off the pool
+    private final ExecutorService streamingExecutor = Executors.newCachedThreadPool();
+    
+    private static final int STREAM_QUEUE_CAPACITY = 1;
+    
+    private static final Map<String, ?> END_OF_BATCHES = new HashMap<>();
+    
+    @PostConstruct
+    public void initGenerationPool() {
+        int parallelism = generationParallelism > 0 ? generationParallelism : Runtime.getRuntime().availableProcessors();
+        generationPool = new ForkJoinPool(parallelism);
+    }
+    
+    @PreDestroy
+    public void shutdownGenerationPool() {
+        generationPool.shutdown();
+        streamingExecutor.shutdown();
+    }
+    
     public List<FeatureFile> parseOpenApiSpec(String openApiYaml, ApiSpec apiSpec) {
         try {
-            // Clean and normalize the YAML content
-            String cleanedYaml = cleanYamlContent(openApiYaml);
-            
-            // Detect specification version
-            String specVersion = detectSpecVersion(cleanedYaml);
+            ParsedSpec parsedSpec = getParsedSpec(openApiYaml);
+            String specVersion = parsedSpec.getSpecVersion();
             
             List<FeatureFile> featureFiles = new ArrayList<>();
+            String context;
+            
+            // Resolve the token once up front so generator threads only read the cached value
+            environmentLookupService.getDefaultToken();
             
             if ("swagger".equals(specVersion)) {
-                // Parse Swagger 2.0 specification
-                Swagger swagger = parseSwagger2Spec(cleanedYaml);
-                if (swagger == null) {
-                    throw new RuntimeException("Failed to parse Swagger 2.0 specification");
-                }
+                Swagger swagger = parsedSpec.getSwagger();
+                PathSource<Path> paths = inMemory(swagger.getPaths());
+                context = generationContext(getBaseUrlSwagger2(swagger));
                 
                 // Generate feature files for Swagger 2.0
-                featureFiles.add(generateSmokeTestsSwagger2(swagger, apiSpec));
-                featureFiles.add(generateSystemTestsSwagger2(swagger, apiSpec));
-                featureFiles.add(generateNegativeTestsSwagger2(swagger, apiSpec));
-                featureFiles.add(generateIntegrationTestsSwagger2(swagger, apiSpec));
+                featureFiles.addAll(generateInParallel(
+                    () -> generateSmokeTestsSwagger2(swagger, paths, apiSpec),
+                    () -> generateSystemTestsSwagger2(swagger, paths, apiSpec),
+                    () -> generateNegativeTestsSwagger2(swagger, paths, apiSpec),
+                    () -> generateIntegrationTestsSwagger2(swagger, paths, apiSpec)
+                ));
                 
             } else if ("openapi".equals(specVersion)) {
-                // Parse OpenAPI 3.0.0 specification
-                OpenAPI openAPI = parseOpenApi3Spec(cleanedYaml);
-                if (openAPI == null) {
-                    throw new RuntimeException("Failed to parse OpenAPI 3.0.0 specification");
-                }
+                OpenAPI openAPI = parsedSpec.getOpenApi();
+                PathSource<PathItem> paths = inMemory(openAPI.getPaths());
+                SchemaExamples examples = schemaExamples(openAPI);
+                context = generationContext(getBaseUrl(openAPI));
                 
                 // Generate feature files for OpenAPI 3.0.0
-                featureFiles.add(generateSmokeTests(openAPI, apiSpec));
-                featureFiles.add(generateSystemTests(openAPI, apiSpec));
-                featureFiles.add(generateNegativeTests(openAPI, apiSpec));
-            featureFiles.add(generateIntegrationTests(openAPI, apiSpec));
+                featureFiles.addAll(generateInParallel(
+                    () -> generateSmokeTests(openAPI, paths, apiSpec),
+                    () -> generateSystemTests(openAPI, paths, examples, apiSpec),
+                    () -> generateNegativeTests(openAPI, paths, examples, apiSpec),
+                    () -> generateIntegrationTests(openAPI, paths, examples, apiSpec)
+                ));
                 
             } else {
                 throw new RuntimeException("Unsupported API specification version: " + specVersion);
             }
             
+            specDiffService.assignOperationHashes(parsedSpec, context, featureFiles);
             return featureFiles;
             
         } catch (Exception e) {
@@ -86,37 +150,368 @@ public class OpenApiParserService {
         }
     }
     
-    private String cleanYamlContent(String yamlContent) {
+    /**
+     * Generates feature files from a spec whose paths are streamed in batches instead of parsed as a whole.
+     * The spec is read once; every batch is handed to all suite generators and then dropped, so only
+     * a few batches are in memory at any time. Scenarios come back stamped with their operation hashes.
+     * @param spec The streaming spec
+     * @param apiSpec The API spec the feature files belong to
+     * @return The generated feature files
+     */
+    public List<FeatureFile> parseStreamingSpec(StreamingSpecReader.StreamingSpec spec, ApiSpec apiSpec) {
         try {
-            // Remove or replace common problematic patterns
-            String cleaned = yamlContent;
+            // Resolve the token once up front so generator threads only read the cached value
+            environmentLookupService.getDefaultToken();
             
-            // Handle environment variables and placeholders
-            cleaned = cleaned.replaceAll("\\$\\{[^}]+\\}", "PLACEHOLDER_VALUE");
-            cleaned = cleaned.replaceAll("\\$[A-Z_]+", "PLACEHOLDER_VALUE");
+            // Batches are hashed on the reading thread while the generators work on them
+            Map<String, String> operationHashes = new HashMap<>();
+            List<FeatureFile> featureFiles;
+            String context;
             
-            // Handle special characters that might cause parsing issues
-            cleaned = cleaned.replaceAll("\\$\\$", "DOLLAR_SIGN");
-            cleaned = cleaned.replaceAll("\\@\\@", "AT_SIGN");
-            
-            // Remove comments that might contain special characters
-            cleaned = cleaned.replaceAll("#.*$", "");
-            
-            // Handle multiline strings with special characters
-            cleaned = cleaned.replaceAll("\\|\\s*$", "|");
-            cleaned = cleaned.replaceAll(">\\s*$", ">");
-            
-            // Normalize line endings
-            cleaned = cleaned.replaceAll("\\r\\n", "\n").replaceAll("\\r", "\n");
-            
-            return cleaned;
+            if ("swagger".equals(spec.getSpecVersion())) {
+                Swagger swagger = spec.getSwaggerSkeleton();
+                context = generationContext(getBaseUrlSwagger2(swagger));
+                PathSource<Path> batches = consumer -> spec.forEachSwaggerBatch(batch -> {
+                    operationHashes.putAll(specDiffService.computeOperationHashes(batch));
+                    inMemory(batch.getPaths()).forEachBatch(consumer);
+                });
+                
+                featureFiles = generateFromBatches(batches,
+                    paths -> generateSmokeTestsSwagger2(swagger, paths, apiSpec),
+                    paths -> generateSystemTestsSwagger2(swagger, paths, apiSpec),
+                    paths -> generateNegativeTestsSwagger2(swagger, paths, apiSpec),
+                    paths -> generateIntegrationTestsSwagger2(swagger, paths, apiSpec)
+                );
+            } else {
+                OpenAPI openAPI = spec.getOpenApiSkeleton();
+                SchemaExamples examples = schemaExamples(openAPI);
+                context = generationContext(getBaseUrl(openAPI));
+                PathSource<PathItem> batches = consumer -> spec.forEachOpenApiBatch(batch -> {
+                    operationHashes.putAll(specDiffService.computeOperationHashes(batch));
+                    // Each batch only carries the components it references, so collect them as they arrive
+                    examples.addComponentSchemas(batch.getComponents() != null ? batch.getComponents().getSchemas() : null);
+                    inMemory(batch.getPaths()).forEachBatch(consumer);
+                });
+                
+                featureFiles = generateFromBatches(batches,
+                    paths -> generateSmokeTests(openAPI, paths, apiSpec),
+                    paths -> generateSystemTests(openAPI, paths, examples, apiSpec),
+                    paths -> generateNegativeTests(openAPI, paths, examples, apiSpec),
+                    paths -> generateIntegrationTests(openAPI, paths, examples, apiSpec)
+                );
+            }
             
+            specDiffService.assignOperationHashes(operationHashes, context, featureFiles);
+            return featureFiles;
         } catch (Exception e) {
-            // If cleaning fails, return original content
-            return yamlContent;
+            throw new RuntimeException("Failed to parse API specification: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Reads a path source once and feeds every batch to all suite generators.
+     * Each generator runs on its own thread behind a one-batch queue, so the reader is never more
+     * than one batch ahead of the slowest generator.
+     * @param source The streamed paths
+     * @param generators The suite generators, each consuming its own view of the batches
+     * @return The generated feature files in argument order
+     */
+    @SafeVarargs
+    private <P> List<FeatureFile> generateFromBatches(PathSource<P> source, Function<PathSource<P>, FeatureFile>... generators) {
+        List<BlockingQueue<Map<String, P>>> queues = new ArrayList<>();
+        List<Future<FeatureFile>> results = new ArrayList<>();
+        for (Function<PathSource<P>, FeatureFile> generator : generators) {
+            BlockingQueue<Map<String, P>> queue = new ArrayBlockingQueue<>(STREAM_QUEUE_CAPACITY);
+            queues.add(queue);
+            results.add(streamingExecutor.submit(() -> generator.apply(consumer -> {
+                for (Map<String, P> batch = take(queue); batch != END_OF_BATCHES; batch = take(queue)) {
+                    consumer.accept(batch);
+                }
+            })));
+        }
+        
+        try {
+            source.forEachBatch(batch -> offerAll(queues, results, batch));
+        } finally {
+            offerAll(queues, results, endOfBatches());
+        }
+        
+        List<FeatureFile> featureFiles = new ArrayList<>();
+        for (Future<FeatureFile> result : results) {
+            try {
+                featureFiles.add(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while generating feature files", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return featureFiles;
+    }
+    
+    private static <P> void offerAll(List<BlockingQueue<Map<String, P>>> queues, List<Future<FeatureFile>> results, Map<String, P> batch) {
+        try {
+            for (int i = 0; i < queues.size(); i++) {
+                // A generator that already failed stops draining its queue; skip it instead of waiting forever
+                while (!results.get(i).isDone() && !queues.get(i).offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    // Wait for the generator to catch up
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while streaming API specification", e);
+        }
+    }
+    
+    private static <P> Map<String, P> take(BlockingQueue<Map<String, P>> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while streaming API specification", e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <P> Map<String, P> endOfBatches() {
+        return (Map<String, P>) END_OF_BATCHES;
+    }
+    
+    /**
+     * Returns the parsed model of a specification, parsing it only if the same content
+     * has not been parsed recently. The result must be treated as read-only since it is
+     * shared by every caller that submits identical content.
+     * @param openApiYaml The raw specification content
+     * @return The parsed specification
+     */
+    public ParsedSpec getParsedSpec(String openApiYaml) {
+        String contentHash = hashContent(openApiYaml);
+        
+        synchronized (parsedSpecCache) {
+            ParsedSpec cached = parsedSpecCache.get(contentHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        // Parse outside the lock so large specs do not block lookups of other content
+        ParsedSpec parsedSpec = parseSpec(openApiYaml, contentHash);
+        synchronized (parsedSpecCache) {
+            parsedSpecCache.put(contentHash, parsedSpec);
+        }
+        return parsedSpec;
+    }
+    
+    /**
+     * Extracts info.version from a specification using the shared parse cache
+     * @param openApiYaml The raw specification content
+     * @return The API version, or 1.0.0 if the spec declares none
+     */
+    public String extractVersion(String openApiYaml) {
+        try {
+            String version = getParsedSpec(openApiYaml).getApiVersion();
+            return version != null ? version : "1.0.0";
+        } catch (Exception e) {
+            System.err.println("Failed to extract version from YAML: " + e.getMessage());
+            return "1.0.0";
+        }
+    }
+    
+    private ParsedSpec parseSpec(String openApiYaml, String contentHash) {
+        // Clean and normalize the YAML content
+        String cleanedYaml = YamlNormalizer.normalize(openApiYaml);
+        
+        // Detect specification version
+        String specVersion = detectSpecVersion(cleanedYaml);
+        
+        if ("swagger".equals(specVersion)) {
+            // Parse Swagger 2.0 specification
+            Swagger swagger = parseSwagger2Spec(cleanedYaml);
+            if (swagger == null) {
+                throw new RuntimeException("Failed to parse Swagger 2.0 specification");
+            }
+            String apiVersion = swagger.getInfo() != null ? swagger.getInfo().getVersion() : null;
+            return new ParsedSpec(contentHash, specVersion, null, swagger, apiVersion);
+            
+        } else if ("openapi".equals(specVersion)) {
+            // Parse OpenAPI 3.0.0 specification
+            OpenAPI openAPI = parseOpenApi3Spec(cleanedYaml);
+            if (openAPI == null) {
+                throw new RuntimeException("Failed to parse OpenAPI 3.0.0 specification");
+            }
+            String apiVersion = openAPI.getInfo() != null ? openAPI.getInfo().getVersion() : null;
+            return new ParsedSpec(contentHash, specVersion, openAPI, null, apiVersion);
+        }
+        
+        throw new RuntimeException("Unsupported API specification version: " + specVersion);
+    }
+    
+    private static String hashContent(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * A parsed specification together with the values derived from it
+     */
+    public static class ParsedSpec {
+        private final String contentHash;
+        private final String specVersion;
+        private final OpenAPI openApi;
+        private final Swagger swagger;
+        private final String apiVersion;
+        private volatile Map<String, String> operationHashes;
+        
+        ParsedSpec(String contentHash, String specVersion, OpenAPI openApi, Swagger swagger, String apiVersion) {
+            this.contentHash = contentHash;
+            this.specVersion = specVersion;
+            this.openApi = openApi;
+            this.swagger = swagger;
+            this.apiVersion = apiVersion;
+        }
+        
+        public String getContentHash() {
+            return contentHash;
+        }
+        
+        public String getSpecVersion() {
+            return specVersion;
+        }
+        
+        public OpenAPI getOpenApi() {
+            return openApi;
+        }
+        
+        public Swagger getSwagger() {
+            return swagger;
+        }
+        
+        public String getApiVersion() {
+            return apiVersion;
+        }
+        
+        Map<String, String> getOperationHashes() {
+            return operationHashes;
+        }
+        
+        void setOperationHashes(Map<String, String> operationHashes) {
+            this.operationHashes = operationHashes;
+        }
+    }
+    
+    /**
+     * Runs the suite generators concurrently on the generation pool.
+     * Results are joined in argument order, so the feature file order never changes.
+     * @param generators The suite generators
+     * @return The generated feature files in argument order
+     */
+    @SafeVarargs
+    private List<FeatureFile> generateInParallel(Supplier<FeatureFile>... generators) {
+        List<ForkJoinTask<FeatureFile>> tasks = new ArrayList<>();
+        for (Supplier<FeatureFile> generator : generators) {
+            tasks.add(generationPool.submit(generator::get));
+        }
+        
+        List<FeatureFile> featureFiles = new ArrayList<>();
+        for (ForkJoinTask<FeatureFile> task : tasks) {
+            featureFiles.add(task.join());
+        }
+        return featureFiles;
+    }
+    
+    /**
+     * Runs a generator for every path of a spec and appends the results in path order.
+     * Each path writes to its own buffer and large specs are split across the generation pool,
+     * so the output is identical to a sequential run.
+     * Every scenario is tagged with the operation it was generated from.
+     * @param paths The paths of the spec, in document order
+     * @param content The feature file content to append to
+     * @param scenarios The scenarios to append to
+     * @param generator The per-path generator
+     */
+    private <P> void generatePerPath(Map<String, P> paths, StringBuilder content, List<TestScenario> scenarios, PathGenerator<P> generator) {
+        List<Map.Entry<String, P>> entries = new ArrayList<>(paths.entrySet());
+        
+        // Parallel streams run in the pool of the submitting task, so fork explicitly into the generation pool
+        List<PathFragment> fragments = entries.size() >= PARALLEL_PATH_THRESHOLD
+                ? generationPool.submit(() -> generateFragments(entries.parallelStream(), generator)).join()
+                : generateFragments(entries.stream(), generator);
+        
+        for (PathFragment fragment : fragments) {
+            content.append(fragment.content);
+            scenarios.addAll(fragment.scenarios);
+        }
+    }
+    
+    private static <P> List<PathFragment> generateFragments(Stream<Map.Entry<String, P>> entries, PathGenerator<P> generator) {
+        return entries.map(entry -> {
+            PathFragment fragment = new PathFragment();
+            generator.generate(entry.getKey(), entry.getValue(), fragment.content, fragment.scenarios);
+            for (TestScenario scenario : fragment.scenarios) {
+                scenario.setOperationKey(SpecDiffService.operationKey(scenario.getHttpMethod(), entry.getKey()));
+            }
+            return fragment;
+        }).collect(Collectors.toList());
+    }
+    
+    /**
+     * Runs a generator for every path of a path source, batch by batch
+     * @param paths The paths of the spec
+     * @param content The feature file content to append to
+     * @param scenarios The scenarios to append to
+     * @param generator The per-path generator
+     */
+    private <P> void generatePerPath(PathSource<P> paths, StringBuilder content, List<TestScenario> scenarios, PathGenerator<P> generator) {
+        paths.forEachBatch(batch -> generatePerPath(batch, content, scenarios, generator));
+    }
+    
+    /**
+     * Creates the example payload builder for one generation pass over an OpenAPI 3 spec
+     * @param openAPI The spec whose component schemas resolve $refs
+     * @return The example builder
+     */
+    private SchemaExamples schemaExamples(OpenAPI openAPI) {
+        SchemaExamples examples = new SchemaExamples(jsonMapper);
+        if (openAPI.getComponents() != null) {
+            examples.addComponentSchemas(openAPI.getComponents().getSchemas());
+        }
+        return examples;
+    }
+    
+    private static <P> PathSource<P> inMemory(Map<String, P> paths) {
+        return consumer -> {
+            if (paths != null) {
+                consumer.accept(paths);
+            }
+        };
+    }
+    
+    /**
+     * Supplies the paths of a spec in document order, either all at once or in streamed batches
+     */
+    @FunctionalInterface
+    private interface PathSource<P> {
+        void forEachBatch(Consumer<Map<String, P>> consumer);
+    }
+    
+    @FunctionalInterface
+    private interface PathGenerator<P> {
+        void generate(String path, P pathItem, StringBuilder content, List<TestScenario> scenarios);
+    }
+    
+    /**
+     * Generated content and scenarios of a single path
+     */
+    private static class PathFragment {
+        final StringBuilder content = new StringBuilder();
+        final List<TestScenario> scenarios = new ArrayList<>();
+    }
+    
     private String replacePathVariables(String path) {
         if (path == null) {
             return path;
@@ -426,8 +821,8 @@ public class OpenApiParserService {
      */
     private boolean hasTokenEnvironmentVariable() {
         try {
-            List<EnvironmentVariable> tokenVariables = environmentVariableRepository.findByKeyIgnoreCase("token");
-            return !tokenVariables.isEmpty() && tokenVariables.get(0).getValue() != null && !tokenVariables.get(0).getValue().trim().isEmpty();
+            String token = environmentLookupService.getDefaultToken();
+            return token != null && !token.trim().isEmpty();
         } catch (Exception e) {
             System.err.println("Error checking for token environment variable: " + e.getMessage());
             return false;
@@ -440,16 +835,22 @@ public class OpenApiParserService {
      */
     private String getTokenValue() {
         try {
-            List<EnvironmentVariable> tokenVariables = environmentVariableRepository.findByKeyIgnoreCase("token");
-            if (!tokenVariables.isEmpty()) {
-                return tokenVariables.get(0).getValue();
-            }
+            return environmentLookupService.getDefaultToken();
         } catch (Exception e) {
             System.err.println("Error retrieving token value: " + e.getMessage());
         }
         return null;
     }
     
+    /**
+     * Describes the generator inputs that end up in every scenario besides the operation itself
+     * @param baseUrl The resolved base URL of the spec
+     * @return The context to fold into the operation hashes
+     */
+    private String generationContext(String baseUrl) {
+        return "baseUrl=" + baseUrl + "\nauthorization=" + hasTokenEnvironmentVariable();
+    }
+    
     /**
      * Adds Authorization header step to feature file content if token exists
      * @param content The StringBuilder containing the feature file content
@@ -587,7 +988,7 @@ public class OpenApiParserService {
         return "https://api.example.com"; // Default fallback
     }
     
-    private FeatureFile generateSmokeTests(OpenAPI openAPI, ApiSpec apiSpec) {
+    private FeatureFile generateSmokeTests(OpenAPI openAPI, PathSource<PathItem> paths, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         content.append("Feature: Smoke Tests - Read-only Operations (Positive Scenarios)\n");
         content.append("  As a QA Engineer\n");
@@ -600,41 +1001,36 @@ public class OpenApiParserService {
         List<TestScenario> scenarios = new ArrayList<>();
         String baseUrl = getBaseUrl(openAPI);
         
-        if (openAPI.getPaths() != null) {
-            for (Map.Entry<String, PathItem> pathEntry : openAPI.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                PathItem pathItem = pathEntry.getValue();
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            // Only GET operations for smoke tests
+            if (pathItem.getGet() != null) {
+                Operation getOp = pathItem.getGet();
                 
-                // Only GET operations for smoke tests
-                if (pathItem.getGet() != null) {
-                    Operation getOp = pathItem.getGet();
-                    
-                    // Positive scenario - Valid GET request
-                    String positiveScenarioName = generateScenarioName("GET", path, getOp.getOperationId()) + "_Valid_Request";
-                    String description = "Valid GET request to " + path;
-                    String substitutedPath = substitutePathParameters(path, getOp);
-                    String fullUrl = baseUrl + substitutedPath;
-                    
-                    content.append("  Scenario: ").append(positiveScenarioName).append("\n");
-                    content.append("    Given the API is available\n");
-                    content.append("    And I have valid authentication credentials\n");
-                    content.append("    When I send a GET request to \"").append(substitutedPath).append("\"\n");
-                    addAuthorizationHeaderStep(content);
-                    content.append("    And I include valid headers\n");
-                    content.append("    Then the response status should be 200\n");
-                    content.append("    And the response should be valid JSON\n");
-                    content.append("    And the response should match the expected schema\n");
-                    content.append("    And the response should contain mandatory fields\n");
-                    content.append("    And the response headers should be valid\n");
-                    content.append("    And the response time should be less than 5 seconds\n\n");
-                    
-                    TestScenario positiveScenario = createTestScenario(positiveScenarioName, description, "GET", fullUrl, 
-                            null, getExpectedResponseSchema(getOp), getExpectedHeaders(getOp), 200, 
-                            generatePositiveTestSteps("GET", substitutedPath, null), featureFile);
-                    scenarios.add(positiveScenario);
-                }
+                // Positive scenario - Valid GET request
+                String positiveScenarioName = generateScenarioName("GET", path, getOp.getOperationId()) + "_Valid_Request";
+                String description = "Valid GET request to " + path;
+                String substitutedPath = substitutePathParameters(path, getOp);
+                String fullUrl = baseUrl + substitutedPath;
+                
+                pathContent.append("  Scenario: ").append(positiveScenarioName).append("\n");
+                pathContent.append("    Given the API is available\n");
+                pathContent.append("    And I have valid authentication credentials\n");
+                pathContent.append("    When I send a GET request to \"").append(substitutedPath).append("\"\n");
+                addAuthorizationHeaderStep(pathContent);
+                pathContent.append("    And I include valid headers\n");
+                pathContent.append("    Then the response status should be 200\n");
+                pathContent.append("    And the response should be valid JSON\n");
+                pathContent.append("    And the response should match the expected schema\n");
+                pathContent.append("    And the response should contain mandatory fields\n");
+                pathContent.append("    And the response headers should be valid\n");
+                pathContent.append("    And the response time should be less than 5 seconds\n\n");
+                
+                TestScenario positiveScenario = createTestScenario(positiveScenarioName, description, "GET", fullUrl, 
+                        null, getExpectedResponseSchema(getOp), getExpectedHeaders(getOp), 200, 
+                        generatePositiveTestSteps("GET", substitutedPath, null), featureFile);
+                pathScenarios.add(positiveScenario);
             }
-        }
+        });
         
         // Update the content with all scenarios
         featureFile.setContent(content.toString());
@@ -643,7 +1039,7 @@ public class OpenApiParserService {
         return featureFile;
     }
     
-    private FeatureFile generateSystemTests(OpenAPI openAPI, ApiSpec apiSpec) {
+    private FeatureFile generateSystemTests(OpenAPI openAPI, PathSource<PathItem> paths, SchemaExamples examples, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         content.append("Feature: System Tests - All CRUD Operations (Positive Scenarios)\n");
         content.append("  As a QA Engineer\n");
@@ -656,49 +1052,44 @@ public class OpenApiParserService {
         List<TestScenario> scenarios = new ArrayList<>();
         String baseUrl = getBaseUrl(openAPI);
         
-        if (openAPI.getPaths() != null) {
-            for (Map.Entry<String, PathItem> pathEntry : openAPI.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                PathItem pathItem = pathEntry.getValue();
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            // Test all HTTP methods
+            for (Map.Entry<String, Operation> methodEntry : getOperations(pathItem).entrySet()) {
+                String method = methodEntry.getKey();
+                Operation operation = methodEntry.getValue();
                 
-                // Test all HTTP methods
-                for (Map.Entry<String, Operation> methodEntry : getOperations(pathItem).entrySet()) {
-                    String method = methodEntry.getKey();
-                    Operation operation = methodEntry.getValue();
-                    
-                    // Positive scenario for each operation
-                    String positiveScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Valid_Request";
-                    String description = "Valid " + method + " request to " + path;
-                    String substitutedPath = substitutePathParameters(path, operation);
-                    String fullUrl = baseUrl + substitutedPath;
-                    String requestBody = getRequestBody(operation);
-                    
-                    content.append("  Scenario: ").append(positiveScenarioName).append("\n");
-                    content.append("    Given the API is available\n");
-                    content.append("    And I have valid authentication credentials\n");
-                    content.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
-                    
-                    if (hasRequestBody(operation)) {
-                        content.append("    And I include a valid request body\n");
-                    }
-                    
-                    addAuthorizationHeaderStep(content);
-                    content.append("    And I include valid headers\n");
-                    content.append("    Then the response status should be ").append(getExpectedStatusCode(operation)).append("\n");
-                    content.append("    And the response should be valid JSON\n");
-                    content.append("    And the response should match the expected schema\n");
-                    content.append("    And the response should contain mandatory fields\n");
-                    content.append("    And the response headers should be valid\n");
-                    content.append("    And the response time should be less than 10 seconds\n\n");
-                    
-                    TestScenario positiveScenario = createTestScenario(positiveScenarioName, description, method, fullUrl,
-                            requestBody, getExpectedResponseSchema(operation), 
-                            getExpectedHeaders(operation), getExpectedStatusCode(operation),
-                            generatePositiveTestSteps(method, substitutedPath, requestBody), featureFile);
-                    scenarios.add(positiveScenario);
+                // Positive scenario for each operation
+                String positiveScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Valid_Request";
+                String description = "Valid " + method + " request to " + path;
+                String substitutedPath = substitutePathParameters(path, operation);
+                String fullUrl = baseUrl + substitutedPath;
+                String requestBody = getRequestBody(operation, examples);
+                
+                pathContent.append("  Scenario: ").append(positiveScenarioName).append("\n");
+                pathContent.append("    Given the API is available\n");
+                pathContent.append("    And I have valid authentication credentials\n");
+                pathContent.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
+                
+                if (hasRequestBody(operation)) {
+                    pathContent.append("    And I include a valid request body\n");
                 }
+                
+                addAuthorizationHeaderStep(pathContent);
+                pathContent.append("    And I include valid headers\n");
+                pathContent.append("    Then the response status should be ").append(getExpectedStatusCode(operation)).append("\n");
+                pathContent.append("    And the response should be valid JSON\n");
+                pathContent.append("    And the response should match the expected schema\n");
+                pathContent.append("    And the response should contain mandatory fields\n");
+                pathContent.append("    And the response headers should be valid\n");
+                pathContent.append("    And the response time should be less than 10 seconds\n\n");
+                
+                TestScenario positiveScenario = createTestScenario(positiveScenarioName, description, method, fullUrl,
+                        requestBody, getExpectedResponseSchema(operation), 
+                        getExpectedHeaders(operation), getExpectedStatusCode(operation),
+                        generatePositiveTestSteps(method, substitutedPath, requestBody), featureFile);
+                pathScenarios.add(positiveScenario);
             }
-        }
+        });
         
         // Update the content with all scenarios
         featureFile.setContent(content.toString());
@@ -707,7 +1098,7 @@ public class OpenApiParserService {
         return featureFile;
     }
     
-    private FeatureFile generateNegativeTests(OpenAPI openAPI, ApiSpec apiSpec) {
+    private FeatureFile generateNegativeTests(OpenAPI openAPI, PathSource<PathItem> paths, SchemaExamples examples, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         content.append("Feature: Negative Tests - Invalid Requests and Error Handling\n");
         content.append("  As a QA Engineer\n");
@@ -720,115 +1111,110 @@ public class OpenApiParserService {
         List<TestScenario> scenarios = new ArrayList<>();
         String baseUrl = getBaseUrl(openAPI);
         
-        if (openAPI.getPaths() != null) {
-            for (Map.Entry<String, PathItem> pathEntry : openAPI.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                PathItem pathItem = pathEntry.getValue();
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            // Test all HTTP methods for negative scenarios
+            for (Map.Entry<String, Operation> methodEntry : getOperations(pathItem).entrySet()) {
+                String method = methodEntry.getKey();
+                Operation operation = methodEntry.getValue();
                 
-                // Test all HTTP methods for negative scenarios
-                for (Map.Entry<String, Operation> methodEntry : getOperations(pathItem).entrySet()) {
-                    String method = methodEntry.getKey();
-                    Operation operation = methodEntry.getValue();
+                // Invalid ID scenario
+                if (path.contains("{")) {
+                    String invalidIdScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Invalid_ID";
+                    String description = "Invalid ID in " + method + " request to " + path;
+                    String invalidPath = substitutePathParametersWithInvalidValues(path, operation);
+                    String fullUrl = baseUrl + invalidPath;
                     
-                    // Invalid ID scenario
-                    if (path.contains("{")) {
-                        String invalidIdScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Invalid_ID";
-                        String description = "Invalid ID in " + method + " request to " + path;
-                        String invalidPath = substitutePathParametersWithInvalidValues(path, operation);
-                        String fullUrl = baseUrl + invalidPath;
-                        
-                        content.append("  Scenario: ").append(invalidIdScenarioName).append("\n");
-                        content.append("    Given the API is available\n");
-                        content.append("    And I have valid authentication credentials\n");
-                        content.append("    When I send a ").append(method).append(" request to \"").append(invalidPath).append("\"\n");
-                        addAuthorizationHeaderStep(content);
-                        content.append("    And I include valid headers\n");
-                        content.append("    Then the response status should be 404\n");
-                        content.append("    And the response should contain an error message\n");
-                        content.append("    And the response should be valid JSON\n");
-                        content.append("    And the response time should be less than 5 seconds\n\n");
-                        
-                        TestScenario invalidIdScenario = createTestScenario(invalidIdScenarioName, description, method, fullUrl,
-                                null, getErrorResponseSchema(), getExpectedHeaders(operation), 404,
-                                generateNegativeTestSteps(method, invalidPath, "Invalid ID"), featureFile);
-                        scenarios.add(invalidIdScenario);
-                    }
+                    pathContent.append("  Scenario: ").append(invalidIdScenarioName).append("\n");
+                    pathContent.append("    Given the API is available\n");
+                    pathContent.append("    And I have valid authentication credentials\n");
+                    pathContent.append("    When I send a ").append(method).append(" request to \"").append(invalidPath).append("\"\n");
+                    addAuthorizationHeaderStep(pathContent);
+                    pathContent.append("    And I include valid headers\n");
+                    pathContent.append("    Then the response status should be 404\n");
+                    pathContent.append("    And the response should contain an error message\n");
+                    pathContent.append("    And the response should be valid JSON\n");
+                    pathContent.append("    And the response time should be less than 5 seconds\n\n");
                     
-                    // Invalid request body scenario (for POST/PUT/PATCH)
-                    if (hasRequestBody(operation)) {
-                        String invalidBodyScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Invalid_Body";
-                        String description = "Invalid request body in " + method + " request to " + path;
-                        String substitutedPath = substitutePathParameters(path, operation);
-                        String fullUrl = baseUrl + substitutedPath;
-                        String invalidRequestBody = generateInvalidRequestBody(operation);
-                        
-                        content.append("  Scenario: ").append(invalidBodyScenarioName).append("\n");
-                        content.append("    Given the API is available\n");
-                        content.append("    And I have valid authentication credentials\n");
-                        content.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
-                        content.append("    And I include an invalid request body\n");
-                        addAuthorizationHeaderStep(content);
-                        content.append("    And I include valid headers\n");
-                        content.append("    Then the response status should be 400\n");
-                        content.append("    And the response should contain validation error messages\n");
-                        content.append("    And the response should be valid JSON\n");
-                        content.append("    And the response time should be less than 5 seconds\n\n");
-                        
-                        TestScenario invalidBodyScenario = createTestScenario(invalidBodyScenarioName, description, method, fullUrl,
-                                invalidRequestBody, getErrorResponseSchema(), getExpectedHeaders(operation), 400,
-                                generateNegativeTestSteps(method, substitutedPath, "Invalid Body"), featureFile);
-                        scenarios.add(invalidBodyScenario);
-                    }
+                    TestScenario invalidIdScenario = createTestScenario(invalidIdScenarioName, description, method, fullUrl,
+                            null, getErrorResponseSchema(), getExpectedHeaders(operation), 404,
+                            generateNegativeTestSteps(method, invalidPath, "Invalid ID"), featureFile);
+                    pathScenarios.add(invalidIdScenario);
+                }
+                
+                // Invalid request body scenario (for POST/PUT/PATCH)
+                if (hasRequestBody(operation)) {
+                    String invalidBodyScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Invalid_Body";
+                    String description = "Invalid request body in " + method + " request to " + path;
+                    String substitutedPath = substitutePathParameters(path, operation);
+                    String fullUrl = baseUrl + substitutedPath;
+                    String invalidRequestBody = generateInvalidRequestBody(operation, examples);
                     
-                    // Missing required fields scenario (for POST/PUT/PATCH)
-                    if (hasRequestBody(operation)) {
-                        String missingFieldsScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Missing_Required_Fields";
-                        String description = "Missing required fields in " + method + " request to " + path;
-                        String substitutedPath = substitutePathParameters(path, operation);
-                        String fullUrl = baseUrl + substitutedPath;
-                        String incompleteRequestBody = generateIncompleteRequestBody(operation);
-                        
-                        content.append("  Scenario: ").append(missingFieldsScenarioName).append("\n");
-                        content.append("    Given the API is available\n");
-                        content.append("    And I have valid authentication credentials\n");
-                        content.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
-                        content.append("    And I include a request body with missing required fields\n");
-                        addAuthorizationHeaderStep(content);
-                        content.append("    And I include valid headers\n");
-                        content.append("    Then the response status should be 400\n");
-                        content.append("    And the response should contain field validation error messages\n");
-                        content.append("    And the response should be valid JSON\n");
-                        content.append("    And the response time should be less than 5 seconds\n\n");
-                        
-                        TestScenario missingFieldsScenario = createTestScenario(missingFieldsScenarioName, description, method, fullUrl,
-                                incompleteRequestBody, getErrorResponseSchema(), getExpectedHeaders(operation), 400,
-                                generateNegativeTestSteps(method, substitutedPath, "Missing Required Fields"), featureFile);
-                        scenarios.add(missingFieldsScenario);
-                    }
+                    pathContent.append("  Scenario: ").append(invalidBodyScenarioName).append("\n");
+                    pathContent.append("    Given the API is available\n");
+                    pathContent.append("    And I have valid authentication credentials\n");
+                    pathContent.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
+                    pathContent.append("    And I include an invalid request body\n");
+                    addAuthorizationHeaderStep(pathContent);
+                    pathContent.append("    And I include valid headers\n");
+                    pathContent.append("    Then the response status should be 400\n");
+                    pathContent.append("    And the response should contain validation error messages\n");
+                    pathContent.append("    And the response should be valid JSON\n");
+                    pathContent.append("    And the response time should be less than 5 seconds\n\n");
                     
-                    // Unauthorized access scenario
-                    String unauthorizedScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Unauthorized_Access";
-                    String description = "Unauthorized access to " + method + " request to " + path;
+                    TestScenario invalidBodyScenario = createTestScenario(invalidBodyScenarioName, description, method, fullUrl,
+                            invalidRequestBody, getErrorResponseSchema(), getExpectedHeaders(operation), 400,
+                            generateNegativeTestSteps(method, substitutedPath, "Invalid Body"), featureFile);
+                    pathScenarios.add(invalidBodyScenario);
+                }
+                
+                // Missing required fields scenario (for POST/PUT/PATCH)
+                if (hasRequestBody(operation)) {
+                    String missingFieldsScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Missing_Required_Fields";
+                    String description = "Missing required fields in " + method + " request to " + path;
                     String substitutedPath = substitutePathParameters(path, operation);
                     String fullUrl = baseUrl + substitutedPath;
+                    String incompleteRequestBody = generateIncompleteRequestBody(operation, examples);
                     
-                    content.append("  Scenario: ").append(unauthorizedScenarioName).append("\n");
-                    content.append("    Given the API is available\n");
-                    content.append("    And I do not have valid authentication credentials\n");
-                    content.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
-                    content.append("    And I include invalid or missing authentication headers\n");
-                    content.append("    Then the response status should be 401\n");
-                    content.append("    And the response should contain an authentication error message\n");
-                    content.append("    And the response should be valid JSON\n");
-                    content.append("    And the response time should be less than 5 seconds\n\n");
+                    pathContent.append("  Scenario: ").append(missingFieldsScenarioName).append("\n");
+                    pathContent.append("    Given the API is available\n");
+                    pathContent.append("    And I have valid authentication credentials\n");
+                    pathContent.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
+                    pathContent.append("    And I include a request body with missing required fields\n");
+                    addAuthorizationHeaderStep(pathContent);
+                    pathContent.append("    And I include valid headers\n");
+                    pathContent.append("    Then the response status should be 400\n");
+                    pathContent.append("    And the response should contain field validation error messages\n");
+                    pathContent.append("    And the response should be valid JSON\n");
+                    pathContent.append("    And the response time should be less than 5 seconds\n\n");
                     
-                    TestScenario unauthorizedScenario = createTestScenario(unauthorizedScenarioName, description, method, fullUrl,
-                            null, getErrorResponseSchema(), getExpectedHeaders(operation), 401,
-                            generateNegativeTestSteps(method, substitutedPath, "Unauthorized Access"), featureFile);
-                    scenarios.add(unauthorizedScenario);
+                    TestScenario missingFieldsScenario = createTestScenario(missingFieldsScenarioName, description, method, fullUrl,
+                            incompleteRequestBody, getErrorResponseSchema(), getExpectedHeaders(operation), 400,
+                            generateNegativeTestSteps(method, substitutedPath, "Missing Required Fields"), featureFile);
+                    pathScenarios.add(missingFieldsScenario);
                 }
+                
+                // Unauthorized access scenario
+                String unauthorizedScenarioName = generateScenarioName(method, path, operation.getOperationId()) + "_Unauthorized_Access";
+                String description = "Unauthorized access to " + method + " request to " + path;
+                String substitutedPath = substitutePathParameters(path, operation);
+                String fullUrl = baseUrl + substitutedPath;
+                
+                pathContent.append("  Scenario: ").append(unauthorizedScenarioName).append("\n");
+                pathContent.append("    Given the API is available\n");
+                pathContent.append("    And I do not have valid authentication credentials\n");
+                pathContent.append("    When I send a ").append(method).append(" request to \"").append(substitutedPath).append("\"\n");
+                pathContent.append("    And I include invalid or missing authentication headers\n");
+                pathContent.append("    Then the response status should be 401\n");
+                pathContent.append("    And the response should contain an authentication error message\n");
+                pathContent.append("    And the response should be valid JSON\n");
+                pathContent.append("    And the response time should be less than 5 seconds\n\n");
+                
+                TestScenario unauthorizedScenario = createTestScenario(unauthorizedScenarioName, description, method, fullUrl,
+                        null, getErrorResponseSchema(), getExpectedHeaders(operation), 401,
+                        generateNegativeTestSteps(method, substitutedPath, "Unauthorized Access"), featureFile);
+                pathScenarios.add(unauthorizedScenario);
             }
-        }
+        });
         
         // Update the content with all scenarios
         featureFile.setContent(content.toString());
@@ -837,7 +1223,7 @@ public class OpenApiParserService {
         return featureFile;
     }
     
-    private FeatureFile generateIntegrationTests(OpenAPI openAPI, ApiSpec apiSpec) {
+    private FeatureFile generateIntegrationTests(OpenAPI openAPI, PathSource<PathItem> paths, SchemaExamples examples, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         content.append("Feature: Integration Tests - CRUD Operations with Verification\n");
         content.append("  As a QA Engineer\n");
@@ -851,35 +1237,30 @@ public class OpenApiParserService {
         
         List<TestScenario> scenarios = new ArrayList<>();
         
-        if (openAPI.getPaths() != null) {
-            for (Map.Entry<String, PathItem> pathEntry : openAPI.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                PathItem pathItem = pathEntry.getValue();
-                
-                // Rule 1: POST endpoints - Create and verify
-                if (pathItem.getPost() != null) {
-                    generatePostIntegrationTests(content, scenarios, path, pathItem.getPost(), pathItem.getGet());
-                }
-                
-                // Rule 2: PUT/PATCH endpoints - Update and verify
-                if (pathItem.getPut() != null) {
-                    generatePutIntegrationTests(content, scenarios, path, pathItem.getPut(), pathItem.getGet());
-                }
-                if (pathItem.getPatch() != null) {
-                    generatePatchIntegrationTests(content, scenarios, path, pathItem.getPatch(), pathItem.getGet());
-                }
-                
-                // Rule 3: DELETE endpoints - Delete and verify
-                if (pathItem.getDelete() != null) {
-                    generateDeleteIntegrationTests(content, scenarios, path, pathItem.getDelete(), pathItem.getGet());
-                }
-                
-                // Rule 4: GET endpoints with filters
-                if (pathItem.getGet() != null) {
-                    generateGetFilterTests(content, scenarios, path, pathItem.getGet());
-                }
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            // Rule 1: POST endpoints - Create and verify
+            if (pathItem.getPost() != null) {
+                generatePostIntegrationTests(pathContent, pathScenarios, path, pathItem.getPost(), pathItem.getGet(), examples);
             }
-        }
+            
+            // Rule 2: PUT/PATCH endpoints - Update and verify
+            if (pathItem.getPut() != null) {
+                generatePutIntegrationTests(pathContent, pathScenarios, path, pathItem.getPut(), pathItem.getGet(), examples);
+            }
+            if (pathItem.getPatch() != null) {
+                generatePatchIntegrationTests(pathContent, pathScenarios, path, pathItem.getPatch(), pathItem.getGet(), examples);
+            }
+            
+            // Rule 3: DELETE endpoints - Delete and verify
+            if (pathItem.getDelete() != null) {
+                generateDeleteIntegrationTests(pathContent, pathScenarios, path, pathItem.getDelete(), pathItem.getGet());
+            }
+            
+            // Rule 4: GET endpoints with filters
+            if (pathItem.getGet() != null) {
+                generateGetFilterTests(pathContent, pathScenarios, path, pathItem.getGet());
+            }
+        });
         
         String fileName = apiSpec.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_integration_tests.feature";
         FeatureFile featureFile = new FeatureFile(fileName, TestSuiteType.INTEGRATION, content.toString(), apiSpec);
@@ -894,7 +1275,7 @@ public class OpenApiParserService {
         return featureFile;
     }
     
-    private void generatePostIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation postOp, Operation getOp) {
+    private void generatePostIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation postOp, Operation getOp, SchemaExamples examples) {
         String resourceName = extractResourceName(path);
         String scenarioName = "Create " + resourceName + " and verify creation";
         
@@ -903,7 +1284,7 @@ public class OpenApiParserService {
         content.append("    Given I want to create a new ").append(resourceName).append("\n");
         
         // Generate POST request body based on schema
-        String requestBody = generateRequestBody(postOp);
+        String requestBody = generateRequestBody(postOp, examples);
         content.append("    When I send a POST request to \"").append(path).append("\" with body:\n");
         content.append("      \"\"\"\n");
         content.append(requestBody);
@@ -931,7 +1312,7 @@ public class OpenApiParserService {
         scenarios.add(scenario);
     }
     
-    private void generatePutIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation putOp, Operation getOp) {
+    private void generatePutIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation putOp, Operation getOp, SchemaExamples examples) {
         String resourceName = extractResourceName(path);
         String scenarioName = "Update " + resourceName + " using PUT and verify update";
         
@@ -941,7 +1322,7 @@ public class OpenApiParserService {
         content.append("    And I have a ").append(resourceName).append(" with ID 1\n");
         
         // Generate PUT request body
-        String requestBody = generateRequestBody(putOp);
+        String requestBody = generateRequestBody(putOp, examples);
         content.append("    When I send a PUT request to \"").append(path).append("\" with body:\n");
         content.append("      \"\"\"\n");
         content.append(requestBody);
@@ -968,7 +1349,7 @@ public class OpenApiParserService {
         scenarios.add(scenario);
     }
     
-    private void generatePatchIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation patchOp, Operation getOp) {
+    private void generatePatchIntegrationTests(StringBuilder content, List<TestScenario> scenarios, String path, Operation patchOp, Operation getOp, SchemaExamples examples) {
         String resourceName = extractResourceName(path);
         String scenarioName = "Partially update " + resourceName + " using PATCH and verify update";
         
@@ -978,7 +1359,7 @@ public class OpenApiParserService {
         content.append("    And I have a ").append(resourceName).append(" with ID 1\n");
         
         // Generate PATCH request body (partial update)
-        String requestBody = generatePartialRequestBody(patchOp);
+        String requestBody = generatePartialRequestBody(patchOp, examples);
         content.append("    When I send a PATCH request to \"").append(path).append("\" with body:\n");
         content.append("      \"\"\"\n");
         content.append(requestBody);
@@ -1150,98 +1531,28 @@ public class OpenApiParserService {
         return "Resource";
     }
     
-    private String generateRequestBody(Operation operation) {
+    private String generateRequestBody(Operation operation, SchemaExamples examples) {
         if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
             Content content = operation.getRequestBody().getContent();
             if (content.get("application/json") != null) {
                 Schema schema = content.get("application/json").getSchema();
-                return generateJsonFromSchema(schema);
+                return examples.jsonBody(schema);
             }
         }
         return "{\n      \"id\": 1,\n      \"name\": \"Test Resource\",\n      \"description\": \"Test description\"\n    }";
     }
     
-    private String generatePartialRequestBody(Operation operation) {
+    private String generatePartialRequestBody(Operation operation, SchemaExamples examples) {
         if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
             Content content = operation.getRequestBody().getContent();
             if (content.get("application/json") != null) {
                 Schema schema = content.get("application/json").getSchema();
-                return generatePartialJsonFromSchema(schema);
+                return examples.partialJsonBody(schema);
             }
         }
         return "{\n      \"name\": \"Updated Test Resource\"\n    }";
     }
     
-    private String generateJsonFromSchema(Schema schema) {
-        if (schema == null) {
-            return "{\n      \"id\": 1,\n      \"name\": \"Test Resource\"\n    }";
-        }
-        
-        StringBuilder json = new StringBuilder("{\n");
-        if (schema.getProperties() != null) {
-            boolean first = true;
-            for (Object key : schema.getProperties().keySet()) {
-                if (!first) json.append(",\n");
-                json.append("      \"").append((String) key).append("\": ");
-                json.append(generateValueFromSchema((Schema) schema.getProperties().get(key)));
-                first = false;
-            }
-        } else {
-            json.append("      \"id\": 1,\n");
-            json.append("      \"name\": \"Test Resource\"");
-        }
-        json.append("\n    }");
-        return json.toString();
-    }
-    
-    private String generatePartialJsonFromSchema(Schema schema) {
-        if (schema == null) {
-            return "{\n      \"name\": \"Updated Test Resource\"\n    }";
-        }
-        
-        StringBuilder json = new StringBuilder("{\n");
-        if (schema.getProperties() != null) {
-            boolean first = true;
-            int count = 0;
-            for (Object key : schema.getProperties().keySet()) {
-                if (count >= 2) break; // Only include first 2 properties for partial update
-                if (!first) json.append(",\n");
-                json.append("      \"").append((String) key).append("\": ");
-                json.append(generateValueFromSchema((Schema) schema.getProperties().get(key)));
-                first = false;
-                count++;
-            }
-        } else {
-            json.append("      \"name\": \"Updated Test Resource\"");
-        }
-        json.append("\n    }");
-        return json.toString();
-    }
-    
-    private String generateValueFromSchema(Schema schema) {
-        if (schema == null) return "\"test\"";
-        
-        String type = schema.getType();
-        if (type == null) return "\"test\"";
-        
-        switch (type) {
-            case "string":
-                return "\"Test Value\"";
-            case "integer":
-                return "1";
-            case "number":
-                return "1.0";
-            case "boolean":
-                return "true";
-            case "array":
-                return "[]";
-            case "object":
-                return "{}";
-            default:
-                return "\"test\"";
-        }
-    }
-    
     private String generateGetPath(String path, Operation operation) {
         // Convert path with parameters to actual path
         if (path.contains("{") && path.contains("}")) {
@@ -1269,172 +1580,45 @@ public class OpenApiParserService {
         return method + "_" + path.replaceAll("[^a-zA-Z0-9]", "_");
     }
     
-    private String getRequestBody(Operation operation) {
+    private String getRequestBody(Operation operation, SchemaExamples examples) {
         if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
             Content content = operation.getRequestBody().getContent();
             if (content.get("application/json") != null) {
                 Schema<?> schema = content.get("application/json").getSchema();
                 if (schema != null) {
-                    return generateTestRequestBody(schema);
+                    return examples.testRequestBody(schema);
                 }
             }
         }
         return null;
     }
     
-    private String generateTestRequestBody(Schema<?> schema) {
-        try {
-            Map<String, Object> testData = generateTestDataFromSchema(schema);
-            return jsonMapper.writeValueAsString(testData);
-        } catch (Exception e) {
-            // Fallback to schema string if JSON generation fails
-            return schema.toString();
-        }
-    }
-    
-    private String generateInvalidRequestBody(Operation operation) {
+    private String generateInvalidRequestBody(Operation operation, SchemaExamples examples) {
         if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
             Content content = operation.getRequestBody().getContent();
             if (content.get("application/json") != null) {
                 Schema<?> schema = content.get("application/json").getSchema();
                 if (schema != null) {
-                    return generateInvalidTestDataFromSchema(schema);
+                    return examples.invalidRequestBody(schema);
                 }
             }
         }
         return "{\"invalid\": \"data\"}";
     }
     
-    private String generateIncompleteRequestBody(Operation operation) {
+    private String generateIncompleteRequestBody(Operation operation, SchemaExamples examples) {
         if (operation.getRequestBody() != null && operation.getRequestBody().getContent() != null) {
             Content content = operation.getRequestBody().getContent();
             if (content.get("application/json") != null) {
                 Schema<?> schema = content.get("application/json").getSchema();
                 if (schema != null) {
-                    return generateIncompleteTestDataFromSchema(schema);
+                    return examples.incompleteRequestBody(schema);
                 }
             }
         }
         return "{}";
     }
     
-    private String generateInvalidTestDataFromSchema(Schema<?> schema) {
-        try {
-            Map<String, Object> invalidData = new HashMap<>();
-            
-            if (schema.getProperties() != null) {
-                for (Map.Entry<String, Schema> property : schema.getProperties().entrySet()) {
-                    String key = property.getKey();
-                    Schema<?> propertySchema = property.getValue();
-                    
-                    // Generate invalid data based on type
-                    String type = propertySchema.getType();
-                    switch (type) {
-                        case "string":
-                            invalidData.put(key, 123); // Wrong type
-                            break;
-                        case "integer":
-                            invalidData.put(key, "invalid_number"); // Wrong type
-                            break;
-                        case "number":
-                            invalidData.put(key, "invalid_float"); // Wrong type
-                            break;
-                        case "boolean":
-                            invalidData.put(key, "invalid_boolean"); // Wrong type
-                            break;
-                        case "array":
-                            invalidData.put(key, "not_an_array"); // Wrong type
-                            break;
-                        case "object":
-                            invalidData.put(key, "not_an_object"); // Wrong type
-                            break;
-                        default:
-                            invalidData.put(key, null); // Null value
-                    }
-                }
-            }
-            
-            return jsonMapper.writeValueAsString(invalidData);
-        } catch (Exception e) {
-            return "{\"invalid\": \"data\"}";
-        }
-    }
-    
-    private String generateIncompleteTestDataFromSchema(Schema<?> schema) {
-        try {
-            Map<String, Object> incompleteData = new HashMap<>();
-            
-            if (schema.getProperties() != null) {
-                for (Map.Entry<String, Schema> property : schema.getProperties().entrySet()) {
-                    String key = property.getKey();
-                    Schema<?> propertySchema = property.getValue();
-                    
-                    // Only include non-required fields or skip some required fields
-                    if (propertySchema.getRequired() == null || !propertySchema.getRequired().contains(key)) {
-                        Object value = generateTestValue(propertySchema);
-                        incompleteData.put(key, value);
-                    }
-                    // Skip some required fields to test validation
-                }
-            }
-            
-            return jsonMapper.writeValueAsString(incompleteData);
-        } catch (Exception e) {
-            return "{}";
-        }
-    }
-    
-    private Map<String, Object> generateTestDataFromSchema(Schema<?> schema) {
-        Map<String, Object> testData = new HashMap<>();
-        
-        if (schema.getProperties() != null) {
-            for (Map.Entry<String, Schema> property : schema.getProperties().entrySet()) {
-                String key = property.getKey();
-                Schema<?> propertySchema = property.getValue();
-                Object value = generateTestValue(propertySchema);
-                testData.put(key, value);
-            }
-        }
-        
-        return testData;
-    }
-    
-    private Object generateTestValue(Schema<?> schema) {
-        if (schema == null) return null;
-        
-        String type = schema.getType();
-        Object example = schema.getExample();
-        
-        // Use example if available
-        if (example != null) {
-            return example;
-        }
-        
-        // Generate test data based on type
-        switch (type) {
-            case "string":
-                return "test_" + System.currentTimeMillis();
-            case "integer":
-                return 1;
-            case "number":
-                return 1.0;
-            case "boolean":
-                return true;
-            case "array":
-                if (schema.getItems() != null) {
-                    return Arrays.asList(generateTestValue(schema.getItems()));
-                }
-                return Arrays.asList("test_item");
-            case "object":
-                if (schema.getProperties() != null) {
-                    return generateTestDataFromSchema(schema);
-                }
-                return new HashMap<>();
-            default:
-                return "test_value";
-        }
-    }
-    
     private String getExpectedResponseSchema(Operation operation) {
         if (operation.getResponses() != null && operation.getResponses().get("200") != null) {
             ApiResponse response = operation.getResponses().get("200");
@@ -1518,7 +1702,7 @@ public class OpenApiParserService {
                     testValue = defaultValue.toString();
                 } else {
                     // Generate test value based on parameter name
-                    testValue = generateTestValueForParameter(paramName, param.getSchema());
+                    testValue = generateTestValueForParameter(path, paramName, param.getSchema());
                 }
                 
                 substitutedPath = substitutedPath.replace("{" + paramName + "}", testValue);
@@ -1549,23 +1733,16 @@ public class OpenApiParserService {
         return substitutedPath;
     }
     
-    private String generateTestValueForParameter(String paramName, Schema<?> schema) {
+    private String generateTestValueForParameter(String path, String paramName, Schema<?> schema) {
         // Generate appropriate test values based on parameter name and type
-        if (paramName.toLowerCase().contains("id")) {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random ID from 1-10
-        } else if (paramName.toLowerCase().contains("user")) {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random user ID from 1-10
-        } else if (paramName.toLowerCase().contains("post")) {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random post ID from 1-10
-        } else if (paramName.toLowerCase().contains("comment")) {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random comment ID from 1-10
-        } else if (schema != null && "integer".equals(schema.getType())) {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random integer from 1-10
-        } else if (schema != null && "string".equals(schema.getType())) {
+        String name = paramName.toLowerCase();
+        boolean identifier = name.contains("id") || name.contains("user") || name.contains("post") || name.contains("comment");
+        if (!identifier && schema != null && "string".equals(schema.getType())) {
             return "test";
-        } else {
-            return String.valueOf((int)(Math.random() * 10) + 1); // Random value from 1-10
         }
+        // IDs, integers and anything else get a value from 1-10; derived from the path and name rather than random,
+        // so generating the same spec twice gives the same scenarios
+        return String.valueOf(Math.floorMod((path + "#" + paramName).hashCode(), 10) + 1);
     }
     
     private String generateInvalidTestValueForParameter(String paramName, Schema<?> schema) {
@@ -1606,7 +1783,7 @@ public class OpenApiParserService {
         return "https://api.example.com";
     }
     
-    private FeatureFile generateSmokeTestsSwagger2(Swagger swagger, ApiSpec apiSpec) {
+    private FeatureFile generateSmokeTestsSwagger2(Swagger swagger, PathSource<Path> paths, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         List<TestScenario> scenarios = new ArrayList<>();
         
@@ -1617,16 +1794,11 @@ public class OpenApiParserService {
         
         String baseUrl = getBaseUrlSwagger2(swagger);
         
-        if (swagger != null && swagger.getPaths() != null) {
-            for (Map.Entry<String, Path> pathEntry : swagger.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                Path pathItem = pathEntry.getValue();
-                
-                if (pathItem != null && pathItem.getGet() != null) {
-                    generateSmokeTestSwagger2(content, scenarios, path, pathItem.getGet(), baseUrl);
-                }
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            if (pathItem != null && pathItem.getGet() != null) {
+                generateSmokeTestSwagger2(pathContent, pathScenarios, path, pathItem.getGet(), baseUrl);
             }
-        }
+        });
         
         // If no paths found, create a basic smoke test
         if (scenarios.isEmpty()) {
@@ -1680,7 +1852,7 @@ public class OpenApiParserService {
         scenarios.add(scenario);
     }
     
-    private FeatureFile generateSystemTestsSwagger2(Swagger swagger, ApiSpec apiSpec) {
+    private FeatureFile generateSystemTestsSwagger2(Swagger swagger, PathSource<Path> paths, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         List<TestScenario> scenarios = new ArrayList<>();
         
@@ -1691,27 +1863,22 @@ public class OpenApiParserService {
         
         String baseUrl = getBaseUrlSwagger2(swagger);
         
-        if (swagger != null && swagger.getPaths() != null) {
-            for (Map.Entry<String, Path> pathEntry : swagger.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                Path pathItem = pathEntry.getValue();
-                
-                if (pathItem != null) {
-                    if (pathItem.getPost() != null) {
-                        generateSystemTestSwagger2(content, scenarios, path, pathItem.getPost(), "POST", baseUrl);
-                    }
-                    if (pathItem.getPut() != null) {
-                        generateSystemTestSwagger2(content, scenarios, path, pathItem.getPut(), "PUT", baseUrl);
-                    }
-                    if (pathItem.getPatch() != null) {
-                        generateSystemTestSwagger2(content, scenarios, path, pathItem.getPatch(), "PATCH", baseUrl);
-                    }
-                    if (pathItem.getDelete() != null) {
-                        generateSystemTestSwagger2(content, scenarios, path, pathItem.getDelete(), "DELETE", baseUrl);
-                    }
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            if (pathItem != null) {
+                if (pathItem.getPost() != null) {
+                    generateSystemTestSwagger2(pathContent, pathScenarios, path, pathItem.getPost(), "POST", baseUrl);
+                }
+                if (pathItem.getPut() != null) {
+                    generateSystemTestSwagger2(pathContent, pathScenarios, path, pathItem.getPut(), "PUT", baseUrl);
+                }
+                if (pathItem.getPatch() != null) {
+                    generateSystemTestSwagger2(pathContent, pathScenarios, path, pathItem.getPatch(), "PATCH", baseUrl);
+                }
+                if (pathItem.getDelete() != null) {
+                    generateSystemTestSwagger2(pathContent, pathScenarios, path, pathItem.getDelete(), "DELETE", baseUrl);
                 }
             }
-        }
+        });
         
         // If no paths found, create a basic system test
         if (scenarios.isEmpty()) {
@@ -1783,7 +1950,7 @@ public class OpenApiParserService {
         return 200;
     }
     
-    private FeatureFile generateNegativeTestsSwagger2(Swagger swagger, ApiSpec apiSpec) {
+    private FeatureFile generateNegativeTestsSwagger2(Swagger swagger, PathSource<Path> paths, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         List<TestScenario> scenarios = new ArrayList<>();
         
@@ -1794,25 +1961,20 @@ public class OpenApiParserService {
         
         String baseUrl = getBaseUrlSwagger2(swagger);
         
-        if (swagger.getPaths() != null) {
-            for (Map.Entry<String, Path> pathEntry : swagger.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                Path pathItem = pathEntry.getValue();
-                
-                if (pathItem.getPost() != null) {
-                    generateNegativeTestSwagger2(content, scenarios, path, pathItem.getPost(), "POST", baseUrl);
-                }
-                if (pathItem.getPut() != null) {
-                    generateNegativeTestSwagger2(content, scenarios, path, pathItem.getPut(), "PUT", baseUrl);
-                }
-                if (pathItem.getPatch() != null) {
-                    generateNegativeTestSwagger2(content, scenarios, path, pathItem.getPatch(), "PATCH", baseUrl);
-                }
-                if (pathItem.getDelete() != null) {
-                    generateNegativeTestSwagger2(content, scenarios, path, pathItem.getDelete(), "DELETE", baseUrl);
-                }
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            if (pathItem.getPost() != null) {
+                generateNegativeTestSwagger2(pathContent, pathScenarios, path, pathItem.getPost(), "POST", baseUrl);
             }
-        }
+            if (pathItem.getPut() != null) {
+                generateNegativeTestSwagger2(pathContent, pathScenarios, path, pathItem.getPut(), "PUT", baseUrl);
+            }
+            if (pathItem.getPatch() != null) {
+                generateNegativeTestSwagger2(pathContent, pathScenarios, path, pathItem.getPatch(), "PATCH", baseUrl);
+            }
+            if (pathItem.getDelete() != null) {
+                generateNegativeTestSwagger2(pathContent, pathScenarios, path, pathItem.getDelete(), "DELETE", baseUrl);
+            }
+        });
         
         String fileName = apiSpec.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_negative_tests.feature";
         FeatureFile featureFile = new FeatureFile(fileName, TestSuiteType.SYSTEM, content.toString(), apiSpec);
@@ -1852,7 +2014,7 @@ public class OpenApiParserService {
         scenarios.add(scenario);
     }
     
-    private FeatureFile generateIntegrationTestsSwagger2(Swagger swagger, ApiSpec apiSpec) {
+    private FeatureFile generateIntegrationTestsSwagger2(Swagger swagger, PathSource<Path> paths, ApiSpec apiSpec) {
         StringBuilder content = new StringBuilder();
         List<TestScenario> scenarios = new ArrayList<>();
         
@@ -1865,28 +2027,23 @@ public class OpenApiParserService {
         content.append("    Given the API base URL is \"").append(getBaseUrlSwagger2(swagger)).append("\"\n");
         content.append("    And the Content-Type is \"application/json\"\n\n");
         
-        if (swagger.getPaths() != null) {
-            for (Map.Entry<String, Path> pathEntry : swagger.getPaths().entrySet()) {
-                String path = pathEntry.getKey();
-                Path pathItem = pathEntry.getValue();
-                
-                if (pathItem.getPost() != null) {
-                    generatePostIntegrationTestsSwagger2(content, scenarios, path, pathItem.getPost(), findGetOperationSwagger2(swagger, path));
-                }
-                if (pathItem.getPut() != null) {
-                    generatePutIntegrationTestsSwagger2(content, scenarios, path, pathItem.getPut(), findGetOperationSwagger2(swagger, path));
-                }
-                if (pathItem.getPatch() != null) {
-                    generatePatchIntegrationTestsSwagger2(content, scenarios, path, pathItem.getPatch(), findGetOperationSwagger2(swagger, path));
-                }
-                if (pathItem.getDelete() != null) {
-                    generateDeleteIntegrationTestsSwagger2(content, scenarios, path, pathItem.getDelete(), findGetOperationSwagger2(swagger, path));
-                }
-                if (pathItem.getGet() != null) {
-                    generateGetFilterTestsSwagger2(content, scenarios, path, pathItem.getGet());
-                }
+        generatePerPath(paths, content, scenarios, (path, pathItem, pathContent, pathScenarios) -> {
+            if (pathItem.getPost() != null) {
+                generatePostIntegrationTestsSwagger2(pathContent, pathScenarios, path, pathItem.getPost(), pathItem.getGet());
             }
-        }
+            if (pathItem.getPut() != null) {
+                generatePutIntegrationTestsSwagger2(pathContent, pathScenarios, path, pathItem.getPut(), pathItem.getGet());
+            }
+            if (pathItem.getPatch() != null) {
+                generatePatchIntegrationTestsSwagger2(pathContent, pathScenarios, path, pathItem.getPatch(), pathItem.getGet());
+            }
+            if (pathItem.getDelete() != null) {
+                generateDeleteIntegrationTestsSwagger2(pathContent, pathScenarios, path, pathItem.getDelete(), pathItem.getGet());
+            }
+            if (pathItem.getGet() != null) {
+                generateGetFilterTestsSwagger2(pathContent, pathScenarios, path, pathItem.getGet());
+            }
+        });
         
         String fileName = apiSpec.getName().replaceAll("[^a-zA-Z0-9]", "_") + "_integration_tests.feature";
         FeatureFile featureFile = new FeatureFile(fileName, TestSuiteType.INTEGRATION, content.toString(), apiSpec);
@@ -1900,11 +2057,6 @@ public class OpenApiParserService {
         return featureFile;
     }
     
-    private io.swagger.models.Operation findGetOperationSwagger2(Swagger swagger, String path) {
-        Path pathItem = swagger.getPaths().get(path);
-        return pathItem != null ? pathItem.getGet() : null;
-    }
-    
     private void generatePostIntegrationTestsSwagger2(StringBuilder content, List<TestScenario> scenarios, String path, io.swagger.models.Operation postOp, io.swagger.models.Operation getOp) {
         String resourceName = extractResourceName(path);
         String scenarioName = "Create " + resourceName + " and verify creation";
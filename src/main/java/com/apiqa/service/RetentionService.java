@@ -0,0 +1,310 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.TestExecutionDetailsDto;
+import com.apiqa.model.RetentionStage;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.repository.ApiSpecRepository;
+import com.apiqa.repository.BulkImportItemRepository;
+import com.apiqa.repository.TestExecutionRepository;
+import com.apiqa.repository.TestRunRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Applies the retention policy to historical test runs.
+ * Runs keep full detail for a configurable number of days, then only their failed
+ * executions, and finally only their aggregate totals. Before the first compaction
+ * every execution of the run is written to a gzip JSON-lines archive that can still
+ * be queried through {@link #getArchivedExecutions(Long)}. The archive holds the response
+ * bodies itself, so after compaction the blobs no remaining row refers to are deleted.
+ */
+@Service
+public class RetentionService {
+
+    private static final List<TestExecutionStatus> FAILURE_STATUSES = List.of(TestExecutionStatus.FAILED, TestExecutionStatus.ERROR);
+
+    @Autowired
+    private TestRunRepository testRunRepository;
+
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+
+    @Autowired
+    private ApiSpecRepository apiSpecRepository;
+
+    @Autowired
+    private BulkImportItemRepository bulkImportItemRepository;
+
+    @Autowired
+    private BlobStoreService blobStoreService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiqa.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${apiqa.retention.full-detail-days:7}")
+    private int fullDetailDays;
+
+    @Value("${apiqa.retention.failures-only-days:30}")
+    private int failuresOnlyDays;
+
+    @Value("${apiqa.retention.batch-size:50}")
+    private int batchSize;
+
+    @Value("${apiqa.retention.archive-path:data/archive}")
+    private String archivePath;
+
+    @Value("${apiqa.retention.blob-grace-hours:24}")
+    private int blobGraceHours;
+
+    /**
+     * Runs the retention policy in the background
+     * Cron expression: every hour at 30 minutes
+     */
+    @Scheduled(cron = "${apiqa.retention.cron:0 30 * * * *}")
+    public void runRetention() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int compacted = applyRetention();
+            if (compacted > 0) {
+                System.out.println("Retention compacted " + compacted + " test run(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Error applying retention policy: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compacts all runs that are past their retention windows.
+     * Runs are processed in small batches with one short transaction per run,
+     * so the live tables are never locked for longer than a single run's rows.
+     * @return The number of runs compacted
+     */
+    public int applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Oldest stage first so runs past both windows are archived and compacted only once
+        int compacted = compactRuns(now.minusDays(failuresOnlyDays),
+                List.of(RetentionStage.FULL, RetentionStage.FAILURES_ONLY), RetentionStage.AGGREGATES_ONLY);
+        compacted += compactRuns(now.minusDays(fullDetailDays),
+                List.of(RetentionStage.FULL), RetentionStage.FAILURES_ONLY);
+
+        // Also when nothing was compacted now, since blobs still within their grace period are left for a later pass
+        sweepBlobs();
+        return compacted;
+    }
+
+    /**
+     * Deletes the blobs that no execution, spec or bulk import item refers to any more,
+     * such as the response bodies of compacted executions.
+     * Blobs stored or reused within the grace period are kept, since a running test run
+     * saves its executions only after storing their bodies.
+     * @return The number of blobs deleted
+     */
+    public int sweepBlobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(blobGraceHours));
+        Set<String> referenced = transactionTemplate.execute(status -> {
+            Set<String> hashes = new HashSet<>();
+            try (Stream<String> responseBodyHashes = testExecutionRepository.streamResponseBodyHashes()) {
+                responseBodyHashes.forEach(hashes::add);
+            }
+            hashes.addAll(apiSpecRepository.findSpecBlobHashes());
+            hashes.addAll(bulkImportItemRepository.findSpecBlobHashes());
+            return hashes;
+        });
+
+        int deleted = blobStoreService.deleteUnreferenced(referenced, cutoff);
+        if (deleted > 0) {
+            System.out.println("Retention deleted " + deleted + " unreferenced blob(s)");
+        }
+        return deleted;
+    }
+
+    /**
+     * Reads the archived executions of a compacted test run
+     * @param testRunId The test run ID
+     * @return The archived executions, or an empty list if the run has not been archived
+     */
+    public List<TestExecutionDetailsDto> getArchivedExecutions(Long testRunId) {
+        TestRun testRun = testRunRepository.findById(testRunId)
+                .orElseThrow(() -> new RuntimeException("Test Run not found with ID: " + testRunId));
+
+        List<TestExecutionDetailsDto> executions = new ArrayList<>();
+        if (testRun.getArchivePath() == null) {
+            return executions;
+        }
+
+        Path path = Paths.get(testRun.getArchivePath());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    TestExecutionDetailsDto record = objectMapper.readValue(line, TestExecutionDetailsDto.class);
+                    // Archives written before they held the bodies only refer to the blob
+                    if (record.getActualResponseBody() == null && record.getResponseBodyHash() != null) {
+                        record.setActualResponseBody(blobStoreService.load(record.getResponseBodyHash()));
+                    }
+                    executions.add(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archive for test run " + testRunId + ": " + e.getMessage(), e);
+        }
+
+        return executions;
+    }
+
+    private int compactRuns(LocalDateTime cutoff, List<RetentionStage> fromStages, RetentionStage targetStage) {
+        int compacted = 0;
+
+        while (true) {
+            List<Long> runIds = testRunRepository.findIdsForRetention(cutoff, fromStages, PageRequest.of(0, batchSize));
+            if (runIds.isEmpty()) {
+                return compacted;
+            }
+
+            for (Long runId : runIds) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> compactRun(runId, targetStage));
+                    compacted++;
+                } catch (Exception e) {
+                    // Stop this pass; the run stays eligible and is retried on the next tick
+                    System.err.println("Error compacting test run " + runId + ": " + e.getMessage());
+                    return compacted;
+                }
+            }
+        }
+    }
+
+    private void compactRun(Long testRunId, RetentionStage targetStage) {
+        TestRun testRun = testRunRepository.findById(testRunId).orElse(null);
+        if (testRun == null) {
+            return;
+        }
+
+        if (testRun.getArchivePath() == null) {
+            List<TestExecution> executions = testExecutionRepository.findByTestRunId(testRunId);
+            updateAggregates(testRun, executions);
+            testRun.setArchivePath(writeArchive(testRun, executions));
+        }
+
+        int deleted;
+        if (targetStage == RetentionStage.FAILURES_ONLY) {
+            deleted = testExecutionRepository.deleteByTestRunIdAndStatusNotIn(testRunId, FAILURE_STATUSES);
+        } else {
+            deleted = testExecutionRepository.deleteAllByTestRunId(testRunId);
+        }
+
+        testRun.setRetentionStage(targetStage);
+        testRunRepository.save(testRun);
+
+        System.out.println("Compacted test run " + testRunId + " to " + targetStage + " (" + deleted + " executions removed)");
+    }
+
+    private void updateAggregates(TestRun testRun, List<TestExecution> executions) {
+        if (testRun.getTotalTests() != null) {
+            return;
+        }
+
+        int passed = 0;
+        int failed = 0;
+        int skipped = 0;
+        for (TestExecution execution : executions) {
+            if (execution.getStatus() == TestExecutionStatus.PASSED) {
+                passed++;
+            } else if (FAILURE_STATUSES.contains(execution.getStatus())) {
+                failed++;
+            } else if (execution.getStatus() == TestExecutionStatus.SKIPPED) {
+                skipped++;
+            }
+        }
+
+        testRun.setTotalTests(executions.size());
+        testRun.setPassedTests(passed);
+        testRun.setFailedTests(failed);
+        testRun.setSkippedTests(skipped);
+    }
+
+    private String writeArchive(TestRun testRun, List<TestExecution> executions) {
+        LocalDateTime runDate = testRun.getStartedAt() != null ? testRun.getStartedAt() : LocalDateTime.now();
+        Path directory = Paths.get(archivePath, runDate.format(DateTimeFormatter.ofPattern("yyyy/MM/dd")));
+        Path target = directory.resolve("run-" + testRun.getId() + ".jsonl.gz");
+
+        try {
+            Files.createDirectories(directory);
+            Path tempPath = Files.createTempFile(directory, "run-" + testRun.getId(), ".tmp");
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tempPath)), StandardCharsets.UTF_8)) {
+                for (TestExecution execution : executions) {
+                    writer.write(objectMapper.writeValueAsString(toArchiveRecord(execution)));
+                    writer.write('\n');
+                }
+            }
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to archive test run " + testRun.getId() + ": " + e.getMessage(), e);
+        }
+
+        return target.toString();
+    }
+
+    private TestExecutionDetailsDto toArchiveRecord(TestExecution execution) {
+        // The body goes into the archive, since its blob is deleted once no live execution refers to it
+        TestExecutionDetailsDto record = new TestExecutionDetailsDto(
+            execution.getId(),
+            execution.getStatus(),
+            execution.getExecutedAt(),
+            execution.getExecutionTimeMs(),
+            execution.getActualStatusCode(),
+            blobStoreService.load(execution.getResponseBodyHash()),
+            execution.getActualHeaders(),
+            execution.getErrorMessage(),
+            execution.getValidationResults(),
+            execution.getRequestUrl(),
+            execution.getRequestMethod(),
+            execution.getRequestHeaders(),
+            execution.getRequestBody(),
+            execution.getTestRunId(),
+            execution.getTestScenario() != null ? execution.getTestScenario().getId() : null
+        );
+        return record;
+    }
+}
@@ -0,0 +1,142 @@
+package com.apiqa.service;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Responses to safe requests made during one test run, shared by the scenarios that send an identical request.
+ * Requests are keyed by method, URL, headers and a hash of the body. The first scenario to send a request
+ * makes the call and later ones reuse its response. HTTP responses are shared whatever their status; a request
+ * that failed without a response is not kept, so the next scenario sending it tries again. Any unsafe request
+ * may change what the API returns, so it clears every response kept so far.
+ * A run executes its scenarios one at a time, so the cache is not thread-safe.
+ */
+class RunResponseCache {
+
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final Map<String, Exchange> exchanges = new HashMap<>();
+    private int reusedCount;
+
+    /**
+     * Sends a request, or shares the response to an identical safe request of the run
+     * @param request The request
+     * @param send Sends a request and returns its response
+     * @return The response, and whether it was shared
+     */
+    Result exchange(RequestEntity<String> request, Function<RequestEntity<String>, ResponseEntity<String>> send) {
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            try {
+                return new Result(send(request, send), false);
+            } finally {
+                // Also when it failed, since the request may have reached the API
+                exchanges.clear();
+            }
+        }
+
+        String key = key(request);
+        Exchange cached = exchanges.get(key);
+        if (cached != null) {
+            reusedCount++;
+            return new Result(cached, true);
+        }
+
+        Exchange exchange = send(request, send);
+        exchanges.put(key, exchange);
+        return new Result(exchange, false);
+    }
+
+    /**
+     * @return How many requests were answered with a shared response
+     */
+    int getReusedCount() {
+        return reusedCount;
+    }
+
+    private static Exchange send(RequestEntity<String> request, Function<RequestEntity<String>, ResponseEntity<String>> send) {
+        long startTime = System.currentTimeMillis();
+        try {
+            ResponseEntity<String> response = send.apply(request);
+            return new Exchange(response, null, System.currentTimeMillis() - startTime);
+        } catch (HttpStatusCodeException e) {
+            // An error status is still a response, and the same request gets the same one
+            return new Exchange(null, e, System.currentTimeMillis() - startTime);
+        }
+    }
+
+    private static String key(RequestEntity<String> request) {
+        // Hashed so the map holds no credentials from the headers
+        return sha256(request.getMethod() + " " + request.getUrl() + "\n" + request.getHeaders() + "\n" +
+                (request.getBody() != null ? sha256(request.getBody()) : ""));
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The outcome of one call: its response, or the error status it was answered with
+     */
+    private static class Exchange {
+        final ResponseEntity<String> response;
+        final HttpStatusCodeException error;
+        final long durationMs;
+
+        Exchange(ResponseEntity<String> response, HttpStatusCodeException error, long durationMs) {
+            this.response = response;
+            this.error = error;
+            this.durationMs = durationMs;
+        }
+    }
+
+    /**
+     * A response as seen by one scenario
+     */
+    static class Result {
+        private final Exchange exchange;
+        private final boolean reused;
+
+        Result(Exchange exchange, boolean reused) {
+            this.exchange = exchange;
+            this.reused = reused;
+        }
+
+        /**
+         * @return The response
+         * @throws HttpStatusCodeException if the request was answered with an error status, as the RestTemplate would
+         */
+        ResponseEntity<String> getResponse() {
+            if (exchange.error != null) {
+                throw exchange.error;
+            }
+            return exchange.response;
+        }
+
+        boolean isReused() {
+            return reused;
+        }
+
+        /**
+         * @return How long the call that got the response took
+         */
+        long getDurationMs() {
+            return exchange.durationMs;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.apiqa.service;
+
+import com.apiqa.model.SchedulerLease;
+import com.apiqa.repository.SchedulerLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates scheduled work between application instances that share a database.
+ * A lease is a row in the scheduler_leases table owned by one instance until it expires.
+ * The owner keeps its leases alive with a heartbeat on a thread of its own; a lease whose owner
+ * stopped renewing it expires and can be taken over by another instance. Every acquisition gets
+ * a higher fencing token, so a holder that stalled past expiry finds its token stale and is told
+ * the lease was lost. Claims are one-shot leases that are never renewed or released, so a name
+ * such as a scheduler tick is claimed by exactly one instance. Each instance also holds a lease
+ * on its own ID, which tells the others it is alive.
+ * Expiry is compared against each instance's own clock, so instance clocks need to be in sync
+ * to well within the lease duration.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private static final String INSTANCE_PREFIX = "instance:";
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${apiqa.cluster.instance-id:}")
+    private String configuredInstanceId;
+
+    @Value("${apiqa.cluster.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${apiqa.cluster.heartbeat-millis:15000}")
+    private long heartbeatMillis;
+
+    @Value("${apiqa.cluster.claim-retention-hours:24}")
+    private long claimRetentionHours;
+
+    private String instanceId;
+
+    // Leases this instance holds and keeps alive
+    private final Map<String, HeldLease> held = new ConcurrentHashMap<>();
+
+    // Not the shared task scheduler, so long scheduled jobs cannot delay a renewal past expiry
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+    @PostConstruct
+    public void init() {
+        if (configuredInstanceId != null && !configuredInstanceId.isBlank()) {
+            instanceId = configuredInstanceId;
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "apiqa";
+            }
+            // Unique per start, so a restarted instance does not inherit the leases of its previous life
+            instanceId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        System.out.println("Scheduler instance ID: " + instanceId);
+
+        take(INSTANCE_PREFIX + instanceId, Duration.ofSeconds(leaseSeconds));
+        heartbeats.scheduleWithFixedDelay(() -> {
+            try {
+                heartbeat();
+            } catch (Exception e) {
+                System.err.println("Error renewing scheduler leases: " + e.getMessage());
+            }
+        }, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Releases the held leases so other instances can take over without waiting for them to expire
+     */
+    @PreDestroy
+    public void releaseAll() {
+        heartbeats.shutdownNow();
+        for (String name : new HashSet<>(held.keySet())) {
+            try {
+                release(name);
+            } catch (Exception e) {
+                System.err.println("Error releasing lease " + name + ": " + e.getMessage());
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.release(INSTANCE_PREFIX + instanceId,
+                    instanceId, schedulerLeaseRepository.findFencingToken(INSTANCE_PREFIX + instanceId, instanceId), LocalDateTime.now()));
+        } catch (Exception e) {
+            System.err.println("Error releasing instance lease: " + e.getMessage());
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public List<SchedulerLease> getLeases() {
+        return schedulerLeaseRepository.findAllByOrderByName();
+    }
+
+    /**
+     * @return The IDs of the instances whose heartbeat is current, including this one
+     */
+    public Set<String> getLiveInstanceIds() {
+        return new HashSet<>(schedulerLeaseRepository.findLiveOwners(INSTANCE_PREFIX + "%", LocalDateTime.now()));
+    }
+
+    /**
+     * Acquires a lease and keeps it alive until it is released
+     * @param name The lease name
+     * @param onLost Called on the heartbeat thread if the lease expires or is taken over before it is released
+     * @return The fencing token of this acquisition, or null if another instance holds the lease
+     */
+    public Long acquire(String name, Runnable onLost) {
+        Long token = take(name, Duration.ofSeconds(leaseSeconds));
+        if (token != null) {
+            held.put(name, new HeldLease(token, onLost));
+        }
+        return token;
+    }
+
+    /**
+     * Releases a lease held by this instance
+     * @param name The lease name
+     */
+    public void release(String name) {
+        HeldLease lease = held.remove(name);
+        if (lease != null) {
+            transactionTemplate.executeWithoutResult(status ->
+                    schedulerLeaseRepository.release(name, instanceId, lease.token, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Checks against the database that this instance still holds a lease under the given token.
+     * Work done under a lease checks this before it records its outcome.
+     * @param name The lease name
+     * @param token The fencing token returned by {@link #acquire}
+     * @return true if the lease has neither expired nor been acquired again since
+     */
+    public boolean isHeld(String name, Long token) {
+        Long count = transactionTemplate.execute(status ->
+                schedulerLeaseRepository.countHeld(name, instanceId, token, LocalDateTime.now()));
+        return count != null && count > 0;
+    }
+
+    /**
+     * Claims a name once. The claim is not renewed or released; it keeps other instances from claiming
+     * the same name until it expires.
+     * @param name The claim name
+     * @param retention How long the claim is kept
+     * @return true if this instance made the claim
+     */
+    public boolean claim(String name, Duration retention) {
+        return take(name, retention) != null;
+    }
+
+    /**
+     * Extends the leases this instance holds and clears out long expired ones.
+     * A lease that expired or was taken over in the meantime, for example after a long pause of this
+     * instance, is dropped and its holder told. The instance lease is taken back in that case.
+     */
+    void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(leaseSeconds);
+        Map<String, HeldLease> leases = new HashMap<>(held);
+        Set<String> lost = new HashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Map.Entry<String, HeldLease> lease : leases.entrySet()) {
+                if (schedulerLeaseRepository.renew(lease.getKey(), instanceId, lease.getValue().token, now, expiresAt) == 0) {
+                    lost.add(lease.getKey());
+                }
+            }
+            // Kept a while after expiry, so a lease acquired again continues from its last fencing token
+            schedulerLeaseRepository.deleteExpired(now.minusHours(claimRetentionHours));
+        });
+        take(INSTANCE_PREFIX + instanceId, Duration.ofSeconds(leaseSeconds));
+
+        for (String name : lost) {
+            HeldLease lease = leases.get(name);
+            if (held.remove(name, lease)) {
+                System.err.println("Lease " + name + " expired or was taken over by another instance");
+                if (lease.onLost != null) {
+                    lease.onLost.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The fencing token, or null if the lease exists and another instance holds it
+     */
+    private Long take(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(duration);
+        Long token = transactionTemplate.execute(status -> schedulerLeaseRepository.takeOver(name, instanceId, now, expiresAt) > 0
+                ? schedulerLeaseRepository.findFencingToken(name, instanceId) : null);
+        if (token != null) {
+            return token;
+        }
+
+        try {
+            // persist rather than save: an insert that conflicts with another instance's row must fail, not overwrite it
+            SchedulerLease lease = new SchedulerLease(name, instanceId, now, expiresAt);
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(lease);
+                entityManager.flush();
+            });
+            return lease.getFencingToken();
+        } catch (RuntimeException e) {
+            // The lease exists and has not expired, or another instance inserted it first
+            return null;
+        }
+    }
+
+    /**
+     * A lease this instance holds, with the token it was acquired under
+     */
+    private static class HeldLease {
+        final Long token;
+        final Runnable onLost;
+
+        HeldLease(Long token, Runnable onLost) {
+            this.token = token;
+            this.onLost = onLost;
+        }
+    }
+}
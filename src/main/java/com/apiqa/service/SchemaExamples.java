@@ -0,0 +1,381 @@
+package com.apiqa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.models.media.Schema;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Builds example payloads from OpenAPI 3 schemas for a single generation pass.
+ * {@code $ref}s are resolved against the component schemas of the spec, and every payload is
+ * memoized by the identity of the resolved schema, so a component shared by many operations is
+ * turned into an example only once. Recursive schemas are cut off with a null value where they
+ * refer back to a schema that is already being generated; those values are built again for every
+ * payload, since where the cut falls depends on where generation started.
+ */
+class SchemaExamples {
+
+    private static final String COMPONENT_SCHEMA_PREFIX = "#/components/schemas/";
+    private static final Object NO_VALUE = new Object();
+
+    private final ObjectMapper jsonMapper;
+    private final Map<String, Schema> componentSchemas = new ConcurrentHashMap<>();
+
+    private final Map<Schema<?>, String> jsonBodies = identityMap();
+    private final Map<Schema<?>, String> partialJsonBodies = identityMap();
+    private final Map<Schema<?>, String> testRequestBodies = identityMap();
+    private final Map<Schema<?>, String> invalidBodies = identityMap();
+    private final Map<Schema<?>, String> incompleteBodies = identityMap();
+    private final Map<Schema<?>, Object> testValues = identityMap();
+
+    SchemaExamples(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Makes component schemas available for {@code $ref} resolution.
+     * Streamed specs add the components of every batch; the first definition of a name wins,
+     * so memoized payloads stay valid across batches.
+     * @param schemas The component schemas by name, may be null
+     */
+    void addComponentSchemas(Map<String, Schema> schemas) {
+        if (schemas != null) {
+            schemas.forEach(componentSchemas::putIfAbsent);
+        }
+    }
+
+    /**
+     * Follows {@code $ref}s to the component schema they point to
+     * @param schema The schema
+     * @return The resolved schema, or the schema itself if it is not a resolvable reference
+     */
+    Schema<?> resolve(Schema<?> schema) {
+        Set<String> seen = new HashSet<>();
+        while (schema != null && schema.get$ref() != null && seen.add(schema.get$ref())) {
+            String ref = schema.get$ref();
+            String name = ref.startsWith(COMPONENT_SCHEMA_PREFIX) ? ref.substring(COMPONENT_SCHEMA_PREFIX.length()) : ref;
+            Schema<?> target = componentSchemas.get(name);
+            if (target == null) {
+                break;
+            }
+            schema = target;
+        }
+        return schema;
+    }
+
+    /**
+     * Builds a pretty-printed request body for the integration tests
+     * @param schema The request body schema, may be null
+     * @return The JSON body
+     */
+    String jsonBody(Schema<?> schema) {
+        Schema<?> resolved = resolve(schema);
+        if (resolved == null) {
+            return "{\n      \"id\": 1,\n      \"name\": \"Test Resource\"\n    }";
+        }
+        return memoize(jsonBodies, resolved, () -> {
+            StringBuilder json = new StringBuilder("{\n");
+            if (resolved.getProperties() != null) {
+                boolean first = true;
+                for (Map.Entry<String, Schema> property : resolved.getProperties().entrySet()) {
+                    if (!first) json.append(",\n");
+                    json.append("      \"").append(property.getKey()).append("\": ");
+                    json.append(placeholderValue(property.getValue()));
+                    first = false;
+                }
+            } else {
+                json.append("      \"id\": 1,\n");
+                json.append("      \"name\": \"Test Resource\"");
+            }
+            json.append("\n    }");
+            return json.toString();
+        });
+    }
+
+    /**
+     * Builds a pretty-printed partial update body with the first two properties of the schema
+     * @param schema The request body schema, may be null
+     * @return The JSON body
+     */
+    String partialJsonBody(Schema<?> schema) {
+        Schema<?> resolved = resolve(schema);
+        if (resolved == null) {
+            return "{\n      \"name\": \"Updated Test Resource\"\n    }";
+        }
+        return memoize(partialJsonBodies, resolved, () -> {
+            StringBuilder json = new StringBuilder("{\n");
+            if (resolved.getProperties() != null) {
+                boolean first = true;
+                int count = 0;
+                for (Map.Entry<String, Schema> property : resolved.getProperties().entrySet()) {
+                    if (count >= 2) break; // Only include first 2 properties for partial update
+                    if (!first) json.append(",\n");
+                    json.append("      \"").append(property.getKey()).append("\": ");
+                    json.append(placeholderValue(property.getValue()));
+                    first = false;
+                    count++;
+                }
+            } else {
+                json.append("      \"name\": \"Updated Test Resource\"");
+            }
+            json.append("\n    }");
+            return json.toString();
+        });
+    }
+
+    /**
+     * Builds a valid request body with example values for every property, including nested objects
+     * @param schema The request body schema
+     * @return The JSON body
+     */
+    String testRequestBody(Schema<?> schema) {
+        Schema<?> resolved = resolve(schema);
+        return memoize(testRequestBodies, resolved, () -> {
+            try {
+                return jsonMapper.writeValueAsString(testData(resolved, new Walk()));
+            } catch (Exception e) {
+                // Fallback to schema string if JSON generation fails
+                return resolved.toString();
+            }
+        });
+    }
+
+    /**
+     * Builds a request body in which every property has the wrong type
+     * @param schema The request body schema
+     * @return The JSON body
+     */
+    String invalidRequestBody(Schema<?> schema) {
+        Schema<?> resolved = resolve(schema);
+        return memoize(invalidBodies, resolved, () -> {
+            try {
+                Map<String, Object> invalidData = new HashMap<>();
+
+                if (resolved.getProperties() != null) {
+                    for (Map.Entry<String, Schema> property : resolved.getProperties().entrySet()) {
+                        invalidData.put(property.getKey(), invalidValue(resolve(property.getValue())));
+                    }
+                }
+
+                return jsonMapper.writeValueAsString(invalidData);
+            } catch (Exception e) {
+                return "{\"invalid\": \"data\"}";
+            }
+        });
+    }
+
+    /**
+     * Builds a request body that leaves out required properties
+     * @param schema The request body schema
+     * @return The JSON body
+     */
+    String incompleteRequestBody(Schema<?> schema) {
+        Schema<?> resolved = resolve(schema);
+        return memoize(incompleteBodies, resolved, () -> {
+            try {
+                Map<String, Object> incompleteData = new HashMap<>();
+
+                if (resolved.getProperties() != null) {
+                    Walk walk = new Walk();
+                    walk.stack.add(resolved);
+                    for (Map.Entry<String, Schema> property : resolved.getProperties().entrySet()) {
+                        String key = property.getKey();
+                        Schema<?> propertySchema = property.getValue();
+
+                        // Only include non-required fields or skip some required fields
+                        if (propertySchema.getRequired() == null || !propertySchema.getRequired().contains(key)) {
+                            incompleteData.put(key, testValue(propertySchema, walk));
+                        }
+                        // Skip some required fields to test validation
+                    }
+                }
+
+                return jsonMapper.writeValueAsString(incompleteData);
+            } catch (Exception e) {
+                return "{}";
+            }
+        });
+    }
+
+    /**
+     * Builds the example value used for a property or array item of a request body
+     * @param schema The schema
+     * @return The value, with null where a reference leads back to a schema being generated
+     */
+    Object testValue(Schema<?> schema) {
+        return testValue(schema, new Walk());
+    }
+
+    private String placeholderValue(Schema<?> schema) {
+        schema = resolve(schema);
+        if (schema == null) return "\"test\"";
+
+        String type = schema.getType();
+        if (type == null) return "\"test\"";
+
+        switch (type) {
+            case "string":
+                return "\"Test Value\"";
+            case "integer":
+                return "1";
+            case "number":
+                return "1.0";
+            case "boolean":
+                return "true";
+            case "array":
+                return "[]";
+            case "object":
+                return "{}";
+            default:
+                return "\"test\"";
+        }
+    }
+
+    private Object invalidValue(Schema<?> schema) {
+        String type = schema != null ? typeOf(schema) : null;
+        if (type == null) {
+            return null; // Null value
+        }
+        switch (type) {
+            case "string":
+                return 123; // Wrong type
+            case "integer":
+                return "invalid_number"; // Wrong type
+            case "number":
+                return "invalid_float"; // Wrong type
+            case "boolean":
+                return "invalid_boolean"; // Wrong type
+            case "array":
+                return "not_an_array"; // Wrong type
+            case "object":
+                return "not_an_object"; // Wrong type
+            default:
+                return null; // Null value
+        }
+    }
+
+    private Map<String, Object> testData(Schema<?> schema, Walk walk) {
+        Map<String, Object> testData = new HashMap<>();
+
+        if (schema.getProperties() != null) {
+            walk.stack.add(schema);
+            for (Map.Entry<String, Schema> property : schema.getProperties().entrySet()) {
+                testData.put(property.getKey(), testValue(property.getValue(), walk));
+            }
+            walk.stack.remove(walk.stack.size() - 1);
+        }
+
+        return testData;
+    }
+
+    private Object testValue(Schema<?> schema, Walk walk) {
+        schema = resolve(schema);
+        if (schema == null) return null;
+
+        // Use example if available
+        if (schema.getExample() != null) {
+            return schema.getExample();
+        }
+
+        Object cached = testValues.get(schema);
+        if (cached != null) {
+            return cached == NO_VALUE ? null : cached;
+        }
+
+        // A schema that is already being generated further up refers back to itself
+        int cycleStart = indexOf(walk.stack, schema);
+        if (cycleStart >= 0) {
+            walk.shallowestCycle = Math.min(walk.shallowestCycle, cycleStart);
+            return null;
+        }
+
+        int outerCycle = walk.shallowestCycle;
+        walk.shallowestCycle = Integer.MAX_VALUE;
+
+        Object value = generateTestValue(schema, walk);
+
+        // Only values no cycle was cut in: any cut depends on what was being generated around the schema,
+        // and reusing it elsewhere would make the examples depend on the order operations are generated in
+        if (walk.shallowestCycle == Integer.MAX_VALUE) {
+            testValues.put(schema, value != null ? value : NO_VALUE);
+        }
+        walk.shallowestCycle = Math.min(outerCycle, walk.shallowestCycle);
+        return value;
+    }
+
+    private Object generateTestValue(Schema<?> schema, Walk walk) {
+        String type = typeOf(schema);
+        if (type == null) {
+            return "test_value";
+        }
+
+        // Generate test data based on type
+        switch (type) {
+            case "string":
+                // Fixed, so the same spec always generates the same request bodies
+                return "test_string";
+            case "integer":
+                return 1;
+            case "number":
+                return 1.0;
+            case "boolean":
+                return true;
+            case "array":
+                if (schema.getItems() != null) {
+                    walk.stack.add(schema);
+                    Object item = testValue(schema.getItems(), walk);
+                    walk.stack.remove(walk.stack.size() - 1);
+                    return Arrays.asList(item);
+                }
+                return Arrays.asList("test_item");
+            case "object":
+                if (schema.getProperties() != null) {
+                    return testData(schema, walk);
+                }
+                return new HashMap<>();
+            default:
+                return "test_value";
+        }
+    }
+
+    private static String typeOf(Schema<?> schema) {
+        // Schemas without a type but with properties are objects, e.g. most component schemas
+        if (schema.getType() == null && schema.getProperties() != null) {
+            return "object";
+        }
+        return schema.getType();
+    }
+
+    private <V> V memoize(Map<Schema<?>, V> cache, Schema<?> schema, Supplier<V> generator) {
+        V value = cache.get(schema);
+        if (value == null) {
+            value = generator.get();
+            cache.put(schema, value);
+        }
+        return value;
+    }
+
+    private static int indexOf(List<Schema<?>> stack, Schema<?> schema) {
+        for (int i = 0; i < stack.size(); i++) {
+            if (stack.get(i) == schema) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <V> Map<Schema<?>, V> identityMap() {
+        // Schema.equals compares the whole tree, which is slow for large schemas and loops on recursive ones
+        return Collections.synchronizedMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Schemas currently being generated, outermost first, and the shallowest of them a cycle led back to
+     */
+    private static class Walk {
+        final List<Schema<?>> stack = new ArrayList<>();
+        int shallowestCycle = Integer.MAX_VALUE;
+    }
+}
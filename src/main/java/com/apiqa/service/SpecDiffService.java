@@ -0,0 +1,276 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.SpecDiff;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.TestScenario;
+import com.apiqa.model.TestSuiteType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.models.Swagger;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Compares generated tests against the persisted tests of a spec.
+ * Every operation of a spec is fingerprinted by path, method and a hash of its schema,
+ * including the components it references and the generator inputs shared by all operations,
+ * so regeneration only touches the scenarios of operations that actually changed.
+ */
+@Service
+public class SpecDiffService {
+
+    private static final Set<String> HTTP_METHODS = Set.of("get", "put", "post", "delete", "options", "head", "patch", "trace");
+
+    /**
+     * Builds the key identifying an operation of a spec
+     * @param httpMethod The HTTP method
+     * @param path The path template as declared in the spec
+     * @return The operation key
+     */
+    public static String operationKey(String httpMethod, String path) {
+        return httpMethod.toUpperCase() + " " + path;
+    }
+
+    private static String pathKey(String path) {
+        return "* " + path;
+    }
+
+    /**
+     * Stamps every generated scenario with the schema hash of the operation it was generated from
+     * @param parsedSpec The parsed spec the feature files were generated from
+     * @param context The generator inputs outside the paths, see {@link #assignOperationHashes(Map, String, List)}
+     * @param featureFiles The generated feature files
+     */
+    public void assignOperationHashes(OpenApiParserService.ParsedSpec parsedSpec, String context, List<FeatureFile> featureFiles) {
+        assignOperationHashes(getOperationHashes(parsedSpec), context, featureFiles);
+    }
+
+    /**
+     * Stamps every generated scenario with the schema hash of the operation it was generated from.
+     * The context holds what the generator puts into every scenario besides the operation itself,
+     * such as the base URL, so changing it changes every hash and regenerates every scenario.
+     * @param hashes The operation hashes of the spec the feature files were generated from
+     * @param context The generator inputs outside the paths
+     * @param featureFiles The generated feature files
+     */
+    public void assignOperationHashes(Map<String, String> hashes, String context, List<FeatureFile> featureFiles) {
+        for (FeatureFile featureFile : featureFiles) {
+            for (TestScenario scenario : featureFile.getTestScenarios()) {
+                String operationKey = scenario.getOperationKey();
+                if (operationKey == null) {
+                    continue;
+                }
+                String path = operationKey.substring(operationKey.indexOf(' ') + 1);
+                // Integration flows chain several operations of a path, so they change with any of them
+                String hash = featureFile.getSuiteType() == TestSuiteType.INTEGRATION
+                        ? hashes.get(pathKey(path))
+                        : hashes.getOrDefault(operationKey, hashes.get(pathKey(path)));
+                scenario.setOperationHash(hash != null ? sha256(context + "\n" + hash) : null);
+            }
+        }
+    }
+
+    /**
+     * Returns the schema hash of every operation and path of a spec, computing it on first use
+     * @param parsedSpec The parsed spec
+     * @return Hashes by operation key, plus one entry per path covering the whole path item
+     */
+    public Map<String, String> getOperationHashes(OpenApiParserService.ParsedSpec parsedSpec) {
+        Map<String, String> hashes = parsedSpec.getOperationHashes();
+        if (hashes == null) {
+            hashes = computeOperationHashes(parsedSpec);
+            parsedSpec.setOperationHashes(hashes);
+        }
+        return hashes;
+    }
+
+    /**
+     * Matches generated feature files and scenarios against the existing ones.
+     * Feature files are matched by suite type and position, scenarios by operation, name and occurrence;
+     * a matched scenario counts as changed when the hash of its operation differs.
+     * @param existingFiles The persisted feature files of the spec
+     * @param generatedFiles The freshly generated feature files
+     * @return The difference to apply
+     */
+    public SpecDiff diff(List<FeatureFile> existingFiles, List<FeatureFile> generatedFiles) {
+        SpecDiff diff = new SpecDiff();
+
+        Map<String, FeatureFile> existingByKey = keyFeatureFiles(existingFiles.stream()
+                .sorted(Comparator.comparing(FeatureFile::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList());
+        Map<String, FeatureFile> generatedByKey = keyFeatureFiles(generatedFiles);
+
+        for (Map.Entry<String, FeatureFile> entry : generatedByKey.entrySet()) {
+            FeatureFile generated = entry.getValue();
+            FeatureFile existing = existingByKey.remove(entry.getKey());
+            if (existing == null) {
+                diff.getAddedFiles().add(generated);
+                generated.getTestScenarios().forEach(scenario -> addAffected(diff, scenario));
+                continue;
+            }
+            diff.getRetainedFiles().put(existing, generated);
+            diffScenarios(diff, existing, generated);
+        }
+
+        for (FeatureFile removed : existingByKey.values()) {
+            diff.getRemovedFiles().add(removed);
+            removed.getTestScenarios().forEach(scenario -> addAffected(diff, scenario));
+        }
+        return diff;
+    }
+
+    private void diffScenarios(SpecDiff diff, FeatureFile existing, FeatureFile generated) {
+        Map<String, TestScenario> existingByKey = keyScenarios(existing.getTestScenarios());
+
+        for (Map.Entry<String, TestScenario> entry : keyScenarios(generated.getTestScenarios()).entrySet()) {
+            TestScenario scenario = entry.getValue();
+            TestScenario previous = existingByKey.remove(entry.getKey());
+            if (previous == null) {
+                diff.getAddedScenarios().put(scenario, existing);
+                addAffected(diff, scenario);
+            } else if (!Objects.equals(previous.getOperationHash(), scenario.getOperationHash())) {
+                diff.getChangedScenarios().put(previous, scenario);
+                addAffected(diff, scenario);
+            } else {
+                diff.incrementUnchangedScenarios();
+            }
+        }
+
+        for (TestScenario removed : existingByKey.values()) {
+            diff.getRemovedScenarios().add(removed);
+            addAffected(diff, removed);
+        }
+    }
+
+    private static void addAffected(SpecDiff diff, TestScenario scenario) {
+        if (scenario.getOperationKey() != null) {
+            diff.getAffectedOperations().add(scenario.getOperationKey());
+        }
+    }
+
+    private static Map<String, FeatureFile> keyFeatureFiles(List<FeatureFile> featureFiles) {
+        Map<String, FeatureFile> keyed = new LinkedHashMap<>();
+        Map<TestSuiteType, Integer> occurrences = new HashMap<>();
+        for (FeatureFile featureFile : featureFiles) {
+            // Negative and system tests share a suite type, so position within the suite tells them apart
+            int occurrence = occurrences.merge(featureFile.getSuiteType(), 1, Integer::sum);
+            keyed.put(featureFile.getSuiteType() + "#" + occurrence, featureFile);
+        }
+        return keyed;
+    }
+
+    private static Map<String, TestScenario> keyScenarios(List<TestScenario> scenarios) {
+        Map<String, TestScenario> keyed = new LinkedHashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (TestScenario scenario : scenarios) {
+            // Integration flows of different operations share names, so a new operation must not take over another's scenario
+            String name = scenario.getOperationKey() + " " + scenario.getScenarioName();
+            int occurrence = occurrences.merge(name, 1, Integer::sum);
+            keyed.put(name + "#" + occurrence, scenario);
+        }
+        return keyed;
+    }
+
+    private Map<String, String> computeOperationHashes(OpenApiParserService.ParsedSpec parsedSpec) {
+        return parsedSpec.getOpenApi() != null
+                ? computeOperationHashes(parsedSpec.getOpenApi())
+                : computeOperationHashes(parsedSpec.getSwagger());
+    }
+
+    /**
+     * Computes the schema hash of every operation and path of an OpenAPI 3 model
+     * @param openAPI The model, which only needs to hold the components its paths reference
+     * @return Hashes by operation key, plus one entry per path covering the whole path item
+     */
+    public Map<String, String> computeOperationHashes(OpenAPI openAPI) {
+        return computeOperationHashes(io.swagger.v3.core.util.Json.mapper().<JsonNode>valueToTree(openAPI));
+    }
+
+    /**
+     * Computes the schema hash of every operation and path of a Swagger 2.0 model
+     * @param swagger The model, which only needs to hold the definitions its paths reference
+     * @return Hashes by operation key, plus one entry per path covering the whole path item
+     */
+    public Map<String, String> computeOperationHashes(Swagger swagger) {
+        return computeOperationHashes(io.swagger.util.Json.mapper().<JsonNode>valueToTree(swagger));
+    }
+
+    private Map<String, String> computeOperationHashes(JsonNode root) {
+        Map<String, String> hashes = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> paths = root.path("paths").fields();
+        while (paths.hasNext()) {
+            Map.Entry<String, JsonNode> path = paths.next();
+            JsonNode pathItem = path.getValue();
+            // The Swagger 2 deserializer adds an empty parameter list that the parser leaves out, so ignore it
+            JsonNode pathParameters = pathItem.get("parameters");
+            if (pathParameters != null && pathParameters.isArray() && pathParameters.isEmpty()) {
+                ((ObjectNode) pathItem).remove("parameters");
+            }
+            hashes.put(pathKey(path.getKey()), hash(root, pathItem));
+
+            Iterator<Map.Entry<String, JsonNode>> fields = pathItem.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!HTTP_METHODS.contains(field.getKey())) {
+                    continue;
+                }
+                // Path-level parameters apply to every operation of the path
+                ObjectNode operation = JsonNodeFactory.instance.objectNode();
+                operation.set("parameters", pathItem.get("parameters"));
+                operation.set("operation", field.getValue());
+                hashes.put(operationKey(field.getKey(), path.getKey()), hash(root, operation));
+            }
+        }
+        return hashes;
+    }
+
+    private static String hash(JsonNode root, JsonNode node) {
+        StringBuilder canonical = new StringBuilder(node.toString());
+
+        // Fold in every component reachable through $ref, so editing a shared schema changes its users
+        Set<String> visited = new HashSet<>();
+        Deque<JsonNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            List<String> refs = new ArrayList<>();
+            collectRefs(pending.pop(), refs);
+            for (String ref : refs) {
+                if (!ref.startsWith("#/") || !visited.add(ref)) {
+                    continue;
+                }
+                JsonNode target = root.at(ref.substring(1));
+                canonical.append('\n').append(ref).append('=').append(target.toString());
+                pending.push(target);
+            }
+        }
+
+        return sha256(canonical.toString());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void collectRefs(JsonNode node, List<String> refs) {
+        if (node.isObject()) {
+            JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                refs.add(ref.asText());
+            }
+        }
+        for (JsonNode child : node) {
+            collectRefs(child, refs);
+        }
+    }
+}
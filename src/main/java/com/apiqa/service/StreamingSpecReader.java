@@ -0,0 +1,312 @@
+package com.apiqa.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.swagger.models.Swagger;
+import io.swagger.parser.util.SwaggerDeserializer;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.util.OpenAPIDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads API specs from a stream without materializing the whole document.
+ * Everything except {@code paths} is kept in memory as a skeleton, including the components;
+ * path items are then streamed in batches, and each batch is turned into a model that carries only
+ * the components its {@code $ref}s reach. Peak memory of the input side is therefore the size of the
+ * components plus one batch of paths, which is far below the spec size for specs dominated by their paths
+ * but grows with specs that define most of their content as shared components.
+ */
+@Service
+public class StreamingSpecReader {
+
+    private final ObjectMapper yamlMapper;
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Value("${apiqa.generation.stream-batch-paths:200}")
+    private int batchPaths;
+
+    @Value("${apiqa.generation.stream-batch-chars:2000000}")
+    private long batchChars;
+
+    public StreamingSpecReader() {
+        // Vendor specs easily exceed SnakeYAML's default 3 MB document limit
+        LoaderOptions loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        yamlMapper = new ObjectMapper(YAMLFactory.builder().loaderOptions(loaderOptions).build());
+    }
+
+    /**
+     * Reads the skeleton of a spec, skipping over its paths
+     * @param source Opens a new stream of the spec content on every call
+     * @return The streaming spec
+     */
+    public StreamingSpec open(Supplier<InputStream> source) {
+        ObjectNode skeleton = jsonMapper.createObjectNode();
+        int[] pathCount = {0};
+        read(source, (field, parser) -> {
+            if ("paths".equals(field)) {
+                skipPaths(parser, pathCount);
+            } else {
+                skeleton.set(field, readValue(parser));
+            }
+        });
+
+        String specVersion;
+        if (skeleton.path("swagger").asText("").startsWith("2.")) {
+            specVersion = "swagger";
+        } else if (skeleton.path("openapi").asText("").startsWith("3.")) {
+            specVersion = "openapi";
+        } else {
+            throw new RuntimeException("Unable to detect API specification version");
+        }
+        return new StreamingSpec(source, skeleton, specVersion, pathCount[0]);
+    }
+
+    private void read(Supplier<InputStream> source, FieldHandler handler) {
+        // Normalized on the fly, so streamed specs are read the same way as specs parsed in memory
+        try (Reader in = new BufferedReader(YamlNormalizer.normalizing(new InputStreamReader(source.get(), StandardCharsets.UTF_8)));
+             JsonParser parser = createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new RuntimeException("API specification must be a YAML or JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                handler.handle(field, parser);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read API specification: " + e.getMessage(), e);
+        }
+    }
+
+    private JsonParser createParser(Reader in) throws IOException {
+        // Skip a byte order mark, which the parsers do not expect in character input
+        in.mark(1);
+        if (in.read() != '\uFEFF') {
+            in.reset();
+        }
+
+        // JSON is valid YAML, but the JSON parser is considerably faster on large documents
+        in.mark(1024);
+        int first;
+        do {
+            first = in.read();
+        } while (first != -1 && Character.isWhitespace(first));
+        in.reset();
+
+        JsonFactory factory = first == '{' ? jsonMapper.getFactory() : yamlMapper.getFactory();
+        return factory.createParser(in);
+    }
+
+    private static long offset(JsonParser parser) {
+        return parser.currentLocation().getCharOffset();
+    }
+
+    private JsonNode readValue(JsonParser parser) throws IOException {
+        JsonNode value = jsonMapper.readTree(parser);
+        return value != null ? value : jsonMapper.nullNode();
+    }
+
+    private static void skipPaths(JsonParser parser, int[] pathCount) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            pathCount[0]++;
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        void handle(String field, JsonParser parser) throws IOException;
+    }
+
+    /**
+     * An API spec whose paths are read from the source on demand
+     */
+    public class StreamingSpec {
+        private final Supplier<InputStream> source;
+        private final ObjectNode skeleton;
+        private final String specVersion;
+        private final int pathCount;
+
+        StreamingSpec(Supplier<InputStream> source, ObjectNode skeleton, String specVersion, int pathCount) {
+            this.source = source;
+            this.skeleton = skeleton;
+            this.specVersion = specVersion;
+            this.pathCount = pathCount;
+        }
+
+        public String getSpecVersion() {
+            return specVersion;
+        }
+
+        public int getPathCount() {
+            return pathCount;
+        }
+
+        /**
+         * @return info.version of the spec, or null if it declares none
+         */
+        public String getApiVersion() {
+            JsonNode version = skeleton.path("info").get("version");
+            return version != null && !version.isNull() ? version.asText() : null;
+        }
+
+        /**
+         * @return The OpenAPI 3 model of the spec without any paths
+         */
+        public OpenAPI getOpenApiSkeleton() {
+            return toOpenApi(document(Collections.emptyMap()));
+        }
+
+        /**
+         * @return The Swagger 2.0 model of the spec without any paths
+         */
+        public Swagger getSwaggerSkeleton() {
+            return toSwagger(document(Collections.emptyMap()));
+        }
+
+        /**
+         * Streams the paths of an OpenAPI 3 spec in document order, one batch at a time
+         * @param consumer Receives a model holding one batch of paths and the components they reference
+         */
+        public void forEachOpenApiBatch(Consumer<OpenAPI> consumer) {
+            forEachBatch(batch -> consumer.accept(toOpenApi(document(batch))));
+        }
+
+        /**
+         * Streams the paths of a Swagger 2.0 spec in document order, one batch at a time
+         * @param consumer Receives a model holding one batch of paths and the definitions they reference
+         */
+        public void forEachSwaggerBatch(Consumer<Swagger> consumer) {
+            forEachBatch(batch -> consumer.accept(toSwagger(document(batch))));
+        }
+
+        private void forEachBatch(Consumer<Map<String, JsonNode>> consumer) {
+            read(source, (field, parser) -> {
+                if (!"paths".equals(field) || parser.currentToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    return;
+                }
+                Map<String, JsonNode> batch = new LinkedHashMap<>();
+                long batchStart = offset(parser);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String path = parser.getCurrentName();
+                    parser.nextToken();
+                    batch.put(path, readValue(parser));
+                    // Cut by size as well as by count, since a single path item of a vendor spec can be huge
+                    if (batch.size() >= batchPaths || offset(parser) - batchStart >= batchChars) {
+                        consumer.accept(batch);
+                        batch = new LinkedHashMap<>();
+                        batchStart = offset(parser);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    consumer.accept(batch);
+                }
+            });
+        }
+
+        private ObjectNode document(Map<String, JsonNode> paths) {
+            ObjectNode document = jsonMapper.createObjectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = skeleton.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!isComponentSection(field.getKey())) {
+                    document.set(field.getKey(), field.getValue());
+                }
+            }
+
+            ObjectNode pathsNode = document.putObject("paths");
+            paths.forEach(pathsNode::set);
+
+            // Resolve $refs lazily: copy only the components reachable from this batch
+            Set<String> visited = new HashSet<>();
+            Deque<JsonNode> pending = new ArrayDeque<>(paths.values());
+            while (!pending.isEmpty()) {
+                List<String> refs = new ArrayList<>();
+                collectRefs(pending.pop(), refs);
+                for (String ref : refs) {
+                    if (!ref.startsWith("#/") || !visited.add(ref)) {
+                        continue;
+                    }
+                    JsonNode target = skeleton.at(ref.substring(1));
+                    if (!target.isMissingNode()) {
+                        put(document, ref.substring(2).split("/"), target);
+                        pending.push(target);
+                    }
+                }
+            }
+            return document;
+        }
+
+        private boolean isComponentSection(String field) {
+            return "components".equals(field) || "definitions".equals(field)
+                    || ("swagger".equals(specVersion) && ("parameters".equals(field) || "responses".equals(field)));
+        }
+
+        private void put(ObjectNode document, String[] pointer, JsonNode value) {
+            ObjectNode parent = document;
+            for (int i = 0; i < pointer.length - 1; i++) {
+                String key = unescape(pointer[i]);
+                JsonNode child = parent.get(key);
+                parent = child instanceof ObjectNode ? (ObjectNode) child : parent.putObject(key);
+            }
+            parent.set(unescape(pointer[pointer.length - 1]), value);
+        }
+
+        private String unescape(String segment) {
+            return segment.replace("~1", "/").replace("~0", "~");
+        }
+
+        private void collectRefs(JsonNode node, List<String> refs) {
+            if (node.isObject()) {
+                JsonNode ref = node.get("$ref");
+                if (ref != null && ref.isTextual()) {
+                    refs.add(ref.asText());
+                }
+            }
+            for (JsonNode child : node) {
+                collectRefs(child, refs);
+            }
+        }
+
+        private OpenAPI toOpenApi(JsonNode document) {
+            OpenAPI openAPI = new OpenAPIDeserializer().deserialize(document).getOpenAPI();
+            if (openAPI == null) {
+                throw new RuntimeException("Failed to parse OpenAPI 3.0.0 specification");
+            }
+            return openAPI;
+        }
+
+        private Swagger toSwagger(JsonNode document) {
+            Swagger swagger = new SwaggerDeserializer().deserialize(document).getSwagger();
+            if (swagger == null) {
+                throw new RuntimeException("Failed to parse Swagger 2.0 specification");
+            }
+            return swagger;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.apiqa.service;
 
+import com.apiqa.dto.RunCredentials;
 import com.apiqa.model.*;
 import com.apiqa.repository.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -29,9 +34,45 @@ public class TestExecutionService {
     private TestSuiteRepository testSuiteRepository;
     
     @Autowired
-    private EnvironmentVariableRepository environmentVariableRepository;
+    private CredentialResolutionService credentialResolutionService;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private OAuth2TokenService oAuth2TokenService;
+    
+    @Autowired
+    private BlobStoreService blobStoreService;
+    
+    @Autowired
+    private AnalyticsExportService analyticsExportService;
+    
+    @Autowired
+    private LatencyTimeSeriesService latencyTimeSeriesService;
+    
+    @Autowired
+    private TestRunControlService testRunControlService;
+    
+    @Autowired
+    private TestRunEventService testRunEventService;
+    
+    @Autowired
+    private TestSelectionService testSelectionService;
+    
+    @Value("${apiqa.test-runs.execution-order:GENERATED}")
+    private ExecutionOrder defaultExecutionOrder;
+    
+    @Value("${apiqa.test-runs.fail-fast-threshold:0}")
+    private int defaultFailFastThreshold;
+    
+    @Value("${apiqa.test-runs.reuse-responses:false}")
+    private boolean reuseResponses;
+    
+    private RestTemplate restTemplate;
+    
+    @PostConstruct
+    public void initRestTemplate() {
+        // Requests made for a test run can be aborted when the run is cancelled
+        restTemplate = new RestTemplate(testRunControlService.requestFactory());
+    }
     
     // Execute Test Suite
     public TestRun executeTestSuite(Long testSuiteId, String runName) {
@@ -43,12 +84,13 @@ public class TestExecutionService {
         TestSuite testSuite = testSuiteOpt.get();
         TestRun testRun = new TestRun(runName, com.apiqa.model.TestRunType.MANUAL, testSuite.getTestType().name(), testSuite);
         testRun = testRunRepository.save(testRun);
+        RunCredentials credentials = credentialResolutionService.resolveForRun(testRun);
         
         List<TestCase> testCases = testCaseRepository.findByTestSuiteId(testSuiteId);
         List<TestExecution> executions = new ArrayList<>();
         
         for (TestCase testCase : testCases) {
-            TestExecution execution = executeTestCase(testCase, testRun);
+            TestExecution execution = executeTestCase(testCase, testRun, credentials);
             executions.add(execution);
         }
         
@@ -63,6 +105,10 @@ public class TestExecutionService {
     
     // Execute Test Case
     public TestExecution executeTestCase(TestCase testCase, TestRun testRun) {
+        return executeTestCase(testCase, testRun, credentialResolutionService.resolveForRun(testRun));
+    }
+    
+    private TestExecution executeTestCase(TestCase testCase, TestRun testRun, RunCredentials credentials) {
         TestExecution execution = new TestExecution(testCase, testRun);
         execution.setRequestMethod(testCase.getHttpMethod());
         execution.setRequestUrl(testCase.getEndpoint());
@@ -75,13 +121,13 @@ public class TestExecutionService {
             System.out.println("Executing test case: " + testCase.getName() + " with endpoint: " + testCase.getEndpoint());
             
             // Execute the HTTP request
-            ResponseEntity<String> response = executeHttpRequest(testCase);
+            ResponseEntity<String> response = executeHttpRequest(testCase, credentials);
             
             System.out.println("HTTP request completed. Status: " + response.getStatusCode().value());
             System.out.println("Response body: " + (response.getBody() != null ? response.getBody().substring(0, Math.min(100, response.getBody().length())) + "..." : "null"));
             
             execution.setActualStatusCode(response.getStatusCode().value());
-            execution.setActualResponseBody(response.getBody());
+            setResponseBody(execution, response.getBody());
             execution.setActualHeaders(response.getHeaders().toString());
             
             // Execute test case steps
@@ -145,12 +191,12 @@ public class TestExecutionService {
                 }
             }
             
-    private ResponseEntity<String> executeHttpRequest(TestCase testCase) {
+    private ResponseEntity<String> executeHttpRequest(TestCase testCase, RunCredentials credentials) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         
         // Add Authorization header if token is available
-        addAuthorizationHeader(headers, null);
+        addAuthorizationHeader(headers, credentials);
         
         HttpEntity<String> entity = new HttpEntity<>(testCase.getRequestBody(), headers);
         
@@ -282,41 +328,194 @@ public class TestExecutionService {
     // Additional methods for compatibility with existing services
     public TestRun executeTestRun(TestRun testRun, List<TestExecution> executions) {
         testRun.setStatus(TestRunStatus.RUNNING);
-        testRun = testRunRepository.save(testRun);
+        testRunRepository.save(testRun);
+        RunCredentials credentials = credentialResolutionService.resolveForRun(testRun);
         
         // Execute each test execution
-        for (TestExecution execution : executions) {
-            executeTestScenario(execution);
-        }
+        boolean cancelled = executeScenarios(testRun, executions, credentials);
         
         // Process executions
-        boolean allPassed = executions.stream().allMatch(e -> e.getStatus() == TestExecutionStatus.PASSED);
-        testRun.setStatus(allPassed ? TestRunStatus.COMPLETED : TestRunStatus.FAILED);
-        testRun.setEndedAt(LocalDateTime.now());
-        return testRunRepository.save(testRun);
+        completeRun(testRun, executions, cancelled);
+        testRunRepository.save(testRun);
+        onRunCompleted(testRun);
+        return testRun;
     }
     
+    /**
+     * Executes the saved executions of a run. Outside a transaction each save commits on its own,
+     * and the run and its executions stay detached, so their scenarios are loaded up front.
+     * @param testRun The test run, with its spec and environment loaded
+     * @return The finished test run
+     */
     public TestRun executeTestRun(TestRun testRun) {
         testRun.setStatus(TestRunStatus.RUNNING);
-        testRun = testRunRepository.save(testRun);
+        testRunRepository.save(testRun);
         
         // Get all test executions for this test run
-        List<TestExecution> executions = testExecutionRepository.findByTestRunId(testRun.getId());
+        List<TestExecution> executions = testExecutionRepository.findByTestRunIdWithScenario(testRun.getId());
+        RunCredentials credentials = credentialResolutionService.resolveForRun(testRun);
         
         // Execute each test execution
+        boolean cancelled = executeScenarios(testRun, executions, credentials);
+        
+        // Update test run status based on execution results
+        completeRun(testRun, executions, cancelled);
+        testRunRepository.save(testRun);
+        onRunCompleted(testRun);
+        return testRun;
+    }
+    
+    /**
+     * Executes the scenarios of a run in its execution order, pausing and stopping between them when asked to.
+     * Once the run is cancelled, the execution that was in flight and all remaining ones are skipped.
+     * Once the run reaches its fail-fast threshold, the remaining ones are skipped.
+     * @param testRun The test run
+     * @param executions The executions of the run
+     * @param credentials The credentials resolved for the run
+     * @return true if the run was cancelled
+     */
+    private boolean executeScenarios(TestRun testRun, List<TestExecution> executions, RunCredentials credentials) {
+        List<TestExecution> ordered = orderExecutions(testRun, executions);
+        int failFastThreshold = testRun.getFailFastThreshold() != null ? testRun.getFailFastThreshold() : defaultFailFastThreshold;
+        int failures = 0;
+        // Identical safe requests within the run share one response
+        RunResponseCache responseCache = reuseResponses ? new RunResponseCache() : null;
+        
+        TestRunControlService.RunControl control = testRunControlService.start(testRun.getId());
+        testRunEventService.runStarted(testRun.getId(), executions.size());
+        try {
+            for (TestExecution execution : ordered) {
+                if (failFastThreshold > 0 && failures >= failFastThreshold) {
+                    skipExecution(execution, "Skipped after " + failures + " failures (fail fast)");
+                } else if (control.awaitTurn()) {
+                    executeTestScenario(execution, credentials, control, responseCache);
+                    if (execution.getStatus() == TestExecutionStatus.FAILED || execution.getStatus() == TestExecutionStatus.ERROR) {
+                        failures++;
+                    }
+                } else {
+                    skipExecution(execution, control.getCancelReason());
+                }
+                testRunEventService.executionCompleted(testRun.getId(), execution);
+            }
+            
+            if (failFastThreshold > 0 && failures >= failFastThreshold && !control.isCancelled()) {
+                long skipped = ordered.stream().filter(execution -> execution.getStatus() == TestExecutionStatus.SKIPPED).count();
+                testRun.setErrorMessage("Fail fast: stopped after " + failures + " failures, " + skipped + " scenarios skipped");
+                System.out.println("Test run " + testRun.getId() + " " + testRun.getErrorMessage());
+            }
+            if (control.isCancelled()) {
+                testRun.setErrorMessage(control.getCancelReason());
+            }
+            if (responseCache != null && responseCache.getReusedCount() > 0) {
+                System.out.println("Test run " + testRun.getId() + " reused " + responseCache.getReusedCount() + " responses to identical requests");
+            }
+            return control.isCancelled();
+        } finally {
+            testRunControlService.finish(testRun.getId());
+        }
+    }
+    
+    /**
+     * Puts the executions of a run in its execution order. Generated order is the order the scenarios
+     * were created in; fail-fast order puts the scenarios most likely to fail first.
+     * @param testRun The test run
+     * @param executions The executions of the run
+     * @return The executions in the order to run them
+     */
+    private List<TestExecution> orderExecutions(TestRun testRun, List<TestExecution> executions) {
+        ExecutionOrder order = testRun.getExecutionOrder() != null ? testRun.getExecutionOrder() : defaultExecutionOrder;
+        if (order == ExecutionOrder.FAIL_FAST && testRun.getApiSpec() != null) {
+            return testSelectionService.orderForFailFast(testRun.getApiSpec().getId(), executions);
+        }
+        // Executions are created in scenario order, unsaved ones keep their place
+        List<TestExecution> ordered = new ArrayList<>(executions);
+        ordered.sort(Comparator.comparing(TestExecution::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return ordered;
+    }
+    
+    private void skipExecution(TestExecution execution, String reason) {
+        execution.setStatus(TestExecutionStatus.SKIPPED);
+        execution.setErrorMessage(reason);
+        testExecutionRepository.save(execution);
+    }
+    
+    /**
+     * Sets the final status and the counters of a run
+     * @param testRun The test run
+     * @param executions The executions of the run
+     * @param cancelled Whether the run was cancelled
+     */
+    private void completeRun(TestRun testRun, List<TestExecution> executions, boolean cancelled) {
+        int passed = 0;
+        int failed = 0;
+        int skipped = 0;
         for (TestExecution execution : executions) {
-            executeTestScenario(execution);
+            if (execution.getStatus() == TestExecutionStatus.PASSED) {
+                passed++;
+            } else if (execution.getStatus() == TestExecutionStatus.SKIPPED) {
+                skipped++;
+            } else {
+                failed++;
+            }
         }
         
-        // Update test run status based on execution results
-        boolean allPassed = executions.stream().allMatch(e -> e.getStatus() == TestExecutionStatus.PASSED);
-        testRun.setStatus(allPassed ? TestRunStatus.COMPLETED : TestRunStatus.FAILED);
+        testRun.setTotalTests(executions.size());
+        testRun.setPassedTests(passed);
+        testRun.setFailedTests(failed);
+        testRun.setSkippedTests(skipped);
+        if (cancelled) {
+            testRun.setStatus(TestRunStatus.CANCELLED);
+        } else {
+            testRun.setStatus(passed == executions.size() ? TestRunStatus.COMPLETED : TestRunStatus.FAILED);
+        }
         testRun.setEndedAt(LocalDateTime.now());
-        return testRunRepository.save(testRun);
+        testRunEventService.runFinished(testRun);
+    }
+    
+    /**
+     * Feeds a finished run into the downstream analytics stores.
+     * Failures are logged and never change the outcome of the run.
+     * @param testRun The finished test run
+     */
+    private void onRunCompleted(TestRun testRun) {
+        // Only once the run has committed: a run that rolls back is never exported,
+        // and both stores write in transactions of their own, so they cannot roll the run back
+        runAfterCommit(() -> {
+            try {
+                long rows = analyticsExportService.exportRun(testRun);
+                System.out.println("Exported " + rows + " executions of test run " + testRun.getId() + " for analytics");
+            } catch (Exception e) {
+                System.err.println("Error exporting analytics for test run " + testRun.getId() + ": " + e.getMessage());
+            }
+            
+            try {
+                latencyTimeSeriesService.recordRun(testRun);
+            } catch (Exception e) {
+                System.err.println("Error recording latency for test run " + testRun.getId() + ": " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Runs a task once the current transaction has committed, or right away outside a transaction
+     * @param task The task; it must not throw, since the commit has already happened
+     */
+    private void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
     }
     
     // Execute TestScenario-based test execution
-    private void executeTestScenario(TestExecution execution) {
+    private void executeTestScenario(TestExecution execution, RunCredentials credentials, TestRunControlService.RunControl control,
+                                     RunResponseCache responseCache) {
         if (execution.getTestScenario() == null) {
             System.out.println("No test scenario found for execution: " + execution.getId());
             return;
@@ -329,18 +528,26 @@ public class TestExecutionService {
         execution.setRequestHeaders("Content-Type: application/json");
         
         long startTime = System.currentTimeMillis();
+        RunResponseCache.Result shared = null;
         
         try {
             System.out.println("Executing test scenario: " + scenario.getScenarioName() + " with endpoint: " + scenario.getEndpoint());
             
-            // Execute the HTTP request
-            ResponseEntity<String> response = executeHttpRequestForScenario(scenario);
+            // Execute the HTTP request, or share the response to an identical one of the run
+            RequestEntity<String> request = buildRequestForScenario(scenario, credentials);
+            ResponseEntity<String> response;
+            if (responseCache != null) {
+                shared = responseCache.exchange(request, this::send);
+                response = shared.getResponse();
+            } else {
+                response = send(request);
+            }
             
             System.out.println("HTTP request completed. Status: " + response.getStatusCode().value());
             System.out.println("Response body: " + (response.getBody() != null ? response.getBody().substring(0, Math.min(100, response.getBody().length())) + "..." : "null"));
             
             execution.setActualStatusCode(response.getStatusCode().value());
-            execution.setActualResponseBody(response.getBody());
+            setResponseBody(execution, response.getBody());
             execution.setActualHeaders(response.getHeaders().toString());
             
             // Basic validation based on expected values
@@ -373,28 +580,37 @@ public class TestExecutionService {
             System.out.println("Test scenario execution completed. Status: " + execution.getStatus());
             
         } catch (Exception e) {
-            System.err.println("Error executing test scenario: " + e.getMessage());
-            e.printStackTrace();
-            execution.setStatus(TestExecutionStatus.FAILED);
-            execution.setErrorMessage(e.getMessage());
-            execution.setValidationResults("Error: " + e.getMessage());
+            if (control.isCancelled()) {
+                // The request was aborted by the cancellation, not failed by the API under test
+                execution.setStatus(TestExecutionStatus.SKIPPED);
+                execution.setErrorMessage("Test run cancelled");
+            } else {
+                System.err.println("Error executing test scenario: " + e.getMessage());
+                e.printStackTrace();
+                execution.setStatus(TestExecutionStatus.FAILED);
+                execution.setErrorMessage(e.getMessage());
+                execution.setValidationResults("Error: " + e.getMessage());
+            }
         }
         
-        // Calculate execution time
+        // Calculate execution time; a shared response took as long as the call that got it
         long executionTime = System.currentTimeMillis() - startTime;
+        execution.setResponseReused(shared != null && shared.isReused());
+        if (shared != null && shared.isReused()) {
+            executionTime = shared.getDurationMs();
+            execution.setValidationResults(execution.getValidationResults() + "\nResponse reused from an identical request earlier in this run");
+        }
         execution.setExecutionTimeMs(executionTime);
         
         testExecutionRepository.save(execution);
     }
     
-    private ResponseEntity<String> executeHttpRequestForScenario(TestScenario scenario) {
+    private RequestEntity<String> buildRequestForScenario(TestScenario scenario, RunCredentials credentials) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         
         // Add Authorization header if token is available
-        addAuthorizationHeader(headers, scenario.getFeatureFile().getApiSpec());
-        
-        HttpEntity<String> entity = new HttpEntity<>(scenario.getRequestBody(), headers);
+        addAuthorizationHeader(headers, credentials);
         
         HttpMethod method = HttpMethod.valueOf(scenario.getHttpMethod());
         
@@ -405,7 +621,12 @@ public class TestExecutionService {
             endpoint = "http://localhost:8080" + (endpoint.startsWith("/") ? "" : "/") + endpoint;
         }
         
-        return restTemplate.exchange(endpoint, method, entity, String.class);
+        // Expanded the same way the RestTemplate expands a URL string
+        return new RequestEntity<>(scenario.getRequestBody(), headers, method, restTemplate.getUriTemplateHandler().expand(endpoint));
+    }
+    
+    private ResponseEntity<String> send(RequestEntity<String> request) {
+        return restTemplate.exchange(request, String.class);
     }
     
     public TestRun retryFailedTests(TestRun testRun) {
@@ -428,75 +649,42 @@ public class TestExecutionService {
     }
     
     /**
-     * Adds Authorization header with Bearer token if a 'token' environment variable is found
-     * @param headers The HTTP headers to add the Authorization header to
-     * @param apiSpec The API spec to get the environment from (can be null)
+     * Returns the response body of an execution, loading it from the blob store if needed
+     * @param execution The test execution
+     * @return The response body or null if none was recorded
      */
-    private void addAuthorizationHeader(HttpHeaders headers, ApiSpec apiSpec) {
-        try {
-            // Get token from environment variables
-            String token = getTokenFromEnvironment(apiSpec);
-            if (token != null && !token.trim().isEmpty()) {
-                headers.set("Authorization", "Bearer " + token);
-                System.out.println("Added Authorization header with Bearer token");
-            }
-        } catch (Exception e) {
-            System.err.println("Error adding Authorization header: " + e.getMessage());
+    public String getResponseBody(TestExecution execution) {
+        if (execution.getActualResponseBody() == null && execution.getResponseBodyHash() != null) {
+            execution.setActualResponseBody(blobStoreService.load(execution.getResponseBodyHash()));
         }
+        return execution.getActualResponseBody();
     }
     
     /**
-     * Retrieves the token value from environment variables
-     * @param apiSpec The API spec to get the environment from (can be null)
-     * @return The token value or null if not found
+     * Records the response body on the execution and offloads it to the blob store
+     * @param execution The test execution
+     * @param body The response body (can be null)
      */
-    private String getTokenFromEnvironment(ApiSpec apiSpec) {
-        try {
-            // First try to get token from the current test run's environment
-            if (apiSpec != null) {
-                // Get all test runs for this API spec and find the most recent one with an environment
-                List<TestRun> testRuns = testRunRepository.findByApiSpecIdOrderByStartedAtDesc(apiSpec.getId());
-                for (TestRun testRun : testRuns) {
-                    if (testRun.getEnvironment() != null) {
-                        String token = getTokenFromEnvironmentVariables(testRun.getEnvironment().getId());
-                        if (token != null) {
-                            return token;
-                        }
-                    }
-                }
-            }
-            
-            // If no environment found in test runs, try to get from any environment
-            List<EnvironmentVariable> tokenVariables = environmentVariableRepository.findByKeyIgnoreCase("token");
-            if (!tokenVariables.isEmpty()) {
-                // Return the first token found (you might want to implement environment selection logic)
-                return tokenVariables.get(0).getValue();
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Error retrieving token from environment: " + e.getMessage());
-        }
-        
-        return null;
+    private void setResponseBody(TestExecution execution, String body) {
+        execution.setActualResponseBody(body);
+        execution.setResponseBodyHash(blobStoreService.store(body));
+        execution.setResponseBodySize(body != null ? (long) body.getBytes(java.nio.charset.StandardCharsets.UTF_8).length : null);
     }
     
     /**
-     * Gets the token value from a specific environment
-     * @param environmentId The environment ID
-     * @return The token value or null if not found
+     * Adds the Authorization header from the run's credentials snapshot.
+     * Environments with an OAuth2 token endpoint get a cached, automatically refreshed
+     * access token; otherwise the static token variable is used.
+     * @param headers The request headers
+     * @param credentials The credentials resolved for the run
      */
-    private String getTokenFromEnvironmentVariables(Long environmentId) {
-        try {
-            List<EnvironmentVariable> variables = environmentVariableRepository.findByEnvironmentId(environmentId);
-            for (EnvironmentVariable variable : variables) {
-                if ("token".equalsIgnoreCase(variable.getKey())) {
-                    return variable.getValue();
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error retrieving token from environment " + environmentId + ": " + e.getMessage());
+    private void addAuthorizationHeader(HttpHeaders headers, RunCredentials credentials) {
+        String token = oAuth2TokenService.isConfigured(credentials)
+                ? oAuth2TokenService.getAccessToken(credentials)
+                : credentials.getToken();
+        if (token != null && !token.trim().isEmpty()) {
+            headers.set("Authorization", "Bearer " + token);
+            System.out.println("Added Authorization header with Bearer token");
         }
-        
-        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package com.apiqa.service;
+
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunStatus;
+import com.apiqa.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses, resumes and cancels test runs while they execute.
+ * A run executes inside a single transaction, so these signals are kept in memory rather than in
+ * the database. The run checks its control before every execution; cancelling also aborts the
+ * request in flight, so the thread running it is released right away. A paused run holds its worker
+ * thread and database connection, so a run paused for longer than the pause timeout is cancelled.
+ */
+@Service
+public class TestRunControlService {
+
+    @Autowired
+    private TestRunRepository testRunRepository;
+
+    @Value("${apiqa.test-runs.pause-timeout-minutes:30}")
+    private long pauseTimeoutMinutes;
+
+    private final Map<Long, RunControl> controls = new ConcurrentHashMap<>();
+
+    // The run executing on the current thread, so the request factory can hand it the connection
+    private final ThreadLocal<RunControl> currentRun = new ThreadLocal<>();
+
+    /**
+     * Cancels a run. Its request in flight is aborted and the executions that have not run yet are skipped.
+     * @param testRunId The test run ID
+     * @return true if the run was still pending or running
+     */
+    public boolean cancel(Long testRunId) {
+        return cancel(testRunId, "Test run cancelled");
+    }
+
+    /**
+     * Cancels a run with the reason recorded on it
+     * @param testRunId The test run ID
+     * @param reason Why the run was cancelled
+     * @return true if the run was still pending or running
+     */
+    public boolean cancel(Long testRunId, String reason) {
+        if (!isActive(testRunId)) {
+            return false;
+        }
+        control(testRunId).cancel(reason);
+        System.out.println("Cancellation requested for test run " + testRunId + ": " + reason);
+        return true;
+    }
+
+    /**
+     * Pauses a run before its next execution. The request in flight is allowed to finish.
+     * @param testRunId The test run ID
+     * @return true if the run was still pending or running
+     */
+    public boolean pause(Long testRunId) {
+        if (!isActive(testRunId)) {
+            return false;
+        }
+        control(testRunId).pause();
+        System.out.println("Paused test run " + testRunId);
+        return true;
+    }
+
+    /**
+     * Resumes a paused run
+     * @param testRunId The test run ID
+     * @return true if the run was paused
+     */
+    public boolean resume(Long testRunId) {
+        RunControl control = controls.get(testRunId);
+        if (control == null || !control.isPaused()) {
+            return false;
+        }
+        control.resume();
+        System.out.println("Resumed test run " + testRunId);
+        return true;
+    }
+
+    public boolean isPaused(Long testRunId) {
+        RunControl control = controls.get(testRunId);
+        return control != null && control.isPaused();
+    }
+
+    /**
+     * Registers a run as executing on the current thread. Signals sent while it was still queued are kept.
+     * @param testRunId The test run ID
+     * @return The control the run checks between executions
+     */
+    RunControl start(Long testRunId) {
+        RunControl control = control(testRunId);
+        control.started = true;
+        currentRun.set(control);
+        return control;
+    }
+
+    /**
+     * Unregisters a run once it has executed, or once it is clear that it never will
+     * @param testRunId The test run ID
+     */
+    void finish(Long testRunId) {
+        controls.remove(testRunId);
+        currentRun.remove();
+    }
+
+    /**
+     * Drops the controls of runs that were paused or cancelled while queued but ended without executing,
+     * for example because their preparation failed. Controls of runs that are still pending are kept,
+     * so a cancelled run that is still queued stays cancelled.
+     */
+    @Scheduled(fixedDelayString = "${apiqa.test-runs.control-sweep-millis:300000}")
+    public void evictAbandonedControls() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+        for (Map.Entry<Long, RunControl> entry : controls.entrySet()) {
+            RunControl control = entry.getValue();
+            if (!control.started && control.createdAt < cutoff && !isStillActive(entry.getKey())) {
+                controls.remove(entry.getKey(), control);
+            }
+        }
+    }
+
+    /**
+     * @return A request factory whose connections can be aborted by cancelling the run that opened them
+     */
+    ClientHttpRequestFactory requestFactory() {
+        return new SimpleClientHttpRequestFactory() {
+            @Override
+            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
+                super.prepareConnection(connection, httpMethod);
+                RunControl control = currentRun.get();
+                if (control != null) {
+                    if (control.isCancelled()) {
+                        throw new IOException("Test run cancelled");
+                    }
+                    control.setConnection(connection);
+                }
+            }
+        };
+    }
+
+    private RunControl control(Long testRunId) {
+        return controls.computeIfAbsent(testRunId, id -> new RunControl(TimeUnit.MINUTES.toMillis(pauseTimeoutMinutes)));
+    }
+
+    private boolean isStillActive(Long testRunId) {
+        return testRunRepository.findById(testRunId)
+                .map(testRun -> testRun.getStatus() == TestRunStatus.PENDING || testRun.getStatus() == TestRunStatus.RUNNING)
+                .orElse(false);
+    }
+
+    private boolean isActive(Long testRunId) {
+        TestRun testRun = testRunRepository.findById(testRunId)
+                .orElseThrow(() -> new RuntimeException("Test Run not found with ID: " + testRunId));
+        // A queued run is still PENDING
+        return testRun.getStatus() == TestRunStatus.PENDING || testRun.getStatus() == TestRunStatus.RUNNING;
+    }
+
+    /**
+     * Pause and cancel state of one run
+     */
+    static class RunControl {
+        private final long pauseTimeoutMillis;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile boolean started;
+        private volatile boolean cancelled;
+        private String cancelReason;
+        private boolean paused;
+        private HttpURLConnection connection;
+
+        RunControl(long pauseTimeoutMillis) {
+            this.pauseTimeoutMillis = pauseTimeoutMillis;
+        }
+
+        synchronized void cancel() {
+            cancel("Test run cancelled");
+        }
+
+        synchronized void cancel(String reason) {
+            if (!cancelled) {
+                cancelReason = reason;
+            }
+            cancelled = true;
+            paused = false;
+            notifyAll();
+            if (connection != null) {
+                // Closes the socket, so a request blocked on a slow host fails immediately
+                connection.disconnect();
+            }
+        }
+
+        synchronized void pause() {
+            if (!cancelled) {
+                paused = true;
+            }
+        }
+
+        synchronized void resume() {
+            paused = false;
+            notifyAll();
+        }
+
+        synchronized boolean isPaused() {
+            return paused;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized String getCancelReason() {
+            return cancelReason;
+        }
+
+        synchronized void setConnection(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        /**
+         * Blocks while the run is paused, at most for the pause timeout
+         * @return true if the run may go on, false if it was cancelled or paused for too long
+         */
+        synchronized boolean awaitTurn() {
+            long deadline = System.currentTimeMillis() + pauseTimeoutMillis;
+            try {
+                while (paused && !cancelled) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        cancel("Test run cancelled after being paused for " + TimeUnit.MILLISECONDS.toMinutes(pauseTimeoutMillis) + " minutes");
+                        break;
+                    }
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel("Test run interrupted");
+            }
+            return !cancelled;
+        }
+    }
+}
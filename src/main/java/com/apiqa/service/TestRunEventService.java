@@ -0,0 +1,384 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.TestRunProgressEvent;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunStatus;
+import com.apiqa.repository.TestRunRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pushes the progress of running test runs to subscribers over Server-Sent Events.
+ * Executing runs publish to an in-memory stream per run instead of subscribers polling the database.
+ * Every event is serialized once and queued for each subscriber of the run; a small pool of sender
+ * threads writes the queues out. Each subscriber's queue is bounded and drops its oldest progress
+ * events when full, which only loses intermediate counters since every event carries the totals so far.
+ * The run itself never waits on a subscriber, and a slow subscriber holds up at most one sender.
+ */
+@Service
+public class TestRunEventService {
+
+    public static final String PROGRESS_EVENT = "progress";
+    public static final String FINISHED_EVENT = "finished";
+
+    @Autowired
+    private TestRunRepository testRunRepository;
+
+    @Value("${apiqa.test-runs.event-timeout-minutes:30}")
+    private long eventTimeoutMinutes;
+
+    @Value("${apiqa.test-runs.event-buffer-size:64}")
+    private int eventBufferSize;
+
+    @Value("${apiqa.test-runs.event-senders:4}")
+    private int eventSenders;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, RunStream> streams = new ConcurrentHashMap<>();
+    private ExecutorService senders;
+
+    @PostConstruct
+    public void initSenders() {
+        senders = Executors.newFixedThreadPool(Math.max(1, eventSenders));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Subscribes to the progress of a run. Subscribers of a finished run get its final counters
+     * and the stream is closed; everyone else first gets the latest progress, if any.
+     * @param testRunId The test run ID
+     * @return The event stream
+     */
+    public SseEmitter subscribe(Long testRunId) {
+        SseEmitter emitter = new SseEmitter(eventTimeoutMinutes * 60_000);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        // Join the stream before reading the run, so a run that finishes in between is either
+        // read as finished here or delivers its finished event to this subscriber
+        RunStream stream = streams.computeIfAbsent(testRunId, RunStream::new);
+        synchronized (stream) {
+            if (stream.finishedJson != null) {
+                enqueue(subscriber, FINISHED_EVENT, stream.finishedJson, true);
+                return emitter;
+            }
+            stream.subscribers.add(subscriber);
+            if (stream.latestJson != null) {
+                enqueue(subscriber, PROGRESS_EVENT, stream.latestJson, false);
+            }
+        }
+        Runnable unsubscribe = () -> unsubscribe(stream, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+
+        TestRun testRun = testRunRepository.findById(testRunId).orElse(null);
+        if (testRun == null) {
+            unsubscribe.run();
+            throw new RuntimeException("Test Run not found with ID: " + testRunId);
+        }
+        // A queued run is still PENDING
+        if (testRun.getStatus() != TestRunStatus.PENDING && testRun.getStatus() != TestRunStatus.RUNNING) {
+            synchronized (stream) {
+                // Unless the run's own finished event already reached this subscriber
+                if (stream.subscribers.remove(subscriber)) {
+                    enqueue(subscriber, FINISHED_EVENT, toJson(finishedEvent(testRun)), true);
+                }
+                removeIfUnused(stream);
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Called when a run starts executing
+     * @param testRunId The test run ID
+     * @param totalTests The number of executions in the run
+     */
+    void runStarted(Long testRunId, int totalTests) {
+        RunStream stream = streams.computeIfAbsent(testRunId, RunStream::new);
+        TestRunProgressEvent event;
+        synchronized (stream) {
+            stream.started = true;
+            stream.totalTests = totalTests;
+            event = stream.snapshot(TestRunStatus.RUNNING.name());
+        }
+        publish(stream, PROGRESS_EVENT, event);
+    }
+
+    /**
+     * Called after each execution of a running run, including skipped ones
+     * @param testRunId The test run ID
+     * @param execution The finished execution
+     */
+    void executionCompleted(Long testRunId, TestExecution execution) {
+        RunStream stream = streams.get(testRunId);
+        if (stream == null) {
+            return;
+        }
+
+        TestRunProgressEvent event;
+        synchronized (stream) {
+            stream.record(execution);
+            event = stream.snapshot(TestRunStatus.RUNNING.name());
+        }
+        event.setExecutionId(execution.getId());
+        event.setExecutionStatus(execution.getStatus() != null ? execution.getStatus().name() : null);
+        event.setExecutionTimeMs(execution.getExecutionTimeMs());
+        if (execution.getTestScenario() != null) {
+            event.setScenarioName(execution.getTestScenario().getScenarioName());
+            event.setHttpMethod(execution.getTestScenario().getHttpMethod());
+            event.setEndpoint(execution.getTestScenario().getEndpoint());
+        }
+        publish(stream, PROGRESS_EVENT, event);
+    }
+
+    /**
+     * Called when a run has finished. Subscribers get the final counters once the run is committed,
+     * so a page reloaded in response already shows the results.
+     * @param testRun The finished test run
+     */
+    void runFinished(TestRun testRun) {
+        // Also when nobody has subscribed yet, since a subscriber may join before the run commits
+        RunStream stream = streams.computeIfAbsent(testRun.getId(), RunStream::new);
+
+        TestRunProgressEvent event;
+        synchronized (stream) {
+            event = stream.snapshot(testRun.getStatus().name());
+        }
+        String json = toJson(event);
+        Runnable finish = () -> {
+            synchronized (stream) {
+                stream.finishedJson = json;
+                for (Subscriber subscriber : stream.subscribers) {
+                    enqueue(subscriber, FINISHED_EVENT, json, true);
+                }
+                stream.subscribers.clear();
+                streams.remove(testRun.getId(), stream);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finish.run();
+                }
+            });
+        } else {
+            finish.run();
+        }
+    }
+
+    private void publish(RunStream stream, String eventName, TestRunProgressEvent event) {
+        // Serialized once for all subscribers
+        String json = toJson(event);
+        synchronized (stream) {
+            stream.latestJson = json;
+            for (Subscriber subscriber : stream.subscribers) {
+                enqueue(subscriber, eventName, json, false);
+            }
+        }
+    }
+
+    /**
+     * Queues an event for a subscriber and makes sure a sender is draining its queue
+     * @param last true to complete the stream once the event is sent
+     */
+    private void enqueue(Subscriber subscriber, String eventName, String json, boolean last) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            if (subscriber.pending.size() >= Math.max(1, eventBufferSize)) {
+                subscriber.pending.pollFirst();
+            }
+            subscriber.pending.addLast(new String[]{eventName, json});
+            subscriber.completeWhenDrained |= last;
+            if (subscriber.draining) {
+                return;
+            }
+            subscriber.draining = true;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            synchronized (subscriber) {
+                subscriber.draining = false;
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            String[] event;
+            synchronized (subscriber) {
+                event = subscriber.pending.pollFirst();
+                if (event == null) {
+                    subscriber.draining = false;
+                    if (!subscriber.completeWhenDrained || subscriber.closed) {
+                        return;
+                    }
+                    subscriber.closed = true;
+                }
+            }
+            if (event == null) {
+                subscriber.emitter.complete();
+                return;
+            }
+            try {
+                subscriber.emitter.send(SseEmitter.event().name(event[0]).data(event[1], MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                // The subscriber went away, its completion callback unsubscribes it
+                synchronized (subscriber) {
+                    subscriber.closed = true;
+                    subscriber.pending.clear();
+                    subscriber.draining = false;
+                }
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private void unsubscribe(RunStream stream, Subscriber subscriber) {
+        synchronized (subscriber) {
+            subscriber.closed = true;
+            subscriber.pending.clear();
+        }
+        synchronized (stream) {
+            stream.subscribers.remove(subscriber);
+            removeIfUnused(stream);
+        }
+    }
+
+    private void removeIfUnused(RunStream stream) {
+        // Streams opened by subscribers of a run that never started would otherwise stay forever
+        if (!stream.started && stream.subscribers.isEmpty()) {
+            streams.remove(stream.testRunId, stream);
+        }
+    }
+
+    private TestRunProgressEvent finishedEvent(TestRun testRun) {
+        TestRunProgressEvent event = new TestRunProgressEvent();
+        event.setTestRunId(testRun.getId());
+        event.setStatus(testRun.getStatus().name());
+        event.setTotalTests(testRun.getTotalTests() != null ? testRun.getTotalTests() : 0);
+        event.setPassedTests(testRun.getPassedTests() != null ? testRun.getPassedTests() : 0);
+        event.setFailedTests(testRun.getFailedTests() != null ? testRun.getFailedTests() : 0);
+        event.setSkippedTests(testRun.getSkippedTests() != null ? testRun.getSkippedTests() : 0);
+        event.setCompletedTests(event.getPassedTests() + event.getFailedTests() + event.getSkippedTests());
+        return event;
+    }
+
+    private String toJson(TestRunProgressEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize progress of test run " + event.getTestRunId(), e);
+        }
+    }
+
+    /**
+     * One subscriber and the events waiting to be sent to it, guarded by the subscriber itself
+     */
+    private static class Subscriber {
+        final SseEmitter emitter;
+        // Event name and JSON data, oldest first
+        final Deque<String[]> pending = new ArrayDeque<>();
+        boolean draining;
+        boolean completeWhenDrained;
+        boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Subscribers and running counters of one run, guarded by the stream itself
+     */
+    private static class RunStream {
+        final Long testRunId;
+        final List<Subscriber> subscribers = new ArrayList<>();
+        String latestJson;
+        // Set once the run has finished and committed, for subscribers that join late
+        String finishedJson;
+
+        boolean started;
+        int totalTests;
+        int passed;
+        int failed;
+        int skipped;
+        // Execution times in ascending order, for exact percentiles
+        final List<Long> sortedTimesMs = new ArrayList<>();
+
+        RunStream(Long testRunId) {
+            this.testRunId = testRunId;
+        }
+
+        void record(TestExecution execution) {
+            if (execution.getStatus() == TestExecutionStatus.PASSED) {
+                passed++;
+            } else if (execution.getStatus() == TestExecutionStatus.SKIPPED) {
+                skipped++;
+            } else {
+                failed++;
+            }
+
+            if (execution.getExecutionTimeMs() != null && execution.getStatus() != TestExecutionStatus.SKIPPED
+                    && !Boolean.TRUE.equals(execution.getResponseReused())) {
+                int index = Collections.binarySearch(sortedTimesMs, execution.getExecutionTimeMs());
+                sortedTimesMs.add(index >= 0 ? index : -index - 1, execution.getExecutionTimeMs());
+            }
+        }
+
+        TestRunProgressEvent snapshot(String status) {
+            TestRunProgressEvent event = new TestRunProgressEvent();
+            event.setTestRunId(testRunId);
+            event.setStatus(status);
+            event.setTotalTests(totalTests);
+            event.setCompletedTests(passed + failed + skipped);
+            event.setPassedTests(passed);
+            event.setFailedTests(failed);
+            event.setSkippedTests(skipped);
+            event.setP50Ms(percentile(0.50));
+            event.setP95Ms(percentile(0.95));
+            event.setP99Ms(percentile(0.99));
+            return event;
+        }
+
+        private Long percentile(double quantile) {
+            if (sortedTimesMs.isEmpty()) {
+                return null;
+            }
+            int rank = (int) Math.ceil(quantile * sortedTimesMs.size());
+            return sortedTimesMs.get(Math.max(0, rank - 1));
+        }
+    }
+}
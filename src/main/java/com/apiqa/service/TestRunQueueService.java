@@ -0,0 +1,93 @@
+package com.apiqa.service;
+
+import com.apiqa.config.AsyncConfig;
+import com.apiqa.dto.TestRunQueueStats;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestSuiteType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Starts test runs in the background on the test run executor.
+ * The run and its executions are saved as PENDING before the run is queued, so the caller gets the
+ * run ID right away. When the queue is full the run is marked FAILED and the submission is rejected.
+ */
+@Service
+public class TestRunQueueService {
+
+    @Autowired
+    private ApiQaService apiQaService;
+
+    @Autowired
+    @Qualifier(AsyncConfig.TEST_RUN_EXECUTOR)
+    private ThreadPoolTaskExecutor testRunExecutor;
+
+    /**
+     * Queues a test run for a spec
+     * @param apiSpecId The API spec ID
+     * @param runName The run name
+     * @param runType The run type
+     * @param suiteType The suite to run, or null to run all scenarios
+     * @param environmentId The environment to run against (can be null)
+     * @return The pending test run
+     * @throws TaskRejectedException if the test run queue is full
+     */
+    public TestRun submitTestRun(Long apiSpecId, String runName, TestRunType runType, TestSuiteType suiteType, Long environmentId) {
+        TestRun testRun = apiQaService.prepareTestRun(apiSpecId, runName, runType, suiteType, environmentId);
+        queuePreparedTestRun(testRun.getId());
+        return testRun;
+    }
+
+    /**
+     * Queues a test run already saved by {@link ApiQaService#prepareTestRun}
+     * @param testRunId The test run ID
+     * @return Completes with the finished run, or exceptionally when the run failed
+     * @throws TaskRejectedException if the test run queue is full, the run is then marked FAILED
+     */
+    public CompletableFuture<TestRun> queuePreparedTestRun(Long testRunId) {
+        CompletableFuture<TestRun> future;
+        try {
+            future = apiQaService.executeTestRunAsync(testRunId);
+        } catch (TaskRejectedException e) {
+            apiQaService.failTestRun(testRunId, "Rejected: test run queue is full");
+            throw new TaskRejectedException("Test run queue is full, try again later", e);
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                System.err.println("Error executing test run " + testRunId + ": " + cause.getMessage());
+                apiQaService.failTestRun(testRunId, cause.getMessage());
+            }
+        });
+        System.out.println("Queued test run " + testRunId + " (" + testRunExecutor.getThreadPoolExecutor().getQueue().size() + " waiting)");
+        return future;
+    }
+
+    /**
+     * @param error The exception a run's future completed with
+     * @return The exception the run itself threw
+     */
+    static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * @return Current load of the test run executor
+     */
+    public TestRunQueueStats getQueueStats() {
+        ThreadPoolExecutor pool = testRunExecutor.getThreadPoolExecutor();
+        long rejected = pool.getRejectedExecutionHandler() instanceof AsyncConfig.CountingAbortPolicy policy
+                ? policy.getRejectedCount() : 0;
+        return new TestRunQueueStats(pool.getMaximumPoolSize(), pool.getActiveCount(), pool.getQueue().size(),
+                testRunExecutor.getQueueCapacity(), pool.getCompletedTaskCount(), rejected);
+    }
+}
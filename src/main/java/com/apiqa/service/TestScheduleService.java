@@ -0,0 +1,237 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.ScheduledSpecResult;
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.ScheduleOverlapPolicy;
+import com.apiqa.model.TestSchedule;
+import com.apiqa.model.TestSuite;
+import com.apiqa.repository.ApiSpecRepository;
+import com.apiqa.repository.TestScheduleRepository;
+import com.apiqa.repository.TestSuiteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps cron or interval schedules for individual specs and test suites and starts their runs when due.
+ * Every schedule fires at its base time plus a jitter offset derived from its target, so targets
+ * sharing a cron expression do not all start at the same instant. The runs themselves go through
+ * {@link ScheduledTestService}, which keeps a target from running twice at once.
+ */
+@Service
+public class TestScheduleService {
+
+    @Autowired
+    private TestScheduleRepository testScheduleRepository;
+
+    @Autowired
+    private ApiSpecRepository apiSpecRepository;
+
+    @Autowired
+    private TestSuiteRepository testSuiteRepository;
+
+    @Autowired
+    private ScheduledTestService scheduledTestService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${apiqa.scheduled-tests.default-jitter-seconds:300}")
+    private int defaultJitterSeconds;
+
+    public List<TestSchedule> getAllSchedules() {
+        return testScheduleRepository.findAll();
+    }
+
+    public Optional<TestSchedule> getSchedule(Long scheduleId) {
+        return testScheduleRepository.findById(scheduleId);
+    }
+
+    /**
+     * Creates a schedule for a spec or a test suite
+     * @param schedule The schedule, naming exactly one of apiSpecId and testSuiteId, and one of cronExpression and intervalMinutes
+     * @return The saved schedule with its first run time
+     */
+    public TestSchedule createSchedule(TestSchedule schedule) {
+        schedule.setId(null);
+        validate(schedule);
+        schedule.setNextRunAt(nextRunAt(schedule, LocalDateTime.now()));
+        return transactionTemplate.execute(status -> testScheduleRepository.save(schedule));
+    }
+
+    /**
+     * Updates the timing and overlap settings of a schedule; its target stays the same
+     * @param scheduleId The schedule ID
+     * @param changes The new settings
+     * @return The updated schedule with its next run time recalculated
+     */
+    public TestSchedule updateSchedule(Long scheduleId, TestSchedule changes) {
+        return transactionTemplate.execute(status -> {
+            TestSchedule schedule = testScheduleRepository.findById(scheduleId)
+                    .orElseThrow(() -> new RuntimeException("Test Schedule not found with ID: " + scheduleId));
+            schedule.setCronExpression(changes.getCronExpression());
+            schedule.setIntervalMinutes(changes.getIntervalMinutes());
+            schedule.setJitterSeconds(changes.getJitterSeconds());
+            if (changes.getOverlapPolicy() != null) {
+                schedule.setOverlapPolicy(changes.getOverlapPolicy());
+            }
+            if (changes.getEnabled() != null) {
+                schedule.setEnabled(changes.getEnabled());
+            }
+            validate(schedule);
+            schedule.setNextRunAt(null);
+            schedule.setNextRunAt(nextRunAt(schedule, LocalDateTime.now()));
+            return schedule;
+        });
+    }
+
+    public void deleteSchedule(Long scheduleId) {
+        transactionTemplate.executeWithoutResult(status -> testScheduleRepository.deleteById(scheduleId));
+    }
+
+    /**
+     * Starts the runs of all schedules that are due and moves each of them to its next run time.
+     * Runs that are missed while the application is down are not caught up; the schedule resumes
+     * with its next run after now. When several instances share the database, the instance that
+     * moves a schedule on is the one that starts its run.
+     */
+    @Scheduled(fixedDelayString = "${apiqa.scheduled-tests.tick-millis:5000}")
+    public void dispatchDueSchedules() {
+        LocalDateTime now = LocalDateTime.now();
+        for (TestSchedule schedule : testScheduleRepository.findByEnabledTrueAndNextRunAtLessThanEqualOrderByNextRunAt(now)) {
+            try {
+                LocalDateTime next = nextRunAt(schedule, now);
+                Integer advanced = transactionTemplate.execute(status ->
+                        testScheduleRepository.advance(schedule.getId(), schedule.getNextRunAt(), next));
+                if (advanced != null && advanced > 0) {
+                    dispatch(schedule);
+                }
+            } catch (Exception e) {
+                System.err.println("Error starting scheduled run for schedule " + schedule.getId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(TestSchedule schedule) {
+        String runName = "Scheduled Run - " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        if (schedule.getApiSpecId() != null) {
+            Optional<ApiSpec> apiSpec = apiSpecRepository.findById(schedule.getApiSpecId());
+            if (apiSpec.isEmpty()) {
+                disable(schedule.getId(), "API Spec not found with ID: " + schedule.getApiSpecId());
+                return;
+            }
+            scheduledTestService.runSpecLater(schedule.getApiSpecId(), apiSpec.get().getName(), runName, schedule.getOverlapPolicy(), 0)
+                    .thenAccept(result -> recordResult(schedule.getId(), result));
+        } else {
+            Optional<TestSuite> testSuite = testSuiteRepository.findById(schedule.getTestSuiteId());
+            if (testSuite.isEmpty()) {
+                disable(schedule.getId(), "Test Suite not found with ID: " + schedule.getTestSuiteId());
+                return;
+            }
+            scheduledTestService.runSuiteLater(schedule.getTestSuiteId(), testSuite.get().getName(), runName, schedule.getOverlapPolicy(), 0)
+                    .thenAccept(result -> recordResult(schedule.getId(), result));
+        }
+    }
+
+    /**
+     * Calculates when a schedule runs next: the next base time after {@code after}, plus the jitter of its target
+     * @param schedule The schedule
+     * @param after The time to calculate from
+     * @return The next run time
+     */
+    LocalDateTime nextRunAt(TestSchedule schedule, LocalDateTime after) {
+        long jitter = ScheduledTestService.jitterSeconds(schedule.getTargetKey(),
+                schedule.getJitterSeconds() != null ? schedule.getJitterSeconds() : defaultJitterSeconds);
+
+        // Continue from the base time of the current run, so the jitter is not applied twice
+        // and interval schedules keep their phase instead of drifting by the tick delay
+        LocalDateTime base = schedule.getNextRunAt() != null ? schedule.getNextRunAt().minusSeconds(jitter) : after;
+
+        LocalDateTime next;
+        if (schedule.getCronExpression() != null) {
+            next = CronExpression.parse(schedule.getCronExpression()).next(base.isAfter(after) ? base : after);
+            if (next == null) {
+                throw new RuntimeException("Cron expression never fires: " + schedule.getCronExpression());
+            }
+        } else {
+            int interval = schedule.getIntervalMinutes();
+            next = base.plusMinutes(interval);
+            if (!next.isAfter(after)) {
+                long missed = Duration.between(next, after).toMinutes() / interval + 1;
+                next = next.plusMinutes(missed * interval);
+            }
+        }
+        return next.plusSeconds(jitter);
+    }
+
+    private void validate(TestSchedule schedule) {
+        if ((schedule.getApiSpecId() == null) == (schedule.getTestSuiteId() == null)) {
+            throw new RuntimeException("A schedule needs either an apiSpecId or a testSuiteId");
+        }
+        boolean hasCron = schedule.getCronExpression() != null && !schedule.getCronExpression().isBlank();
+        if (hasCron == (schedule.getIntervalMinutes() != null)) {
+            throw new RuntimeException("A schedule needs either a cronExpression or intervalMinutes");
+        }
+        if (hasCron && !CronExpression.isValidExpression(schedule.getCronExpression())) {
+            throw new RuntimeException("Invalid cron expression: " + schedule.getCronExpression());
+        }
+        if (!hasCron && schedule.getIntervalMinutes() <= 0) {
+            throw new RuntimeException("intervalMinutes must be positive");
+        }
+        if (schedule.getJitterSeconds() != null && schedule.getJitterSeconds() < 0) {
+            throw new RuntimeException("jitterSeconds must not be negative");
+        }
+        if (schedule.getApiSpecId() != null && !apiSpecRepository.existsById(schedule.getApiSpecId())) {
+            throw new RuntimeException("API Spec not found with ID: " + schedule.getApiSpecId());
+        }
+        if (schedule.getTestSuiteId() != null && !testSuiteRepository.existsById(schedule.getTestSuiteId())) {
+            throw new RuntimeException("Test Suite not found with ID: " + schedule.getTestSuiteId());
+        }
+        if (!hasCron) {
+            schedule.setCronExpression(null);
+        }
+        if (schedule.getOverlapPolicy() == null) {
+            schedule.setOverlapPolicy(ScheduleOverlapPolicy.SKIP);
+        }
+        if (schedule.getEnabled() == null) {
+            schedule.setEnabled(true);
+        }
+    }
+
+    private void recordResult(Long scheduleId, ScheduledSpecResult result) {
+        try {
+            // Targeted updates, so recording a result never writes back a next run time another instance has moved on
+            if (ScheduledTestService.LEASE_LOST.equals(result.getStatus())) {
+                // Another instance may have run the target since, and its result must not be overwritten
+                System.err.println("Result of schedule " + scheduleId + " not recorded: " + result.getErrorMessage());
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (ScheduledTestService.SKIPPED.equals(result.getStatus())) {
+                    testScheduleRepository.recordSkipped(scheduleId, result.getStatus());
+                } else {
+                    testScheduleRepository.recordRun(scheduleId, result.getStatus(), LocalDateTime.now(), result.getTestRunId());
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error recording result of schedule " + scheduleId + ": " + e.getMessage());
+        }
+    }
+
+    private void disable(Long scheduleId, String reason) {
+        System.err.println("Disabling schedule " + scheduleId + ": " + reason);
+        transactionTemplate.executeWithoutResult(status -> testScheduleRepository.findById(scheduleId).ifPresent(schedule -> {
+            schedule.setEnabled(false);
+            schedule.setLastStatus(reason);
+        }));
+    }
+}
@@ -0,0 +1,257 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.ScenarioHistoryRow;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestScenario;
+import com.apiqa.repository.TestExecutionRepository;
+import com.apiqa.repository.TestRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Narrows scheduled runs down to the scenarios most worth running, based on their execution history.
+ * Scenarios that are new, changed since they last ran, or did not pass last time always run. The rest
+ * of the budget goes to the best ranked of the others by recent failures, flakiness, latency variance
+ * and time since they last ran, so scenarios that keep passing still take turns. Every few scheduled
+ * runs a spec gets a full run.
+ * The same history orders fail-fast runs so the scenarios most likely to fail run first.
+ */
+@Service
+public class TestSelectionService {
+
+    private static final List<TestExecutionStatus> OUTCOMES =
+            List.of(TestExecutionStatus.PASSED, TestExecutionStatus.FAILED, TestExecutionStatus.ERROR);
+
+    // Weight of each failure relative to the more recent execution after it
+    private static final double FAILURE_DECAY = 0.7;
+
+    // Failure likelihood assumed for scenarios without history or changed since they last ran
+    private static final double UNKNOWN_LIKELIHOOD = 0.5;
+
+    @Autowired
+    private TestExecutionRepository testExecutionRepository;
+
+    @Autowired
+    private TestRunRepository testRunRepository;
+
+    @Value("${apiqa.test-selection.enabled:true}")
+    private boolean enabled;
+
+    @Value("${apiqa.test-selection.budget-percent:30}")
+    private int budgetPercent;
+
+    @Value("${apiqa.test-selection.min-scenarios:5}")
+    private int minScenarios;
+
+    @Value("${apiqa.test-selection.full-run-every:6}")
+    private int fullRunEvery;
+
+    @Value("${apiqa.test-selection.history-runs:20}")
+    private int historyRuns;
+
+    @Value("${apiqa.test-selection.history-days:7}")
+    private int historyDays;
+
+    /**
+     * Picks the executions of a scheduled run. The run records how many scenarios were left out;
+     * when a full run is due, or selection is disabled, every execution is kept.
+     * @param testRun The saved scheduled run
+     * @param executions An execution for every scenario of the spec
+     * @return The executions to run, in their original order
+     */
+    public List<TestExecution> selectExecutions(TestRun testRun, List<TestExecution> executions) {
+        Long apiSpecId = testRun.getApiSpec().getId();
+        if (!enabled || isFullRunDue(apiSpecId, testRun.getId())) {
+            return executions;
+        }
+
+        Map<Long, ScenarioStats> stats = loadStats(apiSpecId);
+        LocalDateTime now = LocalDateTime.now();
+        int budget = Math.max(minScenarios, (int) Math.ceil(executions.size() * budgetPercent / 100.0));
+
+        Set<TestExecution> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<TestExecution> ranked = new ArrayList<>();
+        Map<TestExecution, Double> scores = new IdentityHashMap<>();
+        for (TestExecution execution : executions) {
+            TestScenario scenario = execution.getTestScenario();
+            ScenarioStats scenarioStats = stats.get(scenario.getId());
+            if (scenarioStats == null || scenarioStats.mustRun(scenario)) {
+                selected.add(execution);
+            } else {
+                scores.put(execution, scenarioStats.score(now, historyDays));
+                ranked.add(execution);
+            }
+        }
+
+        int mustRun = selected.size();
+        ranked.sort(Comparator.comparingDouble((TestExecution execution) -> scores.get(execution)).reversed());
+        for (TestExecution execution : ranked) {
+            if (selected.size() >= budget) {
+                break;
+            }
+            selected.add(execution);
+        }
+
+        testRun.setDeselectedTests(executions.size() - selected.size());
+        System.out.println("Test selection for API Spec ID " + apiSpecId + ": running " + selected.size() + " of " +
+                executions.size() + " scenarios (" + mustRun + " new, changed or failing)");
+        return executions.stream().filter(selected::contains).toList();
+    }
+
+    /**
+     * Orders the executions of a run so the scenarios most likely to fail come first: those failing lately,
+     * then flaky ones, then new or changed ones. Among equally likely ones the faster scenario goes first,
+     * which brings the first failure forward.
+     * @param apiSpecId The API spec ID
+     * @param executions The executions of the run
+     * @return The executions in fail-fast order
+     */
+    public List<TestExecution> orderForFailFast(Long apiSpecId, List<TestExecution> executions) {
+        Map<Long, ScenarioStats> stats = loadStats(apiSpecId);
+        Map<TestExecution, Double> likelihood = new IdentityHashMap<>();
+        Map<TestExecution, Double> meanTime = new IdentityHashMap<>();
+        for (TestExecution execution : executions) {
+            TestScenario scenario = execution.getTestScenario();
+            ScenarioStats scenarioStats = scenario != null ? stats.get(scenario.getId()) : null;
+            likelihood.put(execution, scenarioStats != null ? scenarioStats.failureLikelihood(scenario) : UNKNOWN_LIKELIHOOD);
+            meanTime.put(execution, scenarioStats != null ? scenarioStats.meanTimeMs() : Double.MAX_VALUE);
+        }
+
+        List<TestExecution> ordered = new ArrayList<>(executions);
+        ordered.sort(Comparator.comparingDouble((TestExecution execution) -> likelihood.get(execution)).reversed()
+                .thenComparingDouble(meanTime::get));
+        return ordered;
+    }
+
+    /**
+     * Loads the recent outcomes of every scenario of a spec that ran within the history window
+     * @param apiSpecId The API spec ID
+     * @return Statistics per scenario ID
+     */
+    Map<Long, ScenarioStats> loadStats(Long apiSpecId) {
+        LocalDateTime since = LocalDateTime.now().minusDays(historyDays);
+        Map<Long, ScenarioStats> stats = new HashMap<>();
+        // Newest first per scenario, so each keeps its latest executions
+        for (ScenarioHistoryRow row : testExecutionRepository.findScenarioHistory(apiSpecId, since, OUTCOMES)) {
+            ScenarioStats scenarioStats = stats.computeIfAbsent(row.getTestScenarioId(), id -> new ScenarioStats());
+            if (scenarioStats.statuses.size() < historyRuns) {
+                scenarioStats.add(row);
+            }
+        }
+        return stats;
+    }
+
+    private boolean isFullRunDue(Long apiSpecId, Long testRunId) {
+        if (fullRunEvery <= 1) {
+            return true;
+        }
+        // Due unless one of the last full-run-every - 1 scheduled runs was a full run
+        List<Integer> recent = testRunRepository.findRecentDeselectedTests(apiSpecId, TestRunType.SCHEDULED, testRunId,
+                PageRequest.of(0, fullRunEvery - 1));
+        return !recent.contains(null);
+    }
+
+    /**
+     * Recent outcomes of one scenario, newest first
+     */
+    static class ScenarioStats {
+        final List<TestExecutionStatus> statuses = new ArrayList<>();
+        final List<Long> timesMs = new ArrayList<>();
+        LocalDateTime lastExecutedAt;
+
+        void add(ScenarioHistoryRow row) {
+            if (lastExecutedAt == null) {
+                lastExecutedAt = row.getExecutedAt();
+            }
+            statuses.add(row.getStatus());
+            if (row.getExecutionTimeMs() != null) {
+                timesMs.add(row.getExecutionTimeMs());
+            }
+        }
+
+        boolean mustRun(TestScenario scenario) {
+            boolean changedSinceLastRun = scenario.getChangedAt() != null && scenario.getChangedAt().isAfter(lastExecutedAt);
+            return statuses.get(0) != TestExecutionStatus.PASSED || changedSinceLastRun;
+        }
+
+        /**
+         * @return Recency-weighted failure rate between 0 and 1; the latest executions count most
+         */
+        double failureRate() {
+            double failures = 0;
+            double total = 0;
+            double weight = 1;
+            for (TestExecutionStatus status : statuses) {
+                if (status != TestExecutionStatus.PASSED) {
+                    failures += weight;
+                }
+                total += weight;
+                weight *= FAILURE_DECAY;
+            }
+            return total > 0 ? failures / total : 0;
+        }
+
+        /**
+         * @return Share of consecutive executions whose outcome flipped, between 0 and 1
+         */
+        double flakiness() {
+            if (statuses.size() < 2) {
+                return 0;
+            }
+            int flips = 0;
+            for (int i = 1; i < statuses.size(); i++) {
+                if ((statuses.get(i) == TestExecutionStatus.PASSED) != (statuses.get(i - 1) == TestExecutionStatus.PASSED)) {
+                    flips++;
+                }
+            }
+            return (double) flips / (statuses.size() - 1);
+        }
+
+        /**
+         * @return Coefficient of variation of the execution times, capped at 1
+         */
+        double latencyVariation() {
+            if (timesMs.size() < 2) {
+                return 0;
+            }
+            double mean = timesMs.stream().mapToLong(Long::longValue).average().orElse(0);
+            if (mean <= 0) {
+                return 0;
+            }
+            double variance = timesMs.stream().mapToDouble(time -> (time - mean) * (time - mean)).sum() / timesMs.size();
+            return Math.min(1, Math.sqrt(variance) / mean);
+        }
+
+        double failureLikelihood(TestScenario scenario) {
+            double likelihood = Math.min(1, failureRate() + flakiness() / 2);
+            boolean changedSinceLastRun = scenario.getChangedAt() != null && scenario.getChangedAt().isAfter(lastExecutedAt);
+            return changedSinceLastRun ? Math.max(UNKNOWN_LIKELIHOOD, likelihood) : likelihood;
+        }
+
+        double meanTimeMs() {
+            return timesMs.stream().mapToLong(Long::longValue).average().orElse(Double.MAX_VALUE);
+        }
+
+        double score(LocalDateTime now, int historyDays) {
+            // Grows until the scenario has not run for the whole history window, so every scenario gets its turn
+            double staleness = Math.min(1, Duration.between(lastExecutedAt, now).toMinutes() / (historyDays * 24.0 * 60));
+            return 3 * failureRate() + 2 * flakiness() + latencyVariation() + staleness;
+        }
+    }
+}
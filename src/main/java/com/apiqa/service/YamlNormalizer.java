@@ -0,0 +1,314 @@
+package com.apiqa.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Normalizes raw spec content before it is handed to the parser, in a single pass over the input.
+ * Line endings become {@code \n}, comments are dropped, and template placeholders such as
+ * {@code ${BASE_URL}} or {@code $TOKEN} are replaced by a fixed value. The scanner tracks quoted
+ * and block scalars, so a {@code #} inside a URL, a quoted string or a description is content, not a comment.
+ */
+final class YamlNormalizer {
+
+    static final String PLACEHOLDER = "PLACEHOLDER_VALUE";
+    static final String DOLLAR_SIGN = "DOLLAR_SIGN";
+    static final String AT_SIGN = "AT_SIGN";
+
+    private YamlNormalizer() {
+    }
+
+    /**
+     * Normalizes spec content
+     * @param content The YAML or JSON content
+     * @return The normalized content
+     */
+    static String normalize(String content) {
+        int length = content.length();
+        StringBuilder out = new StringBuilder(length + 64);
+        LineState state = new LineState();
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && content.charAt(lineEnd) != '\n' && content.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            normalizeLine(content, lineStart, lineEnd, state, out);
+
+            if (lineEnd < length) {
+                out.append('\n');
+                lineEnd += content.charAt(lineEnd) == '\r' && lineEnd + 1 < length && content.charAt(lineEnd + 1) == '\n' ? 2 : 1;
+            }
+            lineStart = lineEnd;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Normalizes spec content as it is read, one line at a time, with the same result as {@link #normalize(String)}
+     * @param content The YAML or JSON content
+     * @return A reader of the normalized content, which closes the given reader when closed
+     */
+    static Reader normalizing(Reader content) {
+        return new NormalizingReader(content);
+    }
+
+    /**
+     * Scanner state carried from one line to the next
+     */
+    private static final class LineState {
+        char quote;            // quote character of an open flow scalar, which may span lines
+        int blockIndent = -1;  // indentation of the line that opened a block scalar, or -1 outside one
+    }
+
+    private static void normalizeLine(String content, int lineStart, int lineEnd, LineState state, StringBuilder out) {
+        int indent = lineStart;
+        while (indent < lineEnd && content.charAt(indent) == ' ') {
+            indent++;
+        }
+        indent -= lineStart;
+
+        // Lines indented deeper than the parent of a block scalar, and blank lines, belong to it
+        if (state.blockIndent >= 0 && indent <= state.blockIndent && indent < lineEnd - lineStart) {
+            state.blockIndent = -1;
+        }
+
+        if (state.blockIndent >= 0) {
+            substitute(content, lineStart, lineEnd, out);
+        } else {
+            int outLineStart = out.length();
+            state.quote = scanLine(content, lineStart, lineEnd, state.quote, out);
+            // Trailing whitespace is never content outside block scalars
+            trimTrailingWhitespace(out, outLineStart);
+            if (state.quote == 0 && opensBlockScalar(out, outLineStart)) {
+                state.blockIndent = indent;
+            }
+        }
+    }
+
+    /**
+     * Copies one line outside block scalars, dropping its comment
+     * @return The quote character still open at the end of the line, or 0
+     */
+    private static char scanLine(String content, int start, int end, char quote, StringBuilder out) {
+        int i = start;
+        while (i < end) {
+            int run = i;
+            while (run < end && !isSpecial(content.charAt(run))) {
+                run++;
+            }
+            out.append(content, i, run);
+            if (run == end) {
+                break;
+            }
+            i = run;
+
+            char c = content.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    // '' escapes a quote inside single quotes, \" inside double quotes is handled below
+                    if (quote == '\'' && i + 1 < end && content.charAt(i + 1) == '\'') {
+                        out.append("''");
+                        i += 2;
+                        continue;
+                    }
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < end) {
+                    out.append(c).append(content.charAt(i + 1));
+                    i += 2;
+                    continue;
+                }
+            } else if (c == '#' && (i == start || isWhitespace(content.charAt(i - 1)))) {
+                return 0;
+            } else if ((c == '\'' || c == '"') && startsScalar(content, start, i)) {
+                quote = c;
+            }
+            i = appendSubstituted(content, i, end, out);
+        }
+        return quote;
+    }
+
+    private static void substitute(String content, int start, int end, StringBuilder out) {
+        int i = start;
+        while (i < end) {
+            int run = i;
+            while (run < end && content.charAt(run) != '$' && content.charAt(run) != '@') {
+                run++;
+            }
+            out.append(content, i, run);
+            if (run == end) {
+                break;
+            }
+            i = appendSubstituted(content, run, end, out);
+        }
+    }
+
+    /**
+     * Appends the character at {@code i}, or the replacement of the placeholder starting there
+     * @return The index after the consumed input
+     */
+    private static int appendSubstituted(String content, int i, int end, StringBuilder out) {
+        char c = content.charAt(i);
+        if (c == '$' && i + 1 < end) {
+            char next = content.charAt(i + 1);
+            if (next == '{') {
+                int close = content.indexOf('}', i + 2);
+                if (close > i + 2 && close < end) {
+                    out.append(PLACEHOLDER);
+                    return close + 1;
+                }
+            } else if (isPlaceholderChar(next)) {
+                int j = i + 2;
+                while (j < end && isPlaceholderChar(content.charAt(j))) {
+                    j++;
+                }
+                out.append(PLACEHOLDER);
+                return j;
+            } else if (next == '$') {
+                out.append(DOLLAR_SIGN);
+                return i + 2;
+            }
+        } else if (c == '@' && i + 1 < end && content.charAt(i + 1) == '@') {
+            out.append(AT_SIGN);
+            return i + 2;
+        }
+        out.append(c);
+        return i + 1;
+    }
+
+    private static boolean startsScalar(String content, int lineStart, int i) {
+        if (i == lineStart) {
+            return true;
+        }
+        char previous = content.charAt(i - 1);
+        // A colon directly before a quote only occurs in JSON style flow mappings such as {"url":"..."}
+        return isWhitespace(previous) || previous == '[' || previous == '{' || previous == ',' || previous == ':';
+    }
+
+    /**
+     * Checks whether the normalized line ends in a block scalar indicator such as {@code |}, {@code >-} or {@code |2}
+     */
+    private static boolean opensBlockScalar(StringBuilder out, int lineStart) {
+        int i = out.length() - 1;
+        while (i >= lineStart && (out.charAt(i) == '-' || out.charAt(i) == '+' || Character.isDigit(out.charAt(i)))) {
+            i--;
+        }
+        if (i < lineStart || (out.charAt(i) != '|' && out.charAt(i) != '>')) {
+            return false;
+        }
+        return i == lineStart || isWhitespace(out.charAt(i - 1));
+    }
+
+    private static void trimTrailingWhitespace(StringBuilder out, int lineStart) {
+        int length = out.length();
+        while (length > lineStart && isWhitespace(out.charAt(length - 1))) {
+            length--;
+        }
+        out.setLength(length);
+    }
+
+    private static boolean isSpecial(char c) {
+        return c == '$' || c == '@' || c == '#' || c == '\'' || c == '"' || c == '\\';
+    }
+
+    private static boolean isPlaceholderChar(char c) {
+        return (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Reads one source line at a time and hands out its normalized form
+     */
+    private static final class NormalizingReader extends Reader {
+        private final Reader in;
+        private final LineState state = new LineState();
+        private final char[] chunk = new char[8192];
+        private int chunkPosition;
+        private int chunkLength;
+        private final StringBuilder line = new StringBuilder();
+        private final StringBuilder normalized = new StringBuilder();
+        private int position;
+        private boolean eof;
+
+        NormalizingReader(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (position == normalized.length()) {
+                if (!nextLine()) {
+                    return -1;
+                }
+            }
+            int count = Math.min(length, normalized.length() - position);
+            normalized.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        private boolean nextLine() throws IOException {
+            normalized.setLength(0);
+            position = 0;
+            line.setLength(0);
+
+            // Copy up to the line break, refilling the chunk as often as the line needs
+            while (true) {
+                if (chunkPosition == chunkLength && !fill()) {
+                    if (line.length() == 0) {
+                        return false;
+                    }
+                    normalizeLine(line.toString(), 0, line.length(), state, normalized);
+                    return true;
+                }
+                int end = chunkPosition;
+                while (end < chunkLength && chunk[end] != '\n' && chunk[end] != '\r') {
+                    end++;
+                }
+                line.append(chunk, chunkPosition, end - chunkPosition);
+                chunkPosition = end;
+                if (end < chunkLength) {
+                    break;
+                }
+            }
+
+            char lineBreak = chunk[chunkPosition++];
+            if (lineBreak == '\r' && (chunkPosition < chunkLength || fill()) && chunk[chunkPosition] == '\n') {
+                chunkPosition++;
+            }
+            normalizeLine(line.toString(), 0, line.length(), state, normalized);
+            normalized.append('\n');
+            return true;
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            int read;
+            do {
+                read = in.read(chunk);
+            } while (read == 0);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            chunkPosition = 0;
+            chunkLength = read;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
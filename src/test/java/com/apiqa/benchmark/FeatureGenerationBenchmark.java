@@ -0,0 +1,87 @@
+package com.apiqa.benchmark;
+
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.service.EnvironmentLookupService;
+import com.apiqa.service.OpenApiParserService;
+import com.apiqa.service.SpecDiffService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature file generation for the pet store sample and synthetic OpenAPI 3 specs of 200 and 2000 paths,
+ * at different pool sizes.
+ * The parsed spec is cached after the first invocation, so this measures generation only.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.apiqa.benchmark.FeatureGenerationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureGenerationBenchmark {
+
+    /** A sample spec, or the number of resources of a synthetic spec (two paths each) */
+    @Param({"petspec.yml", "100", "1000"})
+    private String spec;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private OpenApiParserService parser;
+    private String content;
+    private ApiSpec apiSpec;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        parser = new OpenApiParserService();
+        ReflectionTestUtils.setField(parser, "environmentLookupService", Mockito.mock(EnvironmentLookupService.class));
+        ReflectionTestUtils.setField(parser, "specDiffService", new SpecDiffService());
+        ReflectionTestUtils.setField(parser, "generationParallelism", parallelism);
+        ReflectionTestUtils.setField(parser, "parsedSpecCacheSize", 16);
+        parser.initGenerationPool();
+
+        content = spec.endsWith(".yml")
+                ? Files.readString(Paths.get("sample", spec))
+                : SyntheticSpecs.openApi(Integer.parseInt(spec));
+        apiSpec = new ApiSpec("benchmark", content, "1.0.0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parser.shutdownGenerationPool();
+    }
+
+    @Benchmark
+    public List<FeatureFile> generate() {
+        return parser.parseOpenApiSpec(content, apiSpec);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FeatureGenerationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,36 @@
+package com.apiqa.benchmark;
+
+/**
+ * Generated specs of a given size for benchmarks and tests
+ */
+public final class SyntheticSpecs {
+
+    private SyntheticSpecs() {
+    }
+
+    /**
+     * Builds an OpenAPI 3 spec with a collection and an item path per resource.
+     * Each resource has a GET and POST collection operation and a GET and DELETE item operation.
+     * @param resources The number of resources; the spec has twice as many paths
+     * @return The spec as YAML
+     */
+    public static String openApi(int resources) {
+        StringBuilder spec = new StringBuilder("openapi: 3.0.0\ninfo:\n  title: Synthetic\n  version: 1.0.0\npaths:\n");
+        for (int i = 0; i < resources; i++) {
+            spec.append("  /resources").append(i).append(":\n")
+                .append("    get:\n      summary: List resources ").append(i).append("\n")
+                .append("      responses:\n        '200':\n          description: OK\n")
+                .append("    post:\n      summary: Create resource ").append(i).append("\n")
+                .append("      requestBody:\n        content:\n          application/json:\n            schema:\n")
+                .append("              type: object\n              properties:\n                name:\n                  type: string\n")
+                .append("      responses:\n        '201':\n          description: Created\n")
+                .append("  /resources").append(i).append("/{resourceId}:\n")
+                .append("    parameters:\n      - name: resourceId\n        in: path\n        required: true\n        schema:\n          type: integer\n")
+                .append("    get:\n      summary: Get resource ").append(i).append("\n")
+                .append("      responses:\n        '200':\n          description: OK\n")
+                .append("    delete:\n      summary: Delete resource ").append(i).append("\n")
+                .append("      responses:\n        '204':\n          description: Deleted\n");
+        }
+        return spec.toString();
+    }
+}
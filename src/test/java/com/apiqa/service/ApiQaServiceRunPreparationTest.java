@@ -0,0 +1,115 @@
+package com.apiqa.service;
+
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.TestScenario;
+import com.apiqa.model.TestSuiteType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that preparing a run loads a spec with a fixed number of queries, however many
+ * feature files and scenarios it has.
+ */
+@DataJpaTest
+@Import(ApiQaService.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class ApiQaServiceRunPreparationTest {
+
+    @Autowired
+    private ApiQaService apiQaService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private OpenApiParserService parserService;
+
+    @MockBean
+    private TestExecutionService testExecutionService;
+
+    @MockBean
+    private SpecDiffService specDiffService;
+
+    @MockBean
+    private StreamingSpecReader streamingSpecReader;
+
+    @MockBean
+    private BlobStoreService blobStoreService;
+
+    @MockBean
+    private TestRunEventService testRunEventService;
+
+    @MockBean
+    private TestSelectionService testSelectionService;
+
+    @MockBean
+    private TestRunControlService testRunControlService;
+
+    @Test
+    void loadsSpecWithConstantQueryCount() {
+        long small = countQueriesToLoad(createSpec("small", 2, 3));
+        // More feature files than the batch fetch size, so lazy loading would need extra queries
+        long large = countQueriesToLoad(createSpec("large", 120, 5));
+
+        // One query for the spec and its feature files, one for all of their scenarios
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    private long countQueriesToLoad(Long apiSpecId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        ApiSpec apiSpec = apiQaService.loadApiSpecForRun(apiSpecId);
+        int scenarios = 0;
+        for (FeatureFile featureFile : apiSpec.getFeatureFiles()) {
+            for (TestScenario scenario : featureFile.getTestScenarios()) {
+                scenario.getEndpoint();
+                scenarios++;
+            }
+        }
+        long queries = statistics.getPrepareStatementCount();
+        assertEquals(countScenarios(apiSpecId), scenarios);
+        return queries;
+    }
+
+    private Long createSpec(String name, int featureFiles, int scenariosPerFile) {
+        ApiSpec apiSpec = new ApiSpec(name, "openapi: 3.0.0", "1.0");
+        entityManager.persist(apiSpec);
+        for (int i = 0; i < featureFiles; i++) {
+            FeatureFile featureFile = new FeatureFile(name + "-" + i + ".feature", TestSuiteType.values()[i % TestSuiteType.values().length],
+                    "Feature: " + name, apiSpec);
+            entityManager.persist(featureFile);
+            for (int j = 0; j < scenariosPerFile; j++) {
+                entityManager.persist(new TestScenario("Scenario " + j, null, "GET", "/items/" + j,
+                        null, null, null, 200, null, featureFile));
+            }
+        }
+        entityManager.flush();
+        return apiSpec.getId();
+    }
+
+    private long countScenarios(Long apiSpecId) {
+        return entityManager.createQuery("SELECT COUNT(s) FROM TestScenario s WHERE s.featureFile.apiSpec.id = :id", Long.class)
+                .setParameter("id", apiSpecId)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,281 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.SpecDiff;
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestScenario;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Regenerates the tests of a spec after one operation changed, one was added and one removed,
+ * and checks that everything else keeps its scenario IDs and execution history.
+ */
+@DataJpaTest
+@Import({ApiQaService.class, OpenApiParserService.class})
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class ApiQaServiceSpecDiffTest {
+
+    private static final String V1 = """
+            openapi: 3.0.0
+            info:
+              title: Pets
+              version: 1.0.0
+            servers:
+              - url: http://localhost:8080
+            paths:
+              /pets:
+                get:
+                  responses:
+                    '200':
+                      description: ok
+                post:
+                  requestBody:
+                    content:
+                      application/json:
+                        schema:
+                          $ref: '#/components/schemas/Pet'
+                  responses:
+                    '201':
+                      description: created
+              /pets/{petId}:
+                get:
+                  parameters:
+                    - name: petId
+                      in: path
+                      required: true
+                      schema:
+                        type: integer
+                  responses:
+                    '200':
+                      description: ok
+                delete:
+                  parameters:
+                    - name: petId
+                      in: path
+                      required: true
+                      schema:
+                        type: integer
+                  responses:
+                    '204':
+                      description: deleted
+              /owners:
+                get:
+                  responses:
+                    '200':
+                      description: ok
+              /vets:
+                get:
+                  responses:
+                    '200':
+                      description: ok
+            components:
+              schemas:
+                Pet:
+                  type: object
+                  properties:
+                    name:
+                      type: string
+            """;
+
+    // Owners gets a query parameter and vets is removed. Pets/search is added ahead of pets/{petId},
+    // and its integration flow is named like the one of pets/{petId}
+    private static final String V2 = """
+            openapi: 3.0.0
+            info:
+              title: Pets
+              version: 1.0.0
+            servers:
+              - url: http://localhost:8080
+            paths:
+              /pets:
+                get:
+                  responses:
+                    '200':
+                      description: ok
+                post:
+                  requestBody:
+                    content:
+                      application/json:
+                        schema:
+                          $ref: '#/components/schemas/Pet'
+                  responses:
+                    '201':
+                      description: created
+              /pets/search:
+                get:
+                  responses:
+                    '200':
+                      description: ok
+              /pets/{petId}:
+                get:
+                  parameters:
+                    - name: petId
+                      in: path
+                      required: true
+                      schema:
+                        type: integer
+                  responses:
+                    '200':
+                      description: ok
+                delete:
+                  parameters:
+                    - name: petId
+                      in: path
+                      required: true
+                      schema:
+                        type: integer
+                  responses:
+                    '204':
+                      description: deleted
+              /owners:
+                get:
+                  parameters:
+                    - name: limit
+                      in: query
+                      schema:
+                        type: integer
+                  responses:
+                    '200':
+                      description: ok
+            components:
+              schemas:
+                Pet:
+                  type: object
+                  properties:
+                    name:
+                      type: string
+            """;
+
+    @Autowired
+    private ApiQaService apiQaService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @SpyBean
+    private SpecDiffService specDiffService;
+
+    @MockBean
+    private EnvironmentLookupService environmentLookupService;
+
+    @MockBean
+    private TestExecutionService testExecutionService;
+
+    @MockBean
+    private StreamingSpecReader streamingSpecReader;
+
+    @MockBean
+    private BlobStoreService blobStoreService;
+
+    @MockBean
+    private TestRunEventService testRunEventService;
+
+    @MockBean
+    private TestSelectionService testSelectionService;
+
+    @MockBean
+    private TestRunControlService testRunControlService;
+
+    @Test
+    void regenerationKeepsUnaffectedScenariosAndTheirHistory() {
+        List<SpecDiff> diffs = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            SpecDiff diff = (SpecDiff) invocation.callRealMethod();
+            diffs.add(diff);
+            return diff;
+        }).when(specDiffService).diff(Mockito.any(), Mockito.any());
+
+        ApiSpec apiSpec = new ApiSpec("pets", V1, "1.0");
+        entityManager.persist(apiSpec);
+        Long apiSpecId = apiSpec.getId();
+        apiQaService.generateFeatureFiles(apiSpecId, false);
+        Map<Long, String> before = scenarios(apiSpecId).stream()
+                .collect(Collectors.toMap(TestScenario::getId, TestScenario::getOperationKey));
+        Map<Long, Long> executionsBefore = runAll(apiSpecId);
+
+        entityManager.find(ApiSpec.class, apiSpecId).setOpenApiYaml(V2);
+        entityManager.flush();
+        entityManager.clear();
+        apiQaService.generateFeatureFiles(apiSpecId, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(Set.of("GET /owners", "GET /pets/search", "GET /vets"), diffs.get(1).getAffectedOperations());
+
+        Map<Long, TestScenario> after = scenarios(apiSpecId).stream()
+                .collect(Collectors.toMap(TestScenario::getId, Function.identity()));
+        Map<Long, Long> executionsAfter = executionsByScenario(apiSpecId);
+        before.forEach((id, operationKey) -> {
+            if (operationKey.equals("GET /vets")) {
+                assertNull(after.get(id), "removed " + id);
+                return;
+            }
+            TestScenario scenario = after.get(id);
+            assertNotNull(scenario, "kept " + id);
+            assertEquals(operationKey, scenario.getOperationKey());
+            assertEquals(executionsBefore.get(id), executionsAfter.get(id));
+            if (operationKey.equals("GET /owners")) {
+                assertNotNull(scenario.getChangedAt(), "changed " + id);
+            } else {
+                assertNull(scenario.getChangedAt(), "unchanged " + id);
+            }
+        });
+        // Only the added operation got new scenarios
+        after.values().stream()
+                .filter(scenario -> !before.containsKey(scenario.getId()))
+                .forEach(scenario -> assertTrue(Set.of("GET /pets/search", "GET /owners").contains(scenario.getOperationKey()),
+                        scenario.getScenarioName()));
+        assertTrue(after.values().stream().anyMatch(scenario -> scenario.getOperationKey().equals("GET /pets/search")));
+    }
+
+    private List<TestScenario> scenarios(Long apiSpecId) {
+        return entityManager.createQuery("SELECT s FROM TestScenario s WHERE s.featureFile.apiSpec.id = :id", TestScenario.class)
+                .setParameter("id", apiSpecId)
+                .getResultList();
+    }
+
+    /**
+     * Runs every scenario once, as far as the history is concerned
+     * @return Executions per scenario ID
+     */
+    private Map<Long, Long> runAll(Long apiSpecId) {
+        TestRun testRun = new TestRun("v1", TestRunType.MANUAL, entityManager.find(ApiSpec.class, apiSpecId));
+        entityManager.persist(testRun);
+        for (TestScenario scenario : scenarios(apiSpecId)) {
+            entityManager.persist(new TestExecution(scenario, testRun));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return executionsByScenario(apiSpecId);
+    }
+
+    private Map<Long, Long> executionsByScenario(Long apiSpecId) {
+        return entityManager.createQuery("SELECT e.testScenario.id, COUNT(e) FROM TestExecution e " +
+                        "WHERE e.testScenario.featureFile.apiSpec.id = :id GROUP BY e.testScenario.id", Object[].class)
+                .setParameter("id", apiSpecId)
+                .getResultStream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+    }
+}
@@ -0,0 +1,75 @@
+package com.apiqa.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks which blobs the sweep deletes: only unreferenced ones nothing has stored or reused since the cutoff.
+ */
+class BlobStoreServiceTest {
+
+    @TempDir
+    Path blobStorePath;
+
+    private BlobStoreService blobStoreService;
+
+    @BeforeEach
+    void setUp() {
+        blobStoreService = new BlobStoreService();
+        ReflectionTestUtils.setField(blobStoreService, "blobStorePath", blobStorePath.toString());
+    }
+
+    @Test
+    void deletesOnlyOldUnreferencedBlobs() throws IOException {
+        String referenced = storeAged("referenced", Duration.ofDays(2));
+        String unreferenced = storeAged("unreferenced", Duration.ofDays(2));
+        String recent = blobStoreService.store("recent");
+
+        int deleted = blobStoreService.deleteUnreferenced(Set.of(referenced), Instant.now().minus(Duration.ofDays(1)));
+
+        assertEquals(1, deleted);
+        assertEquals("referenced", blobStoreService.load(referenced));
+        assertNull(blobStoreService.load(unreferenced));
+        assertEquals("recent", blobStoreService.load(recent));
+    }
+
+    @Test
+    void reusedBlobIsKept() throws IOException {
+        String hash = storeAged("shared body", Duration.ofDays(2));
+
+        // Another execution stores the same body but has not saved its reference yet
+        assertEquals(hash, blobStoreService.store("shared body"));
+
+        assertEquals(0, blobStoreService.deleteUnreferenced(Set.of(), Instant.now().minus(Duration.ofDays(1))));
+        assertEquals("shared body", blobStoreService.load(hash));
+    }
+
+    @Test
+    void deletedBlobIsStoredAgain() throws IOException {
+        String hash = storeAged("body", Duration.ofDays(2));
+        blobStoreService.deleteUnreferenced(Set.of(), Instant.now());
+
+        assertEquals(hash, blobStoreService.store("body"));
+        assertEquals("body", blobStoreService.load(hash));
+    }
+
+    private String storeAged(String content, Duration age) throws IOException {
+        String hash = blobStoreService.store(content);
+        Path blobPath = blobStorePath.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+        Files.setLastModifiedTime(blobPath, FileTime.from(Instant.now().minus(age)));
+        return hash;
+    }
+}
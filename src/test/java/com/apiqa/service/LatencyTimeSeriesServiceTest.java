@@ -0,0 +1,96 @@
+package com.apiqa.service;
+
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestScenario;
+import com.apiqa.model.TestSuiteType;
+import com.apiqa.dto.LatencyTrendPoint;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that latency is keyed on the spec's path template rather than the concrete request URL,
+ * and that reused responses are not counted as samples.
+ * Data is committed up front, since the service reads it in transactions of its own.
+ */
+@DataJpaTest
+@Import(LatencyTimeSeriesService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class LatencyTimeSeriesServiceTest {
+
+    @Autowired
+    private LatencyTimeSeriesService latencyTimeSeriesService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void executionsAreKeyedOnOperationPathTemplate() {
+        TestRun testRun = transactionTemplate.execute(status -> {
+            ApiSpec apiSpec = new ApiSpec("users", "openapi: 3.0.0", "1.0");
+            entityManager.persist(apiSpec);
+            FeatureFile featureFile = new FeatureFile("users.feature", TestSuiteType.SMOKE, "Feature: users", apiSpec);
+            entityManager.persist(featureFile);
+            TestRun run = new TestRun("run", TestRunType.MANUAL, apiSpec);
+            entityManager.persist(run);
+
+            // Generated path values such as user1 do not look like identifiers
+            for (String userId : List.of("user1", "user2")) {
+                TestScenario scenario = new TestScenario("Get " + userId, null, "GET", "/users/" + userId,
+                        null, null, null, 200, null, featureFile);
+                scenario.setOperationKey("GET /users/{userId}");
+                entityManager.persist(scenario);
+                persistExecution(new TestExecution(scenario, run), "https://api.example.com/users/" + userId, 40L);
+
+                // The same request again answered with the shared response is not another sample
+                TestExecution reused = new TestExecution(scenario, run);
+                reused.setResponseReused(true);
+                persistExecution(reused, "https://api.example.com/users/" + userId, 40L);
+            }
+            // Without a scenario the template is still guessed from the URL
+            persistExecution(new TestExecution((TestScenario) null, run), "https://api.example.com/items/42?full=true", 80L);
+            return run;
+        });
+
+        assertEquals(2, latencyTimeSeriesService.recordRun(testRun));
+
+        Long apiSpecId = testRun.getApiSpec().getId();
+        assertEquals(List.of(
+                Map.of("method", "GET", "endpointTemplate", "/items/{id}"),
+                Map.of("method", "GET", "endpointTemplate", "/users/{userId}")),
+                latencyTimeSeriesService.getSeries(apiSpecId));
+        List<LatencyTrendPoint> trend = latencyTimeSeriesService.getTrend(apiSpecId, "GET", "/users/{userId}",
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+        assertEquals(1, trend.size());
+        assertEquals(2, trend.get(0).getSampleCount());
+    }
+
+    private void persistExecution(TestExecution execution, String requestUrl, long executionTimeMs) {
+        execution.setRequestMethod("GET");
+        execution.setRequestUrl(requestUrl);
+        execution.setExecutionTimeMs(executionTimeMs);
+        execution.setStatus(TestExecutionStatus.PASSED);
+        entityManager.persist(execution);
+    }
+}
@@ -0,0 +1,189 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.RunCredentials;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Exercises the single-flight token refresh against a stub token endpoint that answers slowly,
+ * so concurrent callers are all waiting while the one request is in flight.
+ */
+class OAuth2TokenServiceTest {
+
+    private static final int CALLERS = 16;
+
+    private HttpServer server;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final List<String> refreshTokensUsed = new CopyOnWriteArrayList<>();
+    private final Set<String> validRefreshTokens = ConcurrentHashMap.newKeySet();
+    private volatile long expiresIn = 3600;
+
+    private OAuth2TokenService oAuth2TokenService;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void startTokenEndpoint() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oauth/token", this::issueToken);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        oAuth2TokenService = new OAuth2TokenService();
+        ReflectionTestUtils.setField(oAuth2TokenService, "refreshSkewSeconds", 0L);
+        ReflectionTestUtils.setField(oAuth2TokenService, "defaultExpiresInSeconds", 300L);
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void stopTokenEndpoint() {
+        callers.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() throws Exception {
+        RunCredentials credentials = credentials(Map.of());
+
+        Set<String> tokens = getTokensConcurrently(credentials);
+
+        assertEquals(1, tokenRequests.get());
+        assertEquals(1, tokens.size());
+    }
+
+    @Test
+    void expiredTokenIsRefreshedOnceForConcurrentCallers() throws Exception {
+        RunCredentials credentials = credentials(Map.of());
+        expiresIn = 1;
+        String first = oAuth2TokenService.getAccessToken(credentials);
+        Thread.sleep(1100);
+
+        Set<String> tokens = getTokensConcurrently(credentials);
+
+        assertEquals(2, tokenRequests.get());
+        assertEquals(1, tokens.size());
+        assertFalse(tokens.contains(first));
+    }
+
+    @Test
+    void refreshTokenGrantUsesRotatedRefreshToken() throws Exception {
+        validRefreshTokens.add("initial");
+        RunCredentials credentials = credentials(Map.of(
+                OAuth2TokenService.GRANT_TYPE, "refresh_token",
+                OAuth2TokenService.REFRESH_TOKEN, "initial"));
+        expiresIn = 1;
+        oAuth2TokenService.getAccessToken(credentials);
+        Thread.sleep(1100);
+
+        getTokensConcurrently(credentials);
+
+        // The stub rejects reused refresh tokens, so a second refresh with "initial" would have failed
+        assertEquals(2, tokenRequests.get());
+        assertEquals("initial", refreshTokensUsed.get(0));
+        assertNotEquals("initial", refreshTokensUsed.get(1));
+    }
+
+    private Set<String> getTokensConcurrently(RunCredentials credentials) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return oAuth2TokenService.getAccessToken(credentials);
+            }));
+        }
+        start.countDown();
+
+        Set<String> tokens = new HashSet<>();
+        for (Future<String> result : results) {
+            tokens.add(result.get(10, TimeUnit.SECONDS));
+        }
+        return tokens;
+    }
+
+    private RunCredentials credentials(Map<String, String> extra) {
+        Map<String, String> variables = new ConcurrentHashMap<>(extra);
+        variables.put(OAuth2TokenService.TOKEN_URL, "http://127.0.0.1:" + server.getAddress().getPort() + "/oauth/token");
+        variables.put(OAuth2TokenService.CLIENT_ID, "client");
+        variables.put(OAuth2TokenService.CLIENT_SECRET, "secret");
+        return new RunCredentials(1L, "test", variables, null);
+    }
+
+    private void issueToken(HttpExchange exchange) throws IOException {
+        tokenRequests.incrementAndGet();
+        Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        try {
+            // Slow enough that every concurrent caller arrives while this request is in flight
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        String body;
+        int status = 200;
+        if ("refresh_token".equals(form.get("grant_type"))) {
+            refreshTokensUsed.add(form.get("refresh_token"));
+            // Refresh tokens are single use and rotated on every refresh
+            if (!validRefreshTokens.remove(form.get("refresh_token"))) {
+                status = 400;
+                body = "{\"error\": \"invalid_grant\"}";
+            } else {
+                String rotated = UUID.randomUUID().toString();
+                validRefreshTokens.add(rotated);
+                body = tokenBody() + ", \"refresh_token\": \"" + rotated + "\"}";
+            }
+        } else {
+            body = tokenBody() + "}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String tokenBody() {
+        return "{\"access_token\": \"" + UUID.randomUUID() + "\", \"token_type\": \"Bearer\", \"expires_in\": " + expiresIn;
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new ConcurrentHashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+}
@@ -0,0 +1,154 @@
+package com.apiqa.service;
+
+import com.apiqa.benchmark.SyntheticSpecs;
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.FeatureFile;
+import com.apiqa.model.TestScenario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks that feature file generation is deterministic: the same spec gives the same feature files
+ * and scenarios however often it is generated and however many threads generate it, and that
+ * operation hashes change with the generator inputs shared by all operations.
+ */
+class OpenApiParserServiceGenerationTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"petspec.yml", "petspec-swagger2.yml", "jsonplaceholder.yml", "httpbinspec-swagger2.yml"})
+    void generationIsRepeatableAcrossParallelism(String sample) throws IOException {
+        String spec = Files.readString(Paths.get("sample", sample));
+
+        String sequential = render(generate(spec, 1));
+        assertEquals(sequential, render(generate(spec, 1)));
+        assertEquals(sequential, render(generate(spec, 4)));
+    }
+
+    @Test
+    void largeSpecIsGeneratedInParallelWithSequentialOutput() {
+        // Above the parallel path threshold, so paths are split across the pool
+        String spec = SyntheticSpecs.openApi(100);
+
+        String sequential = render(generate(spec, 1));
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, render(generate(spec, 4)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"petspec.yml", "petspec-swagger2.yml", "jsonplaceholder.yml"})
+    void streamedSpecIsGeneratedLikeInMemorySpec(String sample) throws IOException {
+        // Placeholders, comments and CRLF line endings are all normalized before parsing
+        String spec = Files.readString(Paths.get("sample", sample))
+                .replace("petstore3.swagger.io", "${PET_HOST}")
+                .replace("\ninfo:", "\n# generated\ninfo:  # spec info")
+                .replace("\n", "\r\n");
+        StreamingSpecReader reader = new StreamingSpecReader();
+        ReflectionTestUtils.setField(reader, "batchPaths", 3);
+        ReflectionTestUtils.setField(reader, "batchChars", 2000000L);
+
+        OpenApiParserService parser = newParser(1);
+        try {
+            StreamingSpecReader.StreamingSpec streamed = reader.open(() -> new ByteArrayInputStream(spec.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(render(generate(spec, 1)), render(parser.parseStreamingSpec(streamed, new ApiSpec("sample", null, "1.0.0"))));
+        } finally {
+            parser.shutdownGenerationPool();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"petspec.yml", "petspec-swagger2.yml"})
+    void baseUrlChangeChangesEveryOperationHash(String sample) throws IOException {
+        String spec = Files.readString(Paths.get("sample", sample));
+        String moved = spec.replace("petstore3.swagger.io", "petstore.example.com");
+
+        assertAllHashesDiffer(generate(spec, 1), generate(moved, 1));
+    }
+
+    @Test
+    void tokenChangeChangesEveryOperationHash() throws IOException {
+        String spec = Files.readString(Paths.get("sample", "petspec.yml"));
+        EnvironmentLookupService withToken = Mockito.mock(EnvironmentLookupService.class);
+        Mockito.when(withToken.getDefaultToken()).thenReturn("secret");
+
+        OpenApiParserService parser = newParser(1, withToken);
+        try {
+            assertAllHashesDiffer(generate(spec, 1), parser.parseOpenApiSpec(spec, new ApiSpec("sample", spec, "1.0.0")));
+        } finally {
+            parser.shutdownGenerationPool();
+        }
+    }
+
+    private static void assertAllHashesDiffer(List<FeatureFile> before, List<FeatureFile> after) {
+        List<String> beforeHashes = operationHashes(before);
+        List<String> afterHashes = operationHashes(after);
+        assertFalse(beforeHashes.isEmpty());
+        assertEquals(beforeHashes.size(), afterHashes.size());
+        for (int i = 0; i < beforeHashes.size(); i++) {
+            assertNotEquals(beforeHashes.get(i), afterHashes.get(i));
+        }
+    }
+
+    private static List<String> operationHashes(List<FeatureFile> featureFiles) {
+        List<String> hashes = new ArrayList<>();
+        for (FeatureFile featureFile : featureFiles) {
+            for (TestScenario scenario : featureFile.getTestScenarios()) {
+                if (scenario.getOperationKey() != null) {
+                    hashes.add(scenario.getOperationHash());
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private static OpenApiParserService newParser(int parallelism) {
+        return newParser(parallelism, Mockito.mock(EnvironmentLookupService.class));
+    }
+
+    private static OpenApiParserService newParser(int parallelism, EnvironmentLookupService environmentLookupService) {
+        OpenApiParserService parser = new OpenApiParserService();
+        ReflectionTestUtils.setField(parser, "environmentLookupService", environmentLookupService);
+        ReflectionTestUtils.setField(parser, "specDiffService", new SpecDiffService());
+        ReflectionTestUtils.setField(parser, "generationParallelism", parallelism);
+        ReflectionTestUtils.setField(parser, "parsedSpecCacheSize", 16);
+        parser.initGenerationPool();
+        return parser;
+    }
+
+    private static List<FeatureFile> generate(String spec, int parallelism) {
+        OpenApiParserService parser = newParser(parallelism);
+        try {
+            return parser.parseOpenApiSpec(spec, new ApiSpec("sample", spec, "1.0.0"));
+        } finally {
+            parser.shutdownGenerationPool();
+        }
+    }
+
+    private static String render(List<FeatureFile> featureFiles) {
+        StringBuilder rendered = new StringBuilder();
+        for (FeatureFile featureFile : featureFiles) {
+            rendered.append("== ").append(featureFile.getFileName()).append('\n').append(featureFile.getContent()).append('\n');
+            for (TestScenario scenario : featureFile.getTestScenarios()) {
+                rendered.append(scenario.getScenarioName()).append(' ').append(scenario.getHttpMethod()).append(' ')
+                        .append(scenario.getEndpoint()).append(' ').append(scenario.getExpectedStatusCode()).append(' ')
+                        .append(scenario.getOperationKey()).append(' ').append(scenario.getOperationHash()).append('\n')
+                        .append(scenario.getRequestBody()).append('\n');
+            }
+        }
+        return rendered.toString();
+    }
+}
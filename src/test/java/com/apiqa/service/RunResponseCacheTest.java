@@ -0,0 +1,87 @@
+package com.apiqa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which responses a run shares between scenarios, and that unsafe requests clear them.
+ */
+class RunResponseCacheTest {
+
+    private final List<String> sent = new ArrayList<>();
+    private final RunResponseCache cache = new RunResponseCache();
+
+    @Test
+    void identicalSafeRequestsShareOneResponse() {
+        assertFalse(cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send).isReused());
+        RunResponseCache.Result second = cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send);
+
+        assertTrue(second.isReused());
+        assertEquals("GET /pets/1", second.getResponse().getBody());
+        assertEquals(List.of("GET /pets/1"), sent);
+        assertEquals(1, cache.getReusedCount());
+    }
+
+    @Test
+    void unsafeRequestClearsSharedResponses() {
+        cache.exchange(request(HttpMethod.GET, "/pets"), this::send);
+        cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send);
+
+        cache.exchange(request(HttpMethod.DELETE, "/pets/1"), this::send);
+
+        // Other paths too, since the collection lists the deleted pet
+        assertFalse(cache.exchange(request(HttpMethod.GET, "/pets"), this::send).isReused());
+        assertFalse(cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send).isReused());
+        assertEquals(5, sent.size());
+    }
+
+    @Test
+    void failedUnsafeRequestStillClearsSharedResponses() {
+        cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send);
+
+        assertThrows(ResourceAccessException.class, () -> cache.exchange(request(HttpMethod.PUT, "/pets/1"), request -> {
+            throw new ResourceAccessException("Read timed out");
+        }));
+
+        assertFalse(cache.exchange(request(HttpMethod.GET, "/pets/1"), this::send).isReused());
+    }
+
+    @Test
+    void errorStatusIsSharedButMissingResponseIsNot() {
+        cache.exchange(request(HttpMethod.GET, "/missing"), request -> {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+        });
+        RunResponseCache.Result notFound = cache.exchange(request(HttpMethod.GET, "/missing"), this::send);
+        assertTrue(notFound.isReused());
+        assertThrows(HttpClientErrorException.NotFound.class, notFound::getResponse);
+
+        assertThrows(ResourceAccessException.class, () -> cache.exchange(request(HttpMethod.GET, "/slow"), request -> {
+            throw new ResourceAccessException("Read timed out");
+        }));
+        assertFalse(cache.exchange(request(HttpMethod.GET, "/slow"), this::send).isReused());
+    }
+
+    private ResponseEntity<String> send(RequestEntity<String> request) {
+        String call = request.getMethod() + " " + request.getUrl().getPath();
+        sent.add(call);
+        return ResponseEntity.ok(call);
+    }
+
+    private static RequestEntity<String> request(HttpMethod method, String path) {
+        return RequestEntity.method(method, URI.create("http://localhost" + path)).body(null);
+    }
+}
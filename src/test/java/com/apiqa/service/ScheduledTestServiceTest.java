@@ -0,0 +1,38 @@
+package com.apiqa.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that ticks of the default schedule are named after the cron fire time, not the time they start.
+ */
+class ScheduledTestServiceTest {
+
+    @Test
+    void tickIsTheCronFireTime() {
+        ScheduledTestService service = serviceWithNextTick(LocalDateTime.of(2026, 1, 1, 8, 0));
+
+        // Started three seconds late on this instance
+        assertEquals(LocalDateTime.of(2026, 1, 1, 8, 0), service.currentTick(LocalDateTime.of(2026, 1, 1, 8, 0, 3)));
+        assertEquals(LocalDateTime.of(2026, 1, 1, 12, 0), service.currentTick(LocalDateTime.of(2026, 1, 1, 12, 0, 0, 500_000_000)));
+    }
+
+    @Test
+    void missedFireTimesCollapseIntoLatest() {
+        ScheduledTestService service = serviceWithNextTick(LocalDateTime.of(2026, 1, 1, 8, 0));
+
+        assertEquals(LocalDateTime.of(2026, 1, 1, 16, 0), service.currentTick(LocalDateTime.of(2026, 1, 1, 16, 5)));
+        assertEquals(LocalDateTime.of(2026, 1, 1, 20, 0), service.currentTick(LocalDateTime.of(2026, 1, 1, 20, 0, 1)));
+    }
+
+    private static ScheduledTestService serviceWithNextTick(LocalDateTime nextTick) {
+        ScheduledTestService service = new ScheduledTestService();
+        ReflectionTestUtils.setField(service, "cron", "0 0 */4 * * *");
+        ReflectionTestUtils.setField(service, "nextTick", nextTick);
+        return service;
+    }
+}
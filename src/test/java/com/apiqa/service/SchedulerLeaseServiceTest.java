@@ -0,0 +1,119 @@
+package com.apiqa.service;
+
+import com.apiqa.repository.SchedulerLeaseRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two instances sharing one database: fencing tokens when a lease changes hands, and the instance
+ * leases that tell which instances are alive. Heartbeats are driven by the tests.
+ */
+@DataJpaTest
+@Import(SchedulerLeaseService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "apiqa.cluster.instance-id=a",
+        "apiqa.cluster.lease-seconds=1",
+        "apiqa.cluster.heartbeat-millis=3600000",
+        "spring.jpa.show-sql=false"
+})
+class SchedulerLeaseServiceTest {
+
+    @Autowired
+    private SchedulerLeaseService instanceA;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SchedulerLeaseService instanceB;
+
+    @BeforeEach
+    void startSecondInstance() {
+        // Renews the instance lease of A, which expires between tests
+        instanceA.heartbeat();
+        instanceB = new SchedulerLeaseService();
+        ReflectionTestUtils.setField(instanceB, "schedulerLeaseRepository", schedulerLeaseRepository);
+        ReflectionTestUtils.setField(instanceB, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(instanceB, "entityManager", entityManager);
+        ReflectionTestUtils.setField(instanceB, "configuredInstanceId", "b");
+        ReflectionTestUtils.setField(instanceB, "leaseSeconds", 1L);
+        ReflectionTestUtils.setField(instanceB, "heartbeatMillis", 3600000L);
+        ReflectionTestUtils.setField(instanceB, "claimRetentionHours", 24L);
+        instanceB.init();
+    }
+
+    @AfterEach
+    void stopSecondInstance() {
+        instanceB.releaseAll();
+        transactionTemplate.executeWithoutResult(status -> schedulerLeaseRepository.deleteAll());
+    }
+
+    @Test
+    void leaseTakenOverAfterExpiryFencesOutPreviousHolder() throws InterruptedException {
+        AtomicInteger lost = new AtomicInteger();
+        Long first = instanceA.acquire("run", lost::incrementAndGet);
+        assertNotNull(first);
+        assertNull(instanceB.acquire("run", null));
+
+        // A stalls past expiry and B takes over
+        Thread.sleep(1100);
+        Long second = instanceB.acquire("run", null);
+
+        assertNotNull(second);
+        assertTrue(second > first);
+        assertFalse(instanceA.isHeld("run", first));
+        assertTrue(instanceB.isHeld("run", second));
+
+        instanceA.heartbeat();
+        assertEquals(1, lost.get());
+        assertTrue(instanceB.isHeld("run", second));
+    }
+
+    @Test
+    void releasedLeaseContinuesFromItsLastToken() {
+        Long first = instanceA.acquire("run", null);
+        instanceA.release("run");
+
+        // The same instance acquiring again must not reuse the token of its earlier run
+        Long second = instanceA.acquire("run", null);
+
+        assertTrue(second > first);
+        assertFalse(instanceA.isHeld("run", first));
+    }
+
+    @Test
+    void stoppedInstanceIsNoLongerLive() throws InterruptedException {
+        assertEquals(Set.of("a", "b"), instanceA.getLiveInstanceIds());
+
+        // A keeps its heartbeat, B stops without releasing its lease
+        Thread.sleep(1100);
+        instanceA.heartbeat();
+
+        assertEquals(Set.of("a"), instanceA.getLiveInstanceIds());
+    }
+}
@@ -0,0 +1,112 @@
+package com.apiqa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks that recursive schemas are cut off where they refer back to a schema being generated,
+ * and that memoized values are shared but never depend on where generation started.
+ */
+class SchemaExamplesTest {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final SchemaExamples examples = new SchemaExamples(jsonMapper);
+
+    @Test
+    void selfReferencingSchemaIsCutOff() throws Exception {
+        components("Node", new ObjectSchema()
+                .addProperty("name", new StringSchema())
+                .addProperty("next", ref("Node")));
+
+        Map<String, Object> expected = map("name", "test_string", "next", null);
+        assertEquals(expected, examples.testValue(ref("Node")));
+        assertEquals(expected, jsonMapper.readValue(examples.testRequestBody(ref("Node")), Map.class));
+    }
+
+    @Test
+    void mutuallyRecursiveSchemasDependOnEntryPoint() {
+        components("A", new ObjectSchema().addProperty("b", ref("B")),
+                "B", new ObjectSchema().addProperty("a", ref("A")));
+
+        assertEquals(map("b", map("a", null)), examples.testValue(ref("A")));
+        // B was cut short below A, which must not be what B gets when generation starts at B
+        assertEquals(map("a", map("b", null)), examples.testValue(ref("B")));
+    }
+
+    @Test
+    void arrayItemsReferringToParentAreCutOff() {
+        components("Tree", new ObjectSchema()
+                .addProperty("label", new StringSchema())
+                .addProperty("children", new ArraySchema().items(ref("Tree"))));
+
+        assertEquals(map("label", "test_string", "children", Arrays.asList((Object) null)), examples.testValue(ref("Tree")));
+    }
+
+    @Test
+    void sharedComponentIsBuiltOnce() {
+        components("Address", new ObjectSchema().addProperty("street", new StringSchema()),
+                "Person", new ObjectSchema().addProperty("home", ref("Address")).addProperty("work", ref("Address")));
+
+        Map<?, ?> person = (Map<?, ?>) examples.testValue(ref("Person"));
+        Object address = examples.testValue(ref("Address"));
+
+        assertSame(address, person.get("home"));
+        assertSame(address, person.get("work"));
+        // Separate references to the same component share one request body
+        assertSame(examples.testRequestBody(ref("Address")), examples.testRequestBody(ref("Address")));
+    }
+
+    @Test
+    void valueCutShortIsNotMemoizedForOtherEntryPoint() {
+        SchemaExamples reversed = new SchemaExamples(jsonMapper);
+        components("Order", new ObjectSchema().addProperty("customer", ref("Customer")),
+                "Customer", new ObjectSchema()
+                        .addProperty("name", new StringSchema())
+                        .addProperty("lastOrder", ref("Order")));
+        reversed.addComponentSchemas(Map.of("Order", schema("Order"), "Customer", schema("Customer")));
+
+        Object order = examples.testValue(ref("Order"));
+        Object customer = examples.testValue(ref("Customer"));
+
+        assertEquals(map("customer", map("name", "test_string", "lastOrder", null)), order);
+        assertEquals(map("name", "test_string", "lastOrder", map("customer", null)), customer);
+        // Generating the other way round gives the same values
+        assertEquals(customer, reversed.testValue(ref("Customer")));
+        assertEquals(order, reversed.testValue(ref("Order")));
+    }
+
+    private void components(Object... namesAndSchemas) {
+        Map<String, Schema> schemas = new HashMap<>();
+        for (int i = 0; i < namesAndSchemas.length; i += 2) {
+            schemas.put((String) namesAndSchemas[i], (Schema) namesAndSchemas[i + 1]);
+        }
+        examples.addComponentSchemas(schemas);
+    }
+
+    private Schema<?> schema(String name) {
+        return examples.resolve(ref(name));
+    }
+
+    private static Schema<?> ref(String name) {
+        return new Schema<>().$ref("#/components/schemas/" + name);
+    }
+
+    private static Map<String, Object> map(Object... keysAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,118 @@
+package com.apiqa.service;
+
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunStatus;
+import com.apiqa.repository.TestRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers the pause timeout and the cleanup of controls for runs that never execute.
+ */
+class TestRunControlServiceTest {
+
+    private TestRunRepository testRunRepository;
+    private TestRunControlService testRunControlService;
+
+    @BeforeEach
+    void setUp() {
+        testRunRepository = Mockito.mock(TestRunRepository.class);
+        testRunControlService = new TestRunControlService();
+        ReflectionTestUtils.setField(testRunControlService, "testRunRepository", testRunRepository);
+        ReflectionTestUtils.setField(testRunControlService, "pauseTimeoutMinutes", 30L);
+    }
+
+    @Test
+    void pausedRunIsCancelledAfterPauseTimeout() {
+        TestRunControlService.RunControl control = new TestRunControlService.RunControl(200);
+        control.pause();
+
+        long started = System.currentTimeMillis();
+        assertFalse(control.awaitTurn());
+
+        assertTrue(System.currentTimeMillis() - started >= 200);
+        assertTrue(control.isCancelled());
+        assertEquals("Test run cancelled after being paused for 0 minutes", control.getCancelReason());
+    }
+
+    @Test
+    void resumedRunGoesOnBeforePauseTimeout() throws InterruptedException {
+        TestRunControlService.RunControl control = new TestRunControlService.RunControl(10_000);
+        control.pause();
+        Thread resumer = new Thread(() -> {
+            sleep(100);
+            control.resume();
+        });
+        resumer.start();
+
+        assertTrue(control.awaitTurn());
+        resumer.join();
+    }
+
+    @Test
+    void controlOfRunThatEndedWithoutExecutingIsEvicted() {
+        givenRun(1L, TestRunStatus.PENDING);
+        givenRun(2L, TestRunStatus.PENDING);
+        testRunControlService.cancel(1L);
+        testRunControlService.cancel(2L);
+        ageControls();
+
+        // Run 1 failed before it executed, run 2 is still queued
+        givenRun(1L, TestRunStatus.FAILED);
+        testRunControlService.evictAbandonedControls();
+
+        Map<Long, ?> controls = controls();
+        assertFalse(controls.containsKey(1L));
+        assertTrue(controls.containsKey(2L));
+    }
+
+    @Test
+    void controlOfStartedRunIsKept() {
+        givenRun(1L, TestRunStatus.PENDING);
+        testRunControlService.pause(1L);
+        testRunControlService.start(1L);
+        ageControls();
+
+        givenRun(1L, TestRunStatus.COMPLETED);
+        testRunControlService.evictAbandonedControls();
+
+        assertTrue(controls().containsKey(1L));
+        testRunControlService.finish(1L);
+        assertFalse(controls().containsKey(1L));
+    }
+
+    private void givenRun(Long id, TestRunStatus status) {
+        TestRun testRun = new TestRun();
+        testRun.setId(id);
+        testRun.setStatus(status);
+        Mockito.when(testRunRepository.findById(id)).thenReturn(Optional.of(testRun));
+    }
+
+    private void ageControls() {
+        for (Object control : controls().values()) {
+            ReflectionTestUtils.setField(control, "createdAt", System.currentTimeMillis() - 120_000);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> controls() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(testRunControlService, "controls");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
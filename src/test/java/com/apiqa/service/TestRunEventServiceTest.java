@@ -0,0 +1,127 @@
+package com.apiqa.service;
+
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunStatus;
+import com.apiqa.repository.TestRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Covers subscribers joining while a run finishes and subscribers that cannot keep up.
+ * Emitters are never attached to a response here, so completing one only marks it complete.
+ */
+class TestRunEventServiceTest {
+
+    private static final int BUFFER_SIZE = 4;
+
+    private TestRunRepository testRunRepository;
+    private TestRunEventService testRunEventService;
+
+    @BeforeEach
+    void setUp() {
+        testRunRepository = Mockito.mock(TestRunRepository.class);
+        testRunEventService = new TestRunEventService();
+        ReflectionTestUtils.setField(testRunEventService, "testRunRepository", testRunRepository);
+        ReflectionTestUtils.setField(testRunEventService, "eventTimeoutMinutes", 30L);
+        ReflectionTestUtils.setField(testRunEventService, "eventBufferSize", BUFFER_SIZE);
+        ReflectionTestUtils.setField(testRunEventService, "eventSenders", 2);
+        testRunEventService.initSenders();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testRunEventService.shutdown();
+    }
+
+    @Test
+    void subscriberOfRunFinishingWhileSubscribingIsCompleted() throws InterruptedException {
+        TestRun finished = run(1L, TestRunStatus.COMPLETED);
+        // The run finishes after the subscriber has read it as still pending
+        Mockito.when(testRunRepository.findById(1L)).thenAnswer(invocation -> {
+            testRunEventService.runFinished(finished);
+            return Optional.of(run(1L, TestRunStatus.PENDING));
+        });
+
+        SseEmitter emitter = testRunEventService.subscribe(1L);
+
+        awaitComplete(emitter);
+        assertTrue(streams().isEmpty());
+    }
+
+    @Test
+    void subscriberOfFinishedRunIsCompleted() throws InterruptedException {
+        testRunEventService.runFinished(run(1L, TestRunStatus.FAILED));
+        Mockito.when(testRunRepository.findById(1L)).thenReturn(Optional.of(run(1L, TestRunStatus.FAILED)));
+
+        SseEmitter emitter = testRunEventService.subscribe(1L);
+
+        awaitComplete(emitter);
+        assertTrue(streams().isEmpty());
+    }
+
+    @Test
+    void blockedSubscriberKeepsOnlyLatestEvents() {
+        Mockito.when(testRunRepository.findById(1L)).thenReturn(Optional.of(run(1L, TestRunStatus.RUNNING)));
+        SseEmitter emitter = testRunEventService.subscribe(1L);
+
+        // Sends lock the emitter, so holding it stalls this subscriber's sender
+        synchronized (emitter) {
+            testRunEventService.runStarted(1L, 100);
+            for (long i = 1; i <= 100; i++) {
+                TestExecution execution = new TestExecution();
+                execution.setId(i);
+                execution.setStatus(TestExecutionStatus.PASSED);
+                testRunEventService.executionCompleted(1L, execution);
+            }
+
+            // Publishing went on without waiting for the subscriber
+            Collection<?> pending = pending();
+            assertTrue(pending.size() <= BUFFER_SIZE);
+            String[] latest = (String[]) pending.toArray()[pending.size() - 1];
+            assertTrue(latest[1].contains("\"executionId\":100"));
+        }
+    }
+
+    private static TestRun run(Long id, TestRunStatus status) {
+        TestRun testRun = new TestRun();
+        testRun.setId(id);
+        testRun.setStatus(status);
+        return testRun;
+    }
+
+    private static void awaitComplete(SseEmitter emitter) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Boolean.TRUE.equals(ReflectionTestUtils.getField(emitter, "complete"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Boolean.TRUE, ReflectionTestUtils.getField(emitter, "complete"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> streams() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(testRunEventService, "streams");
+    }
+
+    private Collection<?> pending() {
+        Object stream = streams().get(1L);
+        Object subscriber = ((List<?>) ReflectionTestUtils.getField(stream, "subscribers")).get(0);
+        synchronized (subscriber) {
+            return List.copyOf((Collection<?>) ReflectionTestUtils.getField(subscriber, "pending"));
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.apiqa.service;
+
+import com.apiqa.dto.ScenarioHistoryRow;
+import com.apiqa.model.ApiSpec;
+import com.apiqa.model.TestExecution;
+import com.apiqa.model.TestExecutionStatus;
+import com.apiqa.model.TestRun;
+import com.apiqa.model.TestRunType;
+import com.apiqa.model.TestScenario;
+import com.apiqa.repository.TestExecutionRepository;
+import com.apiqa.repository.TestRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Selection of scheduled runs against a stubbed execution history: which scenarios must run, how the
+ * budget is filled, when a full run is due, and that scenarios left out take their turn later.
+ */
+class TestSelectionServiceTest {
+
+    private static final Long API_SPEC_ID = 1L;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    // Newest first per scenario, as the repository returns them
+    private final Map<Long, List<ScenarioHistoryRow>> history = new HashMap<>();
+    // deselectedTests of earlier scheduled runs, newest first
+    private final LinkedList<Integer> earlierRuns = new LinkedList<>();
+
+    private TestSelectionService testSelectionService;
+
+    @BeforeEach
+    void setUp() {
+        TestExecutionRepository testExecutionRepository = Mockito.mock(TestExecutionRepository.class);
+        Mockito.when(testExecutionRepository.findScenarioHistory(Mockito.eq(API_SPEC_ID), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> history.values().stream().flatMap(List::stream).toList());
+        TestRunRepository testRunRepository = Mockito.mock(TestRunRepository.class);
+        Mockito.when(testRunRepository.findRecentDeselectedTests(Mockito.eq(API_SPEC_ID), Mockito.eq(TestRunType.SCHEDULED),
+                Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+                    int size = invocation.getArgument(3, Pageable.class).getPageSize();
+                    return new ArrayList<>(earlierRuns.subList(0, Math.min(size, earlierRuns.size())));
+                });
+
+        testSelectionService = new TestSelectionService();
+        ReflectionTestUtils.setField(testSelectionService, "testExecutionRepository", testExecutionRepository);
+        ReflectionTestUtils.setField(testSelectionService, "testRunRepository", testRunRepository);
+        ReflectionTestUtils.setField(testSelectionService, "enabled", true);
+        ReflectionTestUtils.setField(testSelectionService, "budgetPercent", 30);
+        ReflectionTestUtils.setField(testSelectionService, "minScenarios", 0);
+        ReflectionTestUtils.setField(testSelectionService, "fullRunEvery", 6);
+        ReflectionTestUtils.setField(testSelectionService, "historyRuns", 20);
+        ReflectionTestUtils.setField(testSelectionService, "historyDays", 7);
+        // A full run just happened, so selection applies
+        earlierRuns.add(null);
+    }
+
+    @Test
+    void newChangedAndNotPassingScenariosMustRun() {
+        ReflectionTestUtils.setField(testSelectionService, "budgetPercent", 0);
+        List<TestScenario> scenarios = scenarios(6);
+        // Scenario 1 is new
+        ran(2, TestExecutionStatus.PASSED, now.minusHours(2));
+        ran(3, TestExecutionStatus.PASSED, now.minusHours(2));
+        scenarios.get(2).setChangedAt(now.minusHours(1));
+        ran(4, TestExecutionStatus.FAILED, now.minusHours(2));
+        ran(5, TestExecutionStatus.ERROR, now.minusHours(2));
+        ran(6, TestExecutionStatus.PASSED, now.minusHours(2));
+        // Changed before it last ran, so already covered by that run
+        scenarios.get(5).setChangedAt(now.minusHours(3));
+
+        TestRun testRun = scheduledRun();
+        List<TestExecution> selected = testSelectionService.selectExecutions(testRun, executions(testRun, scenarios));
+
+        assertEquals(List.of(1L, 3L, 4L, 5L), scenarioIds(selected));
+        assertEquals(2, testRun.getDeselectedTests());
+    }
+
+    @Test
+    void budgetIsAtLeastMinScenarios() {
+        ReflectionTestUtils.setField(testSelectionService, "minScenarios", 5);
+        List<TestScenario> scenarios = scenarios(10);
+        for (long id = 1; id <= 10; id++) {
+            ran(id, TestExecutionStatus.PASSED, now.minusHours(id));
+        }
+
+        TestRun testRun = scheduledRun();
+        List<TestExecution> selected = testSelectionService.selectExecutions(testRun, executions(testRun, scenarios));
+
+        // 30 percent would be 3; the stalest go first and the original order is kept
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), scenarioIds(selected));
+        assertEquals(5, testRun.getDeselectedTests());
+    }
+
+    @Test
+    void mustRunScenariosRunBeyondBudget() {
+        List<TestScenario> scenarios = scenarios(10);
+        for (long id = 1; id <= 10; id++) {
+            ran(id, id <= 7 ? TestExecutionStatus.FAILED : TestExecutionStatus.PASSED, now.minusHours(1));
+        }
+
+        TestRun testRun = scheduledRun();
+        List<TestExecution> selected = testSelectionService.selectExecutions(testRun, executions(testRun, scenarios));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), scenarioIds(selected));
+    }
+
+    @Test
+    void fullRunEveryThirdScheduledRun() {
+        ReflectionTestUtils.setField(testSelectionService, "fullRunEvery", 3);
+        earlierRuns.clear();
+        List<TestScenario> scenarios = scenarios(10);
+        for (long id = 1; id <= 10; id++) {
+            ran(id, TestExecutionStatus.PASSED, now.minusHours(1));
+        }
+
+        List<Integer> deselected = new ArrayList<>();
+        for (int run = 0; run < 6; run++) {
+            TestRun testRun = scheduledRun();
+            List<TestExecution> executions = executions(testRun, scenarios);
+            List<TestExecution> selected = testSelectionService.selectExecutions(testRun, executions);
+            if (testRun.getDeselectedTests() == null) {
+                assertSame(executions, selected);
+            }
+            deselected.add(testRun.getDeselectedTests());
+            earlierRuns.addFirst(testRun.getDeselectedTests());
+        }
+
+        // Without earlier scheduled runs a full run is due
+        assertEquals(Arrays.asList(null, 7, 7, null, 7, 7), deselected);
+    }
+
+    @Test
+    void disabledSelectionRunsEverything() {
+        ReflectionTestUtils.setField(testSelectionService, "enabled", false);
+        List<TestScenario> scenarios = scenarios(10);
+        for (long id = 1; id <= 10; id++) {
+            ran(id, TestExecutionStatus.PASSED, now.minusHours(1));
+        }
+
+        TestRun testRun = scheduledRun();
+        assertEquals(10, testSelectionService.selectExecutions(testRun, executions(testRun, scenarios)).size());
+        assertNull(testRun.getDeselectedTests());
+    }
+
+    @Test
+    void deselectedScenariosTakeTheirTurnThroughStaleness() {
+        List<TestScenario> scenarios = scenarios(10);
+        for (long id = 1; id <= 10; id++) {
+            // Scenario 1 ran most recently, so it would never be picked without staleness
+            ran(id, TestExecutionStatus.PASSED, now.minusMinutes(30 * (11 - id)));
+        }
+
+        Set<Long> covered = new HashSet<>();
+        List<Integer> coveredAfterRun = new ArrayList<>();
+        for (int run = 0; run < 4; run++) {
+            TestRun testRun = scheduledRun();
+            List<Long> selected = scenarioIds(testSelectionService.selectExecutions(testRun, executions(testRun, scenarios)));
+            assertEquals(3, selected.size());
+            // Selected scenarios pass again and become the most recently run
+            for (Long id : selected) {
+                history.get(id).add(0, new ScenarioHistoryRow(id, TestExecutionStatus.PASSED, 100L, now.plusMinutes(run)));
+            }
+            covered.addAll(selected);
+            coveredAfterRun.add(covered.size());
+        }
+
+        // No scenario runs twice before every other one has run
+        assertEquals(List.of(3, 6, 9, 10), coveredAfterRun);
+    }
+
+    @Test
+    void scoreRanksFailingAndFlakyAboveStable() {
+        TestSelectionService.ScenarioStats stable = stats(now.minusHours(1),
+                TestExecutionStatus.PASSED, TestExecutionStatus.PASSED, TestExecutionStatus.PASSED);
+        TestSelectionService.ScenarioStats flaky = stats(now.minusHours(1),
+                TestExecutionStatus.PASSED, TestExecutionStatus.FAILED, TestExecutionStatus.PASSED);
+        TestSelectionService.ScenarioStats failedBefore = stats(now.minusHours(1),
+                TestExecutionStatus.PASSED, TestExecutionStatus.FAILED, TestExecutionStatus.FAILED);
+
+        assertEquals(0, stable.failureRate());
+        assertEquals(0, stable.flakiness());
+        assertEquals(1, flaky.flakiness());
+        // Failures count less the older they are
+        assertEquals(0.7 / (1 + 0.7 + 0.49), flaky.failureRate(), 1e-9);
+        assertTrue(failedBefore.failureRate() > flaky.failureRate());
+
+        assertTrue(flaky.score(now, 7) > stable.score(now, 7));
+        assertTrue(failedBefore.score(now, 7) > stable.score(now, 7));
+        // Staleness alone never outweighs a single recent failure
+        TestSelectionService.ScenarioStats staleStable = stats(now.minusDays(30), TestExecutionStatus.PASSED);
+        assertEquals(1, staleStable.score(now, 7), 1e-9);
+        assertTrue(failedBefore.score(now, 7) > staleStable.score(now, 7));
+    }
+
+    @Test
+    void latencyVariationAddsToScore() {
+        TestSelectionService.ScenarioStats steady = stats(now, TestExecutionStatus.PASSED, TestExecutionStatus.PASSED);
+        TestSelectionService.ScenarioStats varying = new TestSelectionService.ScenarioStats();
+        varying.add(new ScenarioHistoryRow(1L, TestExecutionStatus.PASSED, 50L, now));
+        varying.add(new ScenarioHistoryRow(1L, TestExecutionStatus.PASSED, 150L, now.minusHours(1)));
+
+        assertEquals(0, steady.latencyVariation());
+        assertEquals(0.5, varying.latencyVariation(), 1e-9);
+        assertTrue(varying.score(now, 7) > steady.score(now, 7));
+    }
+
+    @Test
+    void mustRunComparesChangeWithLatestExecution() {
+        TestSelectionService.ScenarioStats passed = stats(now.minusHours(1), TestExecutionStatus.PASSED, TestExecutionStatus.FAILED);
+        TestScenario scenario = scenarios(1).get(0);
+
+        assertFalse(passed.mustRun(scenario));
+        scenario.setChangedAt(now.minusHours(2));
+        assertFalse(passed.mustRun(scenario));
+        scenario.setChangedAt(now);
+        assertTrue(passed.mustRun(scenario));
+        assertTrue(stats(now.minusHours(1), TestExecutionStatus.ERROR).mustRun(scenarios(1).get(0)));
+    }
+
+    private void ran(long scenarioId, TestExecutionStatus status, LocalDateTime executedAt) {
+        history.computeIfAbsent(scenarioId, id -> new ArrayList<>())
+                .add(new ScenarioHistoryRow(scenarioId, status, 100L, executedAt));
+    }
+
+    /**
+     * @param lastExecutedAt When the newest of the statuses was recorded
+     * @param statuses Outcomes, newest first, an hour apart
+     */
+    private static TestSelectionService.ScenarioStats stats(LocalDateTime lastExecutedAt, TestExecutionStatus... statuses) {
+        TestSelectionService.ScenarioStats stats = new TestSelectionService.ScenarioStats();
+        for (int i = 0; i < statuses.length; i++) {
+            stats.add(new ScenarioHistoryRow(1L, statuses[i], 100L, lastExecutedAt.minusHours(i)));
+        }
+        return stats;
+    }
+
+    private static List<TestScenario> scenarios(int count) {
+        List<TestScenario> scenarios = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            TestScenario scenario = new TestScenario("Scenario " + id, null, "GET", "/items/" + id,
+                    null, null, null, 200, null, null);
+            scenario.setId(id);
+            scenarios.add(scenario);
+        }
+        return scenarios;
+    }
+
+    private static TestRun scheduledRun() {
+        ApiSpec apiSpec = new ApiSpec("items", "openapi: 3.0.0", "1.0");
+        apiSpec.setId(API_SPEC_ID);
+        TestRun testRun = new TestRun("scheduled", TestRunType.SCHEDULED, apiSpec);
+        testRun.setId(100L);
+        return testRun;
+    }
+
+    private static List<TestExecution> executions(TestRun testRun, List<TestScenario> scenarios) {
+        return scenarios.stream().map(scenario -> new TestExecution(scenario, testRun)).toList();
+    }
+
+    private static List<Long> scenarioIds(List<TestExecution> executions) {
+        assertNotNull(executions);
+        return executions.stream().map(execution -> execution.getTestScenario().getId()).toList();
+    }
+}
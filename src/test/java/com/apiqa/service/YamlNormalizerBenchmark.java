@@ -0,0 +1,87 @@
+package com.apiqa.service;
+
+import com.apiqa.benchmark.SyntheticSpecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spec normalization, single pass against the regex chain it replaced.
+ * Lives next to YamlNormalizer because the class is package-private.
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.apiqa.service.YamlNormalizerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YamlNormalizerBenchmark {
+
+    /** A sample spec, or the number of resources of a synthetic spec (two paths each) */
+    @Param({"petspec.yml", "1500"})
+    private String spec;
+
+    private String content;
+
+    @Setup
+    public void setUp() throws IOException {
+        content = spec.endsWith(".yml")
+                ? Files.readString(Paths.get("sample", spec))
+                : SyntheticSpecs.openApi(Integer.parseInt(spec));
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return YamlNormalizer.normalize(content);
+    }
+
+    @Benchmark
+    public int streaming() throws IOException {
+        int length = 0;
+        char[] buffer = new char[8192];
+        try (Reader in = YamlNormalizer.normalizing(new StringReader(content))) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                length += read;
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String regexChain() {
+        // The cleanYamlContent chain that YamlNormalizer replaced, kept as the baseline
+        String cleaned = content;
+        cleaned = cleaned.replaceAll("\\$\\{[^}]+\\}", "PLACEHOLDER_VALUE");
+        cleaned = cleaned.replaceAll("\\$[A-Z_]+", "PLACEHOLDER_VALUE");
+        cleaned = cleaned.replaceAll("\\$\\$", "DOLLAR_SIGN");
+        cleaned = cleaned.replaceAll("\\@\\@", "AT_SIGN");
+        cleaned = cleaned.replaceAll("#.*$", "");
+        cleaned = cleaned.replaceAll("\\|\\s*$", "|");
+        cleaned = cleaned.replaceAll(">\\s*$", ">");
+        return cleaned.replaceAll("\\r\\n", "\n").replaceAll("\\r", "\n");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(YamlNormalizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
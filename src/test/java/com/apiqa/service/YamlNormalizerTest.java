@@ -0,0 +1,111 @@
+package com.apiqa.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Covers the scanner states of the normalizer: quoted scalars, block scalars and comments.
+ * Every case is checked against both the in-memory and the streaming variant.
+ */
+class YamlNormalizerTest {
+
+    @Test
+    void dropsCommentsAtLineStartAndAfterWhitespace() {
+        assertNormalized("\na: 1\n\nb: 2", "# header\na: 1 # trailing\n  # indented\nb: 2");
+    }
+
+    @Test
+    void keepsHashInsidePlainScalars() {
+        assertNormalized("url: https://example.com/docs#section\ncolor: a#b",
+                "url: https://example.com/docs#section\ncolor: a#b");
+    }
+
+    @Test
+    void keepsHashInsideQuotedScalars() {
+        assertNormalized("$ref: '#/components/schemas/Pet'\nname: \"tag # 1\"",
+                "$ref: '#/components/schemas/Pet'\nname: \"tag # 1\" # comment");
+    }
+
+    @Test
+    void handlesEscapedQuotes() {
+        assertNormalized("a: 'it''s # here'\nb: \"say \\\" # here\"",
+                "a: 'it''s # here' # gone\nb: \"say \\\" # here\" # gone");
+    }
+
+    @Test
+    void keepsQuotedScalarOpenAcrossLines() {
+        assertNormalized("description: \"first line\n  # still quoted\"\nnext: 1",
+                "description: \"first line\n  # still quoted\"\nnext: 1 # comment");
+    }
+
+    @Test
+    void keepsBlockScalarContentVerbatim() {
+        String content = "description: |\n  Use # for anchors  \n\n  and keep trailing space  \nnext: 1 # comment";
+        assertNormalized("description: |\n  Use # for anchors  \n\n  and keep trailing space  \nnext: 1", content);
+    }
+
+    @Test
+    void recognizesBlockScalarIndicators() {
+        assertNormalized("a: >-\n  # folded\nb: |2\n   # literal\nc: 1",
+                "a: >- # comment\n  # folded\nb: |2\n   # literal\nc: 1");
+    }
+
+    @Test
+    void doesNotTreatPipeInsideScalarAsBlockIndicator() {
+        assertNormalized("pattern: a|b\nnext: 1", "pattern: a|b\nnext: 1 # comment");
+    }
+
+    @Test
+    void substitutesPlaceholdersEverywhere() {
+        assertNormalized("url: PLACEHOLDER_VALUE/v1\ntoken: 'PLACEHOLDER_VALUE'\ncost: DOLLAR_SIGN5\nmail: AT_SIGN\ntext: |\n  PLACEHOLDER_VALUE",
+                "url: ${BASE_URL}/v1\ntoken: '$TOKEN'\ncost: $$5\nmail: @@\ntext: |\n  ${VALUE}");
+    }
+
+    @Test
+    void normalizesLineEndingsAndTrailingWhitespace() {
+        assertNormalized("a: 1\nb: 2\nc: 3\n", "a: 1  \r\nb: 2\rc: 3\t\r\n");
+    }
+
+    @Test
+    void streamingHandlesLinesAndLineBreaksAcrossReadChunks() {
+        // The streaming reader reads 8192 characters at a time, so this CRLF straddles two reads
+        String longValue = "x".repeat(8192 - "a: ".length() - 1);
+        assertNormalized("a: " + longValue + "\nb: " + longValue + longValue + "\n",
+                "a: " + longValue + "\r\nb: " + longValue + longValue + " # comment\r\n");
+    }
+
+    @Test
+    void streamingMatchesInMemoryOnSampleSpecs() throws IOException {
+        for (String sample : new String[]{"petspec.yml", "petspec-swagger2.yml", "jsonplaceholder.yml", "httpbinspec-swagger2.yml"}) {
+            String content = Files.readString(Paths.get("sample", sample));
+            assertEquals(YamlNormalizer.normalize(content), normalizeStreaming(content), sample);
+        }
+    }
+
+    private static void assertNormalized(String expected, String content) {
+        assertEquals(expected, YamlNormalizer.normalize(content));
+        assertEquals(expected, normalizeStreaming(content));
+    }
+
+    private static String normalizeStreaming(String content) {
+        StringWriter out = new StringWriter();
+        try (Reader in = YamlNormalizer.normalizing(new StringReader(content))) {
+            // Small reads so lines are handed out across several calls
+            char[] buffer = new char[7];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+}